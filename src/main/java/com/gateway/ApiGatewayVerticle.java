@@ -1,59 +1,265 @@
 package com.gateway;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Vertx;
 import io.vertx.core.VertxOptions;
 import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Route;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.handler.BodyHandler;
+import com.gateway.aggregate.AggregationEngine;
+import com.gateway.aggregate.RouteDefinition;
+import com.gateway.aggregate.RouteEnricher;
+import com.gateway.aggregate.UpstreamDefinition;
+import com.gateway.aggregate.UpstreamFetcherVerticle;
 import com.gateway.config.AppConfig;
+import com.gateway.config.ConfigHolder;
+import com.gateway.config.ConfigWatcher;
+import com.gateway.config.ProxyRoute;
+import com.gateway.handler.AccessLogHandler;
 import com.gateway.handler.AggregateHandler;
+import com.gateway.handler.BatchAggregateHandler;
+import com.gateway.handler.ConcurrencyLimitHandler;
 import com.gateway.handler.GlobalExceptionHandler;
+import com.gateway.handler.MetricsHandler;
+import com.gateway.handler.ProxyHandler;
+import com.gateway.handler.RateLimitHandler;
+import com.gateway.limit.RateLimiter;
+import com.gateway.logging.AsyncLog;
+import com.gateway.metrics.EventLoopLagProbe;
+import com.gateway.handler.ResponseWriter;
+import com.gateway.service.BlockingRunner;
+import com.gateway.service.SharedResources;
+import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.compression.StandardCompressionOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class ApiGatewayVerticle extends AbstractVerticle {
 
+  private final Map<String, RouteEnricher> enrichers;
   private AppConfig config;
+  private boolean configsAcquired;
+  private EventLoopLagProbe lagProbe;
+
+  public ApiGatewayVerticle() {
+    this(Collections.emptyMap());
+  }
+
+  /**
+   * @param enrichers blocking steps keyed by aggregate route path
+   */
+  public ApiGatewayVerticle(Map<String, RouteEnricher> enrichers) {
+    this.enrichers = enrichers;
+  }
 
   @Override
   public void start(Promise<Void> startPromise) {
-    config = new AppConfig(vertx);
+    SharedResources.get(vertx).configs(config())
+      .onSuccess(configs -> {
+        configsAcquired = true;
+        start(configs, startPromise);
+      })
+      .onFailure(err -> {
+        AsyncLog.get().error("Failed to load configuration", err);
+        startPromise.fail(err);
+      });
+  }
+
+  /**
+   * Server port, routes, access log, metrics, rate limits and load shedding are
+   * fixed at startup; upstream and proxy URLs, timeouts, breakers, clients, retries
+   * and hedging follow configuration reloads.
+   */
+  private void start(ConfigHolder configs, Promise<Void> startPromise) {
+    config = configs.current();
 
-    GlobalExceptionHandler exceptionHandler = new GlobalExceptionHandler();
-    AggregateHandler aggregateHandler = new AggregateHandler(vertx, config);
+    SharedResources shared = SharedResources.get(vertx);
+    ResponseWriter responseWriter = new ResponseWriter(config);
+    GlobalExceptionHandler exceptionHandler = new GlobalExceptionHandler(
+      responseWriter, shared.metrics(), config.getUpstreamLimitRetryAfterSeconds());
+    AggregationEngine engine = config.isFetchersEnabled()
+      ? AggregationEngine.viaEventBus(vertx, configs)
+      : new AggregationEngine(vertx, configs);
+    BlockingRunner blocking = new BlockingRunner(vertx, context.threadingModel() == ThreadingModel.VIRTUAL_THREAD);
 
     Router router = Router.router(vertx);
-    router.route().handler(BodyHandler.create());
-    router.get("/aggregate").handler(aggregateHandler::handle);
+    if (config.isAccessLogEnabled()) {
+      router.route().handler(new AccessLogHandler(AsyncLog.get())::handle);
+    }
+    if (config.isMetricsEnabled()) {
+      router.get(config.getMetricsPath()).handler(new MetricsHandler(shared)::handle);
+      lagProbe = new EventLoopLagProbe(vertx, config.getEventLoopLagIntervalMs(), shared.metrics().eventLoopLag());
+      lagProbe.start();
+    }
+    if (config.isRateLimitEnabled()) {
+      RateLimiter global = config.getRateLimitGlobalRps() > 0
+        ? shared.rateLimiter("global", config.getRateLimitGlobalRps(), config.getRateLimitGlobalBurst(),
+            1, config.getRateLimitSweepMs())
+        : null;
+      RateLimitHandler rateLimitHandler = new RateLimitHandler(
+        shared.rateLimiter("client", config.getRateLimitPerKeyRps(), config.getRateLimitPerKeyBurst(),
+          config.getRateLimitMaxKeys(), config.getRateLimitSweepMs()),
+        global,
+        config.getRateLimitKeyHeader());
+      router.route().handler(rateLimitHandler::handle);
+    }
+    // Only aggregate and batch routes are limited: a scrape must not be shed, and a
+    // proxied stream's duration is not a round-trip time the limiter can learn from.
+    ConcurrencyLimitHandler limitHandler = config.isServerLimitEnabled()
+      ? new ConcurrencyLimitHandler(
+          shared.concurrencyLimiter("server",
+            config.getServerLimitInitial(), config.getServerLimitMin(), config.getServerLimitMax()),
+          config.getServerLimitRetryAfterSeconds())
+      : null;
+    for (RouteDefinition route : config.getAggregateRoutes()) {
+      AggregateHandler aggregateHandler = new AggregateHandler(
+        engine, route, responseWriter, enrichers.get(route.getPath()), blocking);
+      Route aggregate = router.get(route.getPath());
+      if (limitHandler != null) {
+        aggregate.handler(limitHandler::handle);
+      }
+      aggregate.handler(aggregateHandler::handle);
+      if (config.isBatchEnabled()) {
+        BatchAggregateHandler batchHandler = new BatchAggregateHandler(
+          engine, route, enrichers.get(route.getPath()), blocking);
+        // Vert.x requires the body handler first.
+        Route batch = router.post(BatchAggregateHandler.path(route)).handler(bodyHandler());
+        if (limitHandler != null) {
+          batch.handler(limitHandler::handle);
+        }
+        batch.handler(batchHandler::handle);
+      }
+    }
+    for (ProxyRoute proxy : config.getProxyRoutes().values()) {
+      ProxyHandler proxyHandler = new ProxyHandler(configs, proxy, shared.metrics());
+      router.route(proxy.getPath()).handler(proxyHandler::handle);
+      router.route(proxy.getPath() + "/*").handler(proxyHandler::handle);
+    }
     router.route().failureHandler(exceptionHandler::handle);
 
-    HttpServer server = vertx.createHttpServer();
+    HttpServer server = vertx.createHttpServer(serverOptions());
 
-    server.requestHandler(router)
-      .listen(config.getServerPort())
+    prewarmUpstreams()
+      .compose(v -> server.requestHandler(router).listen(config.getServerPort()))
       .onSuccess(http -> {
-        System.out.println("API Gateway started on port " + config.getServerPort());
+        AsyncLog.get().info("API Gateway started on port " + config.getServerPort());
         startPromise.complete();
       })
       .onFailure(err -> {
-        System.err.println("Failed to start server: " + err.getMessage());
+        AsyncLog.get().error("Failed to start server", err);
+        // stop() is not called when start fails.
+        stop();
         startPromise.fail(err);
       });
   }
 
-  public static void main(String[] args) {
+  @Override
+  public void stop() {
+    if (configsAcquired) {
+      configsAcquired = false;
+      SharedResources.get(vertx).releaseConfigs(config());
+    }
+    if (lagProbe != null) {
+      lagProbe.stop();
+    }
+  }
+
+  /**
+   * Aggregate upstreams are prewarmed by their fetchers when those are enabled.
+   */
+  private Future<Void> prewarmUpstreams() {
+    List<Future<Void>> prewarms = new ArrayList<>();
+    if (!config.isFetchersEnabled()) {
+      for (RouteDefinition route : config.getAggregateRoutes()) {
+        for (UpstreamDefinition upstream : route.getUpstreams()) {
+          prewarms.add(config.getUpstreamClients().prewarm(upstream.getName(), upstream.getUrl().toString()));
+        }
+      }
+    }
+    for (ProxyRoute proxy : config.getProxyRoutes().values()) {
+      prewarms.add(config.getUpstreamClients().prewarm(proxy.getName(), proxy.getUrl()));
+    }
+    return Future.join(prewarms).mapEmpty();
+  }
+
+  /**
+   * Buffers request bodies for the routes that read them (batch POSTs); GET routes
+   * never go through it. Bodies over {@code body.limit.bytes} get 413, and uploads
+   * are only written to disk when {@code body.uploads.enabled} is set.
+   */
+  private BodyHandler bodyHandler() {
+    BodyHandler handler = BodyHandler.create(config.isBodyUploadsEnabled())
+      .setBodyLimit(config.getBodyLimitBytes());
+    if (config.isBodyUploadsEnabled()) {
+      handler.setUploadsDirectory(config.getBodyUploadsDirectory());
+    }
+    return handler;
+  }
+
+  private HttpServerOptions serverOptions() {
+    HttpServerOptions options = new HttpServerOptions()
+      .setCompressionSupported(config.isCompressionEnabled())
+      .setCompressionLevel(config.getCompressionLevel());
+
+    if (config.isCompressionEnabled()) {
+      if (Brotli.isAvailable()) {
+        options.addCompressor(StandardCompressionOptions.brotli());
+      }
+      options
+        .addCompressor(StandardCompressionOptions.gzip(config.getCompressionLevel(), 15, 8))
+        .addCompressor(StandardCompressionOptions.deflate(config.getCompressionLevel(), 15, 8));
+    }
+    return options;
+  }
+
+  public static void main(String[] args) throws Exception {
+
+    Vertx bootstrap = Vertx.vertx();
+    JsonObject settings;
+    Map<String, Integer> fetchers;
+    try {
+      settings = ConfigWatcher.load(bootstrap, new JsonObject())
+        .toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+      AppConfig startup = new AppConfig(bootstrap, settings);
+      fetchers = startup.isFetchersEnabled() ? UpstreamFetcherVerticle.instances(startup) : Collections.emptyMap();
+      startup.close();
+    } finally {
+      bootstrap.close();
+    }
+    int instances = AppConfig.resolveInstances(settings);
+    ThreadingModel threadingModel = AppConfig.resolveThreadingModel(settings);
+    // Fetchers get event loops of their own, apart from the HTTP verticles'.
+    int fetcherInstances = fetchers.values().stream().mapToInt(Integer::intValue).sum();
 
     VertxOptions options = new VertxOptions()
       .setWorkerPoolSize(20)
-      .setEventLoopPoolSize(4)
+      .setEventLoopPoolSize(instances + fetcherInstances)
       .setMaxWorkerExecuteTime(60_000_000_000L); // 60 seconds
 
     Vertx vertx = Vertx.vertx(options);
 
-    vertx.deployVerticle(new ApiGatewayVerticle())
-      .onSuccess(id -> System.out.println("Verticle deployed successfully with ID: " + id))
+    DeploymentOptions deploymentOptions = new DeploymentOptions()
+      .setInstances(instances)
+      .setThreadingModel(threadingModel);
+
+    UpstreamFetcherVerticle.deploy(vertx, fetchers, new JsonObject())
+      .compose(v -> vertx.deployVerticle(ApiGatewayVerticle::new, deploymentOptions))
+      .onSuccess(id -> AsyncLog.get().info(
+        "Verticle deployed successfully with ID: " + id + " (" + instances + " instances, "
+          + threadingModel + ")"))
       .onFailure(err -> {
-        System.err.println("Failed to deploy verticle: " + err.getMessage());
+        AsyncLog.get().error("Failed to deploy verticle", err);
         vertx.close();
       });
   }
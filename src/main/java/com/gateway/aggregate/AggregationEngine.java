@@ -0,0 +1,357 @@
+package com.gateway.aggregate;
+
+import com.gateway.config.AppConfig;
+import com.gateway.config.ConfigHolder;
+import com.gateway.exception.ApiException;
+import com.gateway.json.JsonProjection;
+import com.gateway.logging.ErrorLog;
+import com.gateway.metrics.MetricsRegistry;
+import com.gateway.service.ApiService;
+import com.gateway.service.SharedResources;
+import io.vertx.circuitbreaker.CircuitBreaker;
+import io.vertx.circuitbreaker.CircuitBreakerOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Executes aggregate routes. Upstreams without dependencies are fetched in parallel;
+ * a dependent upstream is fetched as soon as the upstreams it references complete.
+ * Each upstream goes through its own process-wide circuit breaker ("<name>-breaker").
+ *
+ * One engine per verticle instance; it owns that instance's ApiService. An engine
+ * from {@link #viaEventBus} has none: it sends each upstream fetch to that upstream's
+ * {@link UpstreamFetcherVerticle} and only expands URLs and merges results.
+ */
+public class AggregationEngine {
+
+  // The fetcher's breaker times out after http.timeout; this leaves room for its reply.
+  private static final long FETCHER_REPLY_MARGIN_MS = 1000;
+  private static final ApiException FETCHER_UNAVAILABLE =
+    ApiException.stackless("Upstream fetcher unavailable", 503, "UPSTREAM_FETCHER_UNAVAILABLE");
+  private static final ApiException FETCHER_TIMEOUT =
+    ApiException.stackless("Upstream fetcher timed out", 504, "UPSTREAM_FETCHER_TIMEOUT");
+
+  private final ApiService apiService;
+  private final SharedResources shared;
+  private final ConfigHolder configs;
+  private final EventBus fetchBus;
+  private final Map<String, CircuitBreaker> breakers = new HashMap<>();
+  private AppConfig breakerConfig;
+  private boolean reconfigureBreakers;
+
+  public AggregationEngine(Vertx vertx, AppConfig config) {
+    this(vertx, new ConfigHolder(config));
+  }
+
+  public AggregationEngine(Vertx vertx, ConfigHolder configs) {
+    this(vertx, configs, new ApiService(vertx, configs));
+  }
+
+  public AggregationEngine(Vertx vertx, AppConfig config, ApiService apiService) {
+    this(vertx, new ConfigHolder(config), apiService);
+  }
+
+  public AggregationEngine(Vertx vertx, ConfigHolder configs, ApiService apiService) {
+    this(vertx, configs, apiService, null);
+  }
+
+  private AggregationEngine(Vertx vertx, ConfigHolder configs, ApiService apiService, EventBus fetchBus) {
+    this.apiService = apiService;
+    this.shared = SharedResources.get(vertx);
+    this.configs = configs;
+    this.fetchBus = fetchBus;
+  }
+
+  /**
+   * Engine whose upstream fetches go over the event bus to the
+   * {@link UpstreamFetcherVerticle}s, which must be deployed separately.
+   */
+  public static AggregationEngine viaEventBus(Vertx vertx, ConfigHolder configs) {
+    UpstreamFetcherVerticle.registerCodecs(vertx);
+    return new AggregationEngine(vertx, configs, null, vertx.eventBus());
+  }
+
+  /**
+   * @return this instance's ApiService, or null for an engine from {@link #viaEventBus}
+   */
+  public ApiService getApiService() {
+    return apiService;
+  }
+
+  public ConfigHolder getConfigs() {
+    return configs;
+  }
+
+  public MetricsRegistry getMetrics() {
+    return shared.metrics();
+  }
+
+  /**
+   * Runs every upstream of the route and merges the results. Fails only when all
+   * upstreams failed; otherwise failed upstreams contribute their fallback values
+   * and warning.
+   */
+  public Future<JsonObject> execute(RouteDefinition route, Function<String, String> params) {
+    return execute(configs.current(), route, params);
+  }
+
+  /**
+   * Same as {@link #execute(RouteDefinition, Function)} with an explicit
+   * configuration snapshot, used for every upstream call of this execution.
+   */
+  public Future<JsonObject> execute(AppConfig config, RouteDefinition route, Function<String, String> params) {
+    return execute(config, route, params, null);
+  }
+
+  /**
+   * Same as {@link #execute(AppConfig, RouteDefinition, Function)}, sharing upstream
+   * results through {@code memo}: an upstream call whose expanded URL is already in
+   * the memo reuses that result instead of being sent again. Used by batch requests
+   * so items that need the same upstream data (e.g. the same user) fetch it once.
+   *
+   * @param memo upstream name + URL to projected result; null disables sharing
+   */
+  public Future<JsonObject> execute(
+    AppConfig config,
+    RouteDefinition route,
+    Function<String, String> params,
+    Map<String, Future<JsonObject>> memo
+  ) {
+    return merge(route, start(config, route, params, memo));
+  }
+
+  /**
+   * Merges results from {@link #start} once all are complete, with the semantics of
+   * {@link #execute(RouteDefinition, Function)}.
+   */
+  public static Future<JsonObject> merge(RouteDefinition route, List<Future<JsonObject>> results) {
+    return Future.join(results).transform(done -> {
+      Throwable firstFailure = null;
+      for (Future<JsonObject> result : results) {
+        if (result.succeeded()) {
+          return Future.succeededFuture(aggregateResponse(route, results));
+        }
+        if (firstFailure == null) {
+          firstFailure = result.cause();
+        }
+      }
+      return Future.failedFuture(firstFailure);
+    });
+  }
+
+  /**
+   * Starts every upstream of the route and returns their projected results in route
+   * order, unmerged. Lets callers act on each upstream as soon as it completes; see
+   * {@link #putFields} and {@link #aggregateResponse} to build the response.
+   */
+  public List<Future<JsonObject>> start(
+    AppConfig config,
+    RouteDefinition route,
+    Function<String, String> params,
+    Map<String, Future<JsonObject>> memo
+  ) {
+    Map<String, Future<JsonObject>> futures = new HashMap<>();
+    List<Future<JsonObject>> results = new ArrayList<>(route.getUpstreams().size());
+    for (UpstreamDefinition upstream : route.getUpstreams()) {
+      results.add(resolve(config, route, upstream, params, futures, memo));
+    }
+    return results;
+  }
+
+  /**
+   * Puts the upstream's output fields into {@code target}, using its fallback values
+   * when {@code data} is null (the upstream failed) or lacks a field.
+   */
+  public static JsonObject putFields(JsonObject target, UpstreamDefinition upstream, JsonObject data) {
+    for (Map.Entry<String, String> field : upstream.getFields().entrySet()) {
+      Object value = data == null ? null : data.getValue(field.getValue());
+      target.put(field.getKey(), value != null ? value : upstream.getFallback().get(field.getKey()));
+    }
+    return target;
+  }
+
+  /**
+   * Builds the response body from completed upstream results, given in route order.
+   */
+  public static JsonObject aggregateResponse(RouteDefinition route, List<Future<JsonObject>> results) {
+    JsonObject response = new JsonObject();
+    String warning = null;
+
+    List<UpstreamDefinition> upstreams = route.getUpstreams();
+    for (int i = 0; i < upstreams.size(); i++) {
+      UpstreamDefinition upstream = upstreams.get(i);
+      Future<JsonObject> result = results.get(i);
+      JsonObject data = result.succeeded() ? result.result() : null;
+
+      putFields(response, upstream, data);
+      if (data == null) {
+        warning = warning == null ? upstream.getWarning() : warning + "; " + upstream.getWarning();
+      }
+    }
+
+    if (warning != null) {
+      response.put("warning", warning);
+    }
+    return response;
+  }
+
+  private Future<JsonObject> resolve(
+    AppConfig config,
+    RouteDefinition route,
+    UpstreamDefinition upstream,
+    Function<String, String> params,
+    Map<String, Future<JsonObject>> futures,
+    Map<String, Future<JsonObject>> memo
+  ) {
+    Future<JsonObject> existing = futures.get(upstream.getName());
+    if (existing != null) {
+      return existing;
+    }
+
+    Future<JsonObject> future;
+    List<String> dependsOn = upstream.getDependsOn();
+    if (dependsOn.isEmpty()) {
+      future = fetch(config, route, upstream, params, futures, memo);
+    } else {
+      List<Future<JsonObject>> dependencies = new ArrayList<>(dependsOn.size());
+      for (String name : dependsOn) {
+        dependencies.add(resolve(config, route, route.getUpstream(name), params, futures, memo));
+      }
+      future = Future.all(dependencies).compose(ready -> fetch(config, route, upstream, params, futures, memo));
+    }
+    futures.put(upstream.getName(), future);
+    return future;
+  }
+
+  private Future<JsonObject> fetch(
+    AppConfig config,
+    RouteDefinition route,
+    UpstreamDefinition upstream,
+    Function<String, String> params,
+    Map<String, Future<JsonObject>> futures,
+    Map<String, Future<JsonObject>> memo
+  ) {
+    String url = upstream.getUrl().expand(placeholder -> {
+      int dot = placeholder.indexOf('.');
+      if (dot > 0) {
+        Future<JsonObject> dependency = futures.get(placeholder.substring(0, dot));
+        if (dependency != null) {
+          Object value = dependency.result().getValue(placeholder.substring(dot + 1));
+          return value == null ? null : String.valueOf(value);
+        }
+      }
+      return params.apply(placeholder);
+    });
+
+    if (url == null) {
+      return Future.failedFuture(upstream.missingParameter());
+    }
+
+    if (memo == null) {
+      return fetch(config, route, upstream, url);
+    }
+    String key = upstream.getName() + ' ' + url;
+    Future<JsonObject> shared = memo.get(key);
+    if (shared == null) {
+      shared = fetch(config, route, upstream, url);
+      memo.put(key, shared);
+    }
+    return shared;
+  }
+
+  private Future<JsonObject> fetch(AppConfig config, RouteDefinition route, UpstreamDefinition upstream, String url) {
+    if (fetchBus == null) {
+      return fetchInline(config, route, upstream, url);
+    }
+    DeliveryOptions options = new DeliveryOptions().setSendTimeout(config.getHttpTimeout() + FETCHER_REPLY_MARGIN_MS);
+    FetchRequest request = new FetchRequest(route.getPath(), upstream.getName(), url);
+    return fetchBus.<FetchReply>request(UpstreamFetcherVerticle.address(upstream.getName()), request, options)
+      .transform(reply -> {
+        if (reply.succeeded()) {
+          return reply.result().body().toFuture();
+        }
+        boolean timedOut = reply.cause() instanceof ReplyException
+          && ((ReplyException) reply.cause()).failureType() == ReplyFailure.TIMEOUT;
+        ApiException failure = timedOut ? FETCHER_TIMEOUT : FETCHER_UNAVAILABLE;
+        ErrorLog.get().error(failure.getErrorCode(), "Error fetching " + upstream.getName() + " data", reply.cause(),
+          false);
+        shared.metrics().recordUpstreamError(upstream.getName(), failure.getErrorCode());
+        return Future.failedFuture(failure);
+      });
+  }
+
+  /**
+   * Fetches through this engine's breaker and ApiService and projects the result.
+   * A call shed by the upstream's concurrency limit completes the breaker's attempt
+   * without a result, so local backpressure never counts as an upstream failure.
+   */
+  Future<JsonObject> fetchInline(AppConfig config, RouteDefinition route, UpstreamDefinition upstream, String url) {
+    JsonProjection projection = route.getProjection(upstream.getName());
+    return breaker(config, upstream.getName()).<JsonObject>execute(promise ->
+      apiService.fetch(config, upstream.getName(), url)
+        .compose(response -> {
+          if (response.statusCode() == 200) {
+            return Future.succeededFuture(projection.extract(response.body()));
+          } else {
+            return Future.<JsonObject>failedFuture(upstream.error(response.statusCode()));
+          }
+        })
+        .recover(error -> {
+          String errorCode = error instanceof ApiException
+            ? ((ApiException) error).getErrorCode()
+            : upstream.getErrorCode();
+          ErrorLog.get().error(errorCode, "Error fetching " + upstream.getName() + " data", error, false);
+          shared.metrics().recordUpstreamError(upstream.getName(), errorCode);
+          return Future.failedFuture(error);
+        })
+        .onComplete(result -> {
+          if (result.failed() && ApiService.isOverloaded(result.cause())) {
+            promise.complete();
+          } else {
+            promise.handle(result);
+          }
+        })
+    ).compose(data -> data != null
+      ? Future.succeededFuture(data)
+      : Future.failedFuture(ApiService.UPSTREAM_OVERLOADED));
+  }
+
+  /**
+   * State of the upstream's circuit breaker as this engine uses it, or null before
+   * its first call.
+   */
+  public String breakerState(String upstreamName) {
+    CircuitBreaker breaker = breakers.get(upstreamName);
+    return breaker == null ? null : breaker.state().name();
+  }
+
+  private CircuitBreaker breaker(AppConfig config, String upstreamName) {
+    // Rebuilt when a newer snapshot arrives; calls still on an older one share them.
+    if (config != breakerConfig && config == configs.current()) {
+      reconfigureBreakers = breakerConfig != null;
+      breakers.clear();
+      breakerConfig = config;
+    }
+    return breakers.computeIfAbsent(upstreamName, name -> {
+      CircuitBreakerOptions options = new CircuitBreakerOptions()
+        .setMaxFailures(config.getBreakerMaxFailures())
+        .setTimeout(config.getHttpTimeout())
+        .setResetTimeout(config.getBreakerResetTimeoutMs())
+        .setFallbackOnFailure(true);
+      return reconfigureBreakers
+        ? shared.reconfigureBreaker(name + "-breaker", options)
+        : shared.breaker(name + "-breaker", options);
+    });
+  }
+}
@@ -0,0 +1,86 @@
+package com.gateway.aggregate;
+
+import com.gateway.exception.ApiException;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Reply of an {@link UpstreamFetcherVerticle}: the upstream's projected result, or
+ * the failure the inline fetch would have produced.
+ */
+public final class FetchReply {
+
+  private final JsonObject data;
+  private final Throwable failure;
+
+  private FetchReply(JsonObject data, Throwable failure) {
+    this.data = data;
+    this.failure = failure;
+  }
+
+  public static FetchReply success(JsonObject data) {
+    return new FetchReply(data, null);
+  }
+
+  public static FetchReply failure(Throwable failure) {
+    return new FetchReply(null, failure);
+  }
+
+  public Future<JsonObject> toFuture() {
+    return failure == null ? Future.succeededFuture(data) : Future.failedFuture(failure);
+  }
+
+  /**
+   * In-process delivery hands over the reply as is: the projected object is fresh
+   * per fetch and only read by the receiver, so it is neither copied nor re-encoded.
+   * On the wire a result is written as its JSON bytes, and a failure as the status,
+   * error code and message of an {@link ApiException} (other failures become 502).
+   */
+  public static final class Codec implements MessageCodec<FetchReply, FetchReply> {
+
+    private static final String FAILED_CODE = "UPSTREAM_FETCH_FAILED";
+
+    @Override
+    public void encodeToWire(Buffer buffer, FetchReply reply) {
+      if (reply.failure == null) {
+        Buffer json = reply.data.toBuffer();
+        buffer.appendByte((byte) 1).appendInt(json.length()).appendBuffer(json);
+        return;
+      }
+      ApiException failure = reply.failure instanceof ApiException ? (ApiException) reply.failure : null;
+      buffer.appendByte((byte) 0).appendInt(failure != null ? failure.getStatusCode() : 502);
+      FetchRequest.writeString(buffer, failure != null ? failure.getErrorCode() : FAILED_CODE);
+      FetchRequest.writeString(buffer, reply.failure.getMessage());
+    }
+
+    @Override
+    public FetchReply decodeFromWire(int pos, Buffer buffer) {
+      if (buffer.getByte(pos) == 1) {
+        int length = buffer.getInt(pos + 1);
+        return success(new JsonObject(buffer.getBuffer(pos + 5, pos + 5 + length)));
+      }
+      int status = buffer.getInt(pos + 1);
+      int[] cursor = {pos + 5};
+      String errorCode = FetchRequest.readString(buffer, cursor);
+      String message = FetchRequest.readString(buffer, cursor);
+      return failure(ApiException.stackless(message, status, errorCode));
+    }
+
+    @Override
+    public FetchReply transform(FetchReply reply) {
+      return reply;
+    }
+
+    @Override
+    public String name() {
+      return "gateway-fetch-reply";
+    }
+
+    @Override
+    public byte systemCodecID() {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.gateway.aggregate;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Event bus request to an {@link UpstreamFetcherVerticle}: the route and upstream
+ * whose definition applies, and the already expanded URL.
+ */
+public final class FetchRequest {
+
+  private final String route;
+  private final String upstream;
+  private final String url;
+
+  public FetchRequest(String route, String upstream, String url) {
+    this.route = route;
+    this.upstream = upstream;
+    this.url = url;
+  }
+
+  public String getRoute() {
+    return route;
+  }
+
+  public String getUpstream() {
+    return upstream;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  static void writeString(Buffer buffer, String value) {
+    if (value == null) {
+      buffer.appendInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    buffer.appendInt(bytes.length).appendBytes(bytes);
+  }
+
+  /**
+   * Reads a string written by {@link #writeString} at {@code pos[0]} and advances it.
+   */
+  static String readString(Buffer buffer, int[] pos) {
+    int length = buffer.getInt(pos[0]);
+    pos[0] += 4;
+    if (length < 0) {
+      return null;
+    }
+    String value = buffer.getString(pos[0], pos[0] + length, "UTF-8");
+    pos[0] += length;
+    return value;
+  }
+
+  /**
+   * Requests are immutable, so in-process delivery hands over the same object. On
+   * the wire the three strings are written length-prefixed.
+   */
+  public static final class Codec implements MessageCodec<FetchRequest, FetchRequest> {
+
+    @Override
+    public void encodeToWire(Buffer buffer, FetchRequest request) {
+      writeString(buffer, request.route);
+      writeString(buffer, request.upstream);
+      writeString(buffer, request.url);
+    }
+
+    @Override
+    public FetchRequest decodeFromWire(int pos, Buffer buffer) {
+      int[] cursor = {pos};
+      return new FetchRequest(readString(buffer, cursor), readString(buffer, cursor), readString(buffer, cursor));
+    }
+
+    @Override
+    public FetchRequest transform(FetchRequest request) {
+      return request;
+    }
+
+    @Override
+    public String name() {
+      return "gateway-fetch-request";
+    }
+
+    @Override
+    public byte systemCodecID() {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.gateway.aggregate;
+
+import com.gateway.json.JsonProjection;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A composite endpoint: the HTTP path it is served on and the upstreams whose
+ * responses are merged into its body, in output order.
+ */
+public class RouteDefinition {
+
+  private final String path;
+  private final List<UpstreamDefinition> upstreams;
+  private final Map<String, UpstreamDefinition> upstreamsByName;
+  private final Map<String, JsonProjection> projections;
+
+  public RouteDefinition(String path, List<UpstreamDefinition> upstreams) {
+    this.path = path;
+    this.upstreams = Collections.unmodifiableList(new ArrayList<>(upstreams));
+    this.upstreamsByName = new HashMap<>();
+    for (UpstreamDefinition upstream : upstreams) {
+      if (upstreamsByName.put(upstream.getName(), upstream) != null) {
+        throw new IllegalArgumentException("Duplicate upstream '" + upstream.getName() + "' in route " + path);
+      }
+    }
+    validateDependencies();
+    this.projections = buildProjections();
+  }
+
+  public static RouteDefinition fromJson(JsonObject json) {
+    String path = json.getString("path");
+    if (path == null) {
+      throw new IllegalArgumentException("Aggregate route without a path: " + json.encode());
+    }
+    JsonArray upstreamsJson = json.getJsonArray("upstreams", new JsonArray());
+
+    Set<String> names = new HashSet<>();
+    for (int i = 0; i < upstreamsJson.size(); i++) {
+      names.add(upstreamsJson.getJsonObject(i).getString("name"));
+    }
+
+    List<UpstreamDefinition> upstreams = new ArrayList<>();
+    for (int i = 0; i < upstreamsJson.size(); i++) {
+      upstreams.add(UpstreamDefinition.fromJson(upstreamsJson.getJsonObject(i), names));
+    }
+    return new RouteDefinition(path, upstreams);
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public List<UpstreamDefinition> getUpstreams() {
+    return upstreams;
+  }
+
+  public UpstreamDefinition getUpstream(String name) {
+    return upstreamsByName.get(name);
+  }
+
+  public JsonProjection getProjection(String upstreamName) {
+    return projections.get(upstreamName);
+  }
+
+  private void validateDependencies() {
+    Set<String> visited = new HashSet<>();
+    for (UpstreamDefinition upstream : upstreams) {
+      checkCycle(upstream, visited, new LinkedHashSet<>());
+    }
+  }
+
+  private void checkCycle(UpstreamDefinition upstream, Set<String> visited, Set<String> stack) {
+    if (!stack.add(upstream.getName())) {
+      throw new IllegalArgumentException("Dependency cycle in route " + path + ": " + stack);
+    }
+    if (visited.add(upstream.getName())) {
+      for (String dependency : upstream.getDependsOn()) {
+        UpstreamDefinition target = upstreamsByName.get(dependency);
+        if (target == null) {
+          throw new IllegalArgumentException(
+            "Upstream '" + upstream.getName() + "' depends on unknown upstream '" + dependency + "'");
+        }
+        checkCycle(target, visited, stack);
+      }
+    }
+    stack.remove(upstream.getName());
+  }
+
+  private Map<String, JsonProjection> buildProjections() {
+    Map<String, Set<String>> paths = new HashMap<>();
+    for (UpstreamDefinition upstream : upstreams) {
+      paths.computeIfAbsent(upstream.getName(), key -> new LinkedHashSet<>())
+        .addAll(upstream.getFields().values());
+      for (String placeholder : upstream.getUrl().placeholders()) {
+        int dot = placeholder.indexOf('.');
+        if (dot > 0 && upstreamsByName.containsKey(placeholder.substring(0, dot))) {
+          paths.computeIfAbsent(placeholder.substring(0, dot), key -> new LinkedHashSet<>())
+            .add(placeholder.substring(dot + 1));
+        }
+      }
+    }
+
+    Map<String, JsonProjection> result = new HashMap<>();
+    paths.forEach((name, required) -> result.put(name, JsonProjection.of(required.toArray(new String[0]))));
+    return result;
+  }
+}
@@ -0,0 +1,16 @@
+package com.gateway.aggregate;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.function.Function;
+
+/**
+ * Blocking step applied to an aggregated response before it is written, e.g. a JDBC
+ * lookup or a call through a synchronous SDK. It may block freely: the gateway runs
+ * it on a virtual thread or a worker thread, never on an event loop.
+ */
+@FunctionalInterface
+public interface RouteEnricher {
+
+  JsonObject enrich(JsonObject response, Function<String, String> params) throws Exception;
+}
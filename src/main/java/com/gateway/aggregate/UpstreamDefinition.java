@@ -0,0 +1,151 @@
+package com.gateway.aggregate;
+
+import com.gateway.exception.ApiException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One upstream call of an aggregate route: where to fetch it from, which fields to
+ * copy into the response (output key -> source path), what to use when the call
+ * fails, and which other upstreams of the route it depends on.
+ *
+ * URL placeholders of the form {upstream.path} make this upstream depend on that
+ * upstream's response; any other {name} is read from the request parameters.
+ */
+public class UpstreamDefinition {
+
+  private final String name;
+  private final UrlTemplate url;
+  private final Map<String, String> fields;
+  private final Map<String, Object> fallback;
+  private final List<String> dependsOn;
+  private final String warning;
+  private final String errorCode;
+  private final String errorMessage;
+  private final ApiException missingParameter;
+  private final Map<Integer, ApiException> errors = new ConcurrentHashMap<>();
+
+  public UpstreamDefinition(
+    String name,
+    UrlTemplate url,
+    Map<String, String> fields,
+    Map<String, Object> fallback,
+    List<String> dependsOn,
+    String warning,
+    String errorCode,
+    String errorMessage
+  ) {
+    this.name = name;
+    this.url = url;
+    this.fields = Collections.unmodifiableMap(new LinkedHashMap<>(fields));
+    this.fallback = Collections.unmodifiableMap(new LinkedHashMap<>(fallback));
+    this.dependsOn = Collections.unmodifiableList(new ArrayList<>(dependsOn));
+    this.warning = warning;
+    this.errorCode = errorCode;
+    this.errorMessage = errorMessage;
+    this.missingParameter = ApiException.stackless(
+      "Missing value for " + name + " URL " + url, 400, "MISSING_PARAMETER");
+  }
+
+  static UpstreamDefinition fromJson(JsonObject json, Set<String> upstreamNames) {
+    String name = json.getString("name");
+    if (name == null || name.isEmpty()) {
+      throw new IllegalArgumentException("Upstream definition without a name: " + json.encode());
+    }
+    String urlTemplate = json.getString("url");
+    if (urlTemplate == null) {
+      throw new IllegalArgumentException("Upstream '" + name + "' has no url");
+    }
+    UrlTemplate url = UrlTemplate.parse(urlTemplate);
+
+    Map<String, String> fields = new LinkedHashMap<>();
+    json.getJsonObject("fields", new JsonObject())
+      .forEach(entry -> fields.put(entry.getKey(), String.valueOf(entry.getValue())));
+
+    JsonObject fallbackJson = json.getJsonObject("fallback", new JsonObject());
+    Map<String, Object> fallback = new LinkedHashMap<>();
+    for (String key : fields.keySet()) {
+      fallback.put(key, fallbackJson.containsKey(key) ? fallbackJson.getValue(key) : "N/A");
+    }
+
+    List<String> dependsOn = new ArrayList<>();
+    for (Object dependency : json.getJsonArray("dependsOn", new JsonArray())) {
+      dependsOn.add(String.valueOf(dependency));
+    }
+    for (String placeholder : url.placeholders()) {
+      int dot = placeholder.indexOf('.');
+      String prefix = dot > 0 ? placeholder.substring(0, dot) : null;
+      if (prefix != null && upstreamNames.contains(prefix) && !dependsOn.contains(prefix)) {
+        dependsOn.add(prefix);
+      }
+    }
+
+    String label = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    return new UpstreamDefinition(
+      name,
+      url,
+      fields,
+      fallback,
+      dependsOn,
+      json.getString("warning", label + " data unavailable"),
+      json.getString("errorCode", name.toUpperCase() + "_API_ERROR"),
+      json.getString("errorMessage", "Failed to fetch " + name + " data")
+    );
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public UrlTemplate getUrl() {
+    return url;
+  }
+
+  public Map<String, String> getFields() {
+    return fields;
+  }
+
+  public Map<String, Object> getFallback() {
+    return fallback;
+  }
+
+  public List<String> getDependsOn() {
+    return dependsOn;
+  }
+
+  public String getWarning() {
+    return warning;
+  }
+
+  public String getErrorCode() {
+    return errorCode;
+  }
+
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  /**
+   * The failure for an upstream response with {@code statusCode}. Stackless and
+   * cached per status, so an upstream outage does not create an exception per call.
+   */
+  public ApiException error(int statusCode) {
+    return errors.computeIfAbsent(statusCode, status ->
+      ApiException.stackless(errorMessage, status, errorCode));
+  }
+
+  /**
+   * The failure for a URL placeholder without a value.
+   */
+  public ApiException missingParameter() {
+    return missingParameter;
+  }
+}
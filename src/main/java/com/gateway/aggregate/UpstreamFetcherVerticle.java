@@ -0,0 +1,152 @@
+package com.gateway.aggregate;
+
+import com.gateway.config.AppConfig;
+import com.gateway.exception.ApiException;
+import com.gateway.logging.AsyncLog;
+import com.gateway.service.SharedResources;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fetches one upstream for the gateway verticles when {@code fetchers.enabled} is
+ * set: consumes {@link FetchRequest}s on {@code gateway.fetch.<upstream>} and replies
+ * with a {@link FetchReply}. Each instance has its own {@link AggregationEngine}, so
+ * the upstream's cache, limits, retries and hedging run here rather than on the HTTP
+ * event loops; the breaker stays process-wide. Instances per upstream come from
+ * {@code fetchers.instances}.
+ */
+public class UpstreamFetcherVerticle extends AbstractVerticle {
+
+  private static final String ADDRESS_PREFIX = "gateway.fetch.";
+  private static final String CODECS_MAP = "gateway.fetch.codecs";
+  private static final ApiException UNKNOWN_UPSTREAM =
+    ApiException.stackless("Upstream not configured in fetcher", 502, "UPSTREAM_FETCHER_UNKNOWN");
+
+  private final String upstream;
+  private boolean configsAcquired;
+  private AggregationEngine engine;
+  private AppConfig routesConfig;
+  private Map<String, RouteDefinition> routes;
+
+  public UpstreamFetcherVerticle(String upstream) {
+    this.upstream = upstream;
+  }
+
+  public static String address(String upstream) {
+    return ADDRESS_PREFIX + upstream;
+  }
+
+  /**
+   * Instances to deploy per upstream name of the configured aggregate routes.
+   */
+  public static Map<String, Integer> instances(AppConfig config) {
+    Map<String, Integer> instances = new LinkedHashMap<>();
+    for (RouteDefinition route : config.getAggregateRoutes()) {
+      for (UpstreamDefinition definition : route.getUpstreams()) {
+        instances.put(definition.getName(), config.getFetcherInstances(definition.getName()));
+      }
+    }
+    return instances;
+  }
+
+  /**
+   * Deploys the given number of fetchers per upstream, each with {@code config} as
+   * its verticle configuration.
+   */
+  public static Future<Void> deploy(Vertx vertx, Map<String, Integer> instances, JsonObject config) {
+    List<Future<String>> deployments = new ArrayList<>();
+    for (Map.Entry<String, Integer> entry : instances.entrySet()) {
+      deployments.add(vertx.deployVerticle(() -> new UpstreamFetcherVerticle(entry.getKey()),
+        new DeploymentOptions().setInstances(entry.getValue()).setConfig(config)));
+    }
+    return Future.all(deployments).mapEmpty();
+  }
+
+  static synchronized void registerCodecs(Vertx vertx) {
+    LocalMap<String, Boolean> registered = vertx.sharedData().getLocalMap(CODECS_MAP);
+    if (registered.putIfAbsent("registered", Boolean.TRUE) == null) {
+      vertx.eventBus()
+        .registerDefaultCodec(FetchRequest.class, new FetchRequest.Codec())
+        .registerDefaultCodec(FetchReply.class, new FetchReply.Codec());
+    }
+  }
+
+  @Override
+  public void start(Promise<Void> startPromise) {
+    registerCodecs(vertx);
+    SharedResources.get(vertx).configs(config())
+      .compose(configs -> {
+        configsAcquired = true;
+        engine = new AggregationEngine(vertx, configs);
+        return prewarm(configs.current());
+      })
+      .compose(v -> {
+        Promise<Void> registered = Promise.promise();
+        vertx.eventBus().<FetchRequest>consumer(address(upstream), this::handle).completionHandler(registered);
+        return registered.future();
+      })
+      .onSuccess(v -> startPromise.complete())
+      .onFailure(err -> {
+        AsyncLog.get().error("Failed to start fetcher for " + upstream, err);
+        // stop() is not called when start fails.
+        stop();
+        startPromise.fail(err);
+      });
+  }
+
+  @Override
+  public void stop() {
+    if (configsAcquired) {
+      configsAcquired = false;
+      SharedResources.get(vertx).releaseConfigs(config());
+    }
+  }
+
+  private Future<Void> prewarm(AppConfig config) {
+    for (RouteDefinition route : config.getAggregateRoutes()) {
+      UpstreamDefinition definition = route.getUpstream(upstream);
+      if (definition != null) {
+        return config.getUpstreamClients().prewarm(upstream, definition.getUrl().toString());
+      }
+    }
+    return Future.succeededFuture();
+  }
+
+  private void handle(Message<FetchRequest> message) {
+    FetchRequest request = message.body();
+    AppConfig config = engine.getConfigs().current();
+    RouteDefinition route = routes(config).get(request.getRoute());
+    UpstreamDefinition definition = route == null ? null : route.getUpstream(request.getUpstream());
+    if (definition == null) {
+      message.reply(FetchReply.failure(UNKNOWN_UPSTREAM));
+      return;
+    }
+    engine.fetchInline(config, route, definition, request.getUrl()).onComplete(result -> message.reply(
+      result.succeeded() ? FetchReply.success(result.result()) : FetchReply.failure(result.cause())));
+  }
+
+  private Map<String, RouteDefinition> routes(AppConfig config) {
+    // Rebuilt when a newer snapshot arrives.
+    if (config != routesConfig) {
+      Map<String, RouteDefinition> byPath = new HashMap<>();
+      for (RouteDefinition route : config.getAggregateRoutes()) {
+        byPath.put(route.getPath(), route);
+      }
+      routes = byPath;
+      routesConfig = config;
+    }
+    return routes;
+  }
+}
@@ -0,0 +1,71 @@
+package com.gateway.aggregate;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * URL with {placeholder} segments, split once at load time so expanding it per
+ * request is a plain string concatenation.
+ */
+public final class UrlTemplate {
+
+  private final String template;
+  private final List<String> literals;
+  private final List<String> placeholders;
+
+  private UrlTemplate(String template, List<String> literals, List<String> placeholders) {
+    this.template = template;
+    this.literals = literals;
+    this.placeholders = placeholders;
+  }
+
+  public static UrlTemplate parse(String template) {
+    List<String> literals = new ArrayList<>();
+    List<String> placeholders = new ArrayList<>();
+    int start = 0;
+    int open = template.indexOf('{');
+    while (open >= 0) {
+      int close = template.indexOf('}', open);
+      if (close < 0) {
+        throw new IllegalArgumentException("Unclosed placeholder in URL template: " + template);
+      }
+      literals.add(template.substring(start, open));
+      placeholders.add(template.substring(open + 1, close).trim());
+      start = close + 1;
+      open = template.indexOf('{', start);
+    }
+    literals.add(template.substring(start));
+    return new UrlTemplate(template, literals, Collections.unmodifiableList(placeholders));
+  }
+
+  public List<String> placeholders() {
+    return placeholders;
+  }
+
+  /**
+   * Returns the expanded URL, or null if the resolver has no value for a placeholder.
+   */
+  public String expand(Function<String, String> resolver) {
+    if (placeholders.isEmpty()) {
+      return template;
+    }
+    StringBuilder url = new StringBuilder(template.length() + 16);
+    for (int i = 0; i < placeholders.size(); i++) {
+      String value = resolver.apply(placeholders.get(i));
+      if (value == null) {
+        return null;
+      }
+      url.append(literals.get(i)).append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+    }
+    return url.append(literals.get(placeholders.size())).toString();
+  }
+
+  @Override
+  public String toString() {
+    return template;
+  }
+}
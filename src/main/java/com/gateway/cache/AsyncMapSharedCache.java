@@ -0,0 +1,35 @@
+package com.gateway.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.AsyncMap;
+
+/**
+ * {@link SharedCache} over a Vert.x async map. The map spans the cluster when Vert.x
+ * runs clustered and is process-local otherwise; entries expire with the map's TTL.
+ */
+public class AsyncMapSharedCache implements SharedCache {
+
+  private final Future<AsyncMap<String, JsonObject>> map;
+
+  public AsyncMapSharedCache(Vertx vertx, String name) {
+    this.map = vertx.sharedData().getAsyncMap(name);
+  }
+
+  @Override
+  public Future<SharedEntry> get(String key) {
+    return map.compose(entries -> entries.get(key))
+      .map(json -> json == null ? null : SharedEntry.fromJson(json));
+  }
+
+  @Override
+  public Future<Void> put(String key, SharedEntry entry, long ttlMs) {
+    return map.compose(entries -> entries.put(key, entry.toJson(), ttlMs));
+  }
+
+  @Override
+  public Future<Void> remove(String key) {
+    return map.compose(entries -> entries.remove(key)).mapEmpty();
+  }
+}
@@ -0,0 +1,99 @@
+package com.gateway.cache;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class CacheStats {
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder staleHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder refreshes = new LongAdder();
+  private final LongAdder revalidated = new LongAdder();
+  private final LongAdder sharedHits = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+
+  void recordHit() {
+    hits.increment();
+  }
+
+  void recordStaleHit() {
+    staleHits.increment();
+  }
+
+  void recordMiss() {
+    misses.increment();
+  }
+
+  void recordEviction() {
+    evictions.increment();
+  }
+
+  void recordRefresh() {
+    refreshes.increment();
+  }
+
+  void recordRevalidated() {
+    revalidated.increment();
+  }
+
+  void recordSharedHit() {
+    sharedHits.increment();
+  }
+
+  void recordInvalidation() {
+    invalidations.increment();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getStaleHits() {
+    return staleHits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  public long getRefreshes() {
+    return refreshes.sum();
+  }
+
+  /**
+   * Upstream calls answered 304, i.e. served from the cache after revalidation.
+   */
+  public long getRevalidated() {
+    return revalidated.sum();
+  }
+
+  /**
+   * Local misses found in the shared tier; also counted as hits or stale hits.
+   */
+  public long getSharedHits() {
+    return sharedHits.sum();
+  }
+
+  public long getInvalidations() {
+    return invalidations.sum();
+  }
+
+  public JsonObject toJson() {
+    return new JsonObject()
+      .put("hits", getHits())
+      .put("staleHits", getStaleHits())
+      .put("misses", getMisses())
+      .put("evictions", getEvictions())
+      .put("refreshes", getRefreshes())
+      .put("revalidated", getRevalidated())
+      .put("sharedHits", getSharedHits())
+      .put("invalidations", getInvalidations());
+  }
+}
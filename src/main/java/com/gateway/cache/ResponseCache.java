@@ -0,0 +1,356 @@
+package com.gateway.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.client.HttpResponse;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * LRU cache of upstream responses keyed by URL. Freshness comes from the upstream
+ * Cache-Control / Expires headers; once an entry expires it is still served for the
+ * stale-while-revalidate window while a single background refresh replaces it.
+ *
+ * Entries with an ETag or Last-Modified are revalidated rather than refetched: the
+ * loader is given If-None-Match / If-Modified-Since, and a 304 renews the entry
+ * and returns its stored response. Such entries are kept even when they are not
+ * fresh at all (no-cache, or no freshness headers), so every use costs a 304.
+ *
+ * With a {@link SharedCache}, a local miss is looked up there before loading, and
+ * stored entries are written through to it, so verticle instances and nodes share
+ * one upstream fetch per freshness period. Upstream 404s are cached for the
+ * negative TTL. {@link #invalidate} only drops the local entry; broadcasting an
+ * invalidation is up to the caller.
+ *
+ * Not thread-safe: each verticle instance owns its own cache and only touches it
+ * from its event loop.
+ */
+public class ResponseCache {
+
+  private final int maxEntries;
+  private final long defaultTtlMs;
+  private final long staleMs;
+  private final long negativeTtlMs;
+  private final SharedCache shared;
+  private final CacheStats stats;
+  private final LongSupplier clock;
+  private final Map<String, CacheEntry> entries;
+
+  public ResponseCache(int maxEntries, long defaultTtlMs, long staleMs, CacheStats stats) {
+    this(maxEntries, defaultTtlMs, staleMs, stats, System::currentTimeMillis);
+  }
+
+  public ResponseCache(int maxEntries, long defaultTtlMs, long staleMs, CacheStats stats, LongSupplier clock) {
+    this(maxEntries, defaultTtlMs, staleMs, 0, null, stats, clock);
+  }
+
+  /**
+   * @param negativeTtlMs how long upstream 404s are cached; 0 disables it
+   * @param shared        second tier, or null for a local cache only
+   */
+  public ResponseCache(
+    int maxEntries,
+    long defaultTtlMs,
+    long staleMs,
+    long negativeTtlMs,
+    SharedCache shared,
+    CacheStats stats,
+    LongSupplier clock
+  ) {
+    this.maxEntries = maxEntries;
+    this.defaultTtlMs = defaultTtlMs;
+    this.staleMs = staleMs;
+    this.negativeTtlMs = negativeTtlMs;
+    this.shared = shared;
+    this.stats = stats;
+    this.clock = clock;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+        if (size() > ResponseCache.this.maxEntries) {
+          stats.recordEviction();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  public Future<HttpResponse<Buffer>> get(String key, Supplier<Future<HttpResponse<Buffer>>> loader) {
+    return get(key, conditional -> loader.get());
+  }
+
+  /**
+   * @param loader loads the response; its argument holds the conditional request
+   *               headers when an entry is being revalidated, or is null
+   */
+  public Future<HttpResponse<Buffer>> get(String key, Function<MultiMap, Future<HttpResponse<Buffer>>> loader) {
+    long now = clock.getAsLong();
+    CacheEntry entry = entries.get(key);
+
+    if (entry != null) {
+      Future<HttpResponse<Buffer>> served = serve(key, entry, now, loader);
+      if (served != null) {
+        return served;
+      }
+      entries.remove(key);
+    }
+
+    if (shared == null) {
+      return load(key, loader);
+    }
+    return shared.get(key)
+      .otherwiseEmpty()
+      .compose(stored -> {
+        long at = clock.getAsLong();
+        if (stored == null || at >= stored.getStaleUntil()) {
+          return load(key, loader);
+        }
+        stats.recordSharedHit();
+        HttpResponse<Buffer> response = stored.toResponse();
+        CacheEntry local = new CacheEntry(response, stored.getExpiresAt(), stored.getStaleUntil(),
+          stored.getStatusCode() == 200 ? conditional(response) : null);
+        entries.put(key, local);
+        return serve(key, local, at, loader);
+      });
+  }
+
+  /**
+   * Drops the local entry for a key.
+   *
+   * @return whether there was one
+   */
+  public boolean invalidate(String key) {
+    if (entries.remove(key) == null) {
+      return false;
+    }
+    stats.recordInvalidation();
+    return true;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public CacheStats getStats() {
+    return stats;
+  }
+
+  /**
+   * Serves an entry that is fresh, stale or revalidatable; null once it is unusable.
+   */
+  private Future<HttpResponse<Buffer>> serve(
+    String key,
+    CacheEntry entry,
+    long now,
+    Function<MultiMap, Future<HttpResponse<Buffer>>> loader
+  ) {
+    if (now < entry.expiresAt) {
+      stats.recordHit();
+      return Future.succeededFuture(entry.response);
+    }
+    if (now < entry.staleUntil) {
+      stats.recordStaleHit();
+      refresh(key, entry, loader);
+      return Future.succeededFuture(entry.response);
+    }
+    if (entry.conditional != null) {
+      stats.recordMiss();
+      return revalidate(key, entry, loader);
+    }
+    return null;
+  }
+
+  private Future<HttpResponse<Buffer>> load(String key, Function<MultiMap, Future<HttpResponse<Buffer>>> loader) {
+    stats.recordMiss();
+    return loader.apply(null).onSuccess(response -> store(key, response));
+  }
+
+  private void refresh(String key, CacheEntry entry, Function<MultiMap, Future<HttpResponse<Buffer>>> loader) {
+    if (entry.refreshing) {
+      return;
+    }
+    entry.refreshing = true;
+    stats.recordRefresh();
+    revalidate(key, entry, loader).onComplete(result -> entry.refreshing = false);
+  }
+
+  private Future<HttpResponse<Buffer>> revalidate(
+    String key,
+    CacheEntry entry,
+    Function<MultiMap, Future<HttpResponse<Buffer>>> loader
+  ) {
+    return loader.apply(entry.conditional).map(response -> {
+      if (response.statusCode() == 304 && entry.conditional != null) {
+        stats.recordRevalidated();
+        renew(key, entry, response);
+        return entry.response;
+      }
+      store(key, response);
+      return response;
+    });
+  }
+
+  /**
+   * Renews an entry after a 304. The 304's freshness headers win when it has them;
+   * otherwise the stored response's apply again.
+   */
+  private void renew(String key, CacheEntry entry, HttpResponse<Buffer> notModified) {
+    boolean updatesFreshness = notModified.getHeader("cache-control") != null
+      || notModified.getHeader("expires") != null;
+    put(key, entry.response, updatesFreshness ? notModified : entry.response);
+  }
+
+  private void store(String key, HttpResponse<Buffer> response) {
+    if (response.statusCode() == 404 && negativeTtlMs > 0) {
+      long expiresAt = clock.getAsLong() + negativeTtlMs;
+      insert(key, new CacheEntry(response, expiresAt, expiresAt, null));
+      return;
+    }
+    if (response.statusCode() != 200) {
+      return;
+    }
+    put(key, response, response);
+  }
+
+  private void put(String key, HttpResponse<Buffer> response, HttpResponse<Buffer> freshnessSource) {
+    long now = clock.getAsLong();
+    Freshness freshness = freshness(freshnessSource, now);
+    MultiMap conditional = freshness.storable ? conditional(response) : null;
+    if (freshness.ttlMs <= 0 && conditional == null) {
+      entries.remove(key);
+      return;
+    }
+
+    long expiresAt = now + Math.max(0, freshness.ttlMs);
+    long staleUntil = freshness.ttlMs > 0 ? expiresAt + freshness.staleMs : expiresAt;
+    insert(key, new CacheEntry(response, expiresAt, staleUntil, conditional));
+  }
+
+  /**
+   * Stores an entry locally and writes it through to the shared tier, which keeps it
+   * as long as it may be served. Entries only kept for revalidation stay local.
+   */
+  private void insert(String key, CacheEntry entry) {
+    entries.put(key, entry);
+    long ttlMs = entry.staleUntil - clock.getAsLong();
+    if (shared != null && ttlMs > 0) {
+      shared.put(key, SharedEntry.of(entry.response, entry.expiresAt, entry.staleUntil), ttlMs);
+    }
+  }
+
+  private static MultiMap conditional(HttpResponse<Buffer> response) {
+    String etag = response.getHeader("etag");
+    String lastModified = response.getHeader("last-modified");
+    if (etag == null && lastModified == null) {
+      return null;
+    }
+    MultiMap headers = HttpHeaders.headers();
+    if (etag != null) {
+      headers.set(HttpHeaders.IF_NONE_MATCH, etag);
+    }
+    if (lastModified != null) {
+      headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+    }
+    return headers;
+  }
+
+  private Freshness freshness(HttpResponse<Buffer> response, long now) {
+    long ttlMs = defaultTtlMs;
+    long stale = staleMs;
+
+    String cacheControl = response.getHeader("cache-control");
+    boolean hasMaxAge = false;
+    if (cacheControl != null) {
+      for (String directive : cacheControl.toLowerCase().split(",")) {
+        String value = directive.trim();
+        if (value.equals("no-store") || value.equals("private")) {
+          return new Freshness(0, 0, false);
+        } else if (value.equals("no-cache")) {
+          return new Freshness(0, 0, true);
+        } else if (value.startsWith("s-maxage=")) {
+          ttlMs = seconds(value.substring(9), ttlMs);
+          hasMaxAge = true;
+        } else if (value.startsWith("max-age=") && !hasMaxAge) {
+          ttlMs = seconds(value.substring(8), ttlMs);
+          hasMaxAge = true;
+        } else if (value.startsWith("stale-while-revalidate=")) {
+          stale = seconds(value.substring(23), stale);
+        }
+      }
+    }
+
+    if (hasMaxAge) {
+      String age = response.getHeader("age");
+      if (age != null) {
+        ttlMs -= seconds(age, 0);
+      }
+    } else {
+      String expires = response.getHeader("expires");
+      if (expires != null) {
+        long expiresAt = parseDate(expires);
+        ttlMs = expiresAt < 0 ? 0 : expiresAt - dateOrNow(response, now);
+      }
+    }
+
+    return new Freshness(ttlMs, stale, true);
+  }
+
+  private static long dateOrNow(HttpResponse<Buffer> response, long now) {
+    String date = response.getHeader("date");
+    long parsed = date == null ? -1 : parseDate(date);
+    return parsed < 0 ? now : parsed;
+  }
+
+  private static long seconds(String value, long fallbackMs) {
+    try {
+      return Long.parseLong(value.trim()) * 1000L;
+    } catch (NumberFormatException e) {
+      return fallbackMs;
+    }
+  }
+
+  private static long parseDate(String value) {
+    try {
+      return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+    } catch (DateTimeParseException e) {
+      return -1;
+    }
+  }
+
+  private static final class Freshness {
+    private final long ttlMs;
+    private final long staleMs;
+    private final boolean storable;
+
+    private Freshness(long ttlMs, long staleMs, boolean storable) {
+      this.ttlMs = ttlMs;
+      this.staleMs = staleMs;
+      this.storable = storable;
+    }
+  }
+
+  private static final class CacheEntry {
+    private final HttpResponse<Buffer> response;
+    private final long expiresAt;
+    private final long staleUntil;
+    private final MultiMap conditional;
+    private boolean refreshing;
+
+    private CacheEntry(HttpResponse<Buffer> response, long expiresAt, long staleUntil, MultiMap conditional) {
+      this.response = response;
+      this.expiresAt = expiresAt;
+      this.staleUntil = staleUntil;
+      this.conditional = conditional;
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.gateway.cache;
+
+import io.vertx.core.Future;
+
+/**
+ * Second cache tier behind each verticle's {@link ResponseCache}, shared by all
+ * verticle instances and, when clustered, by all gateway nodes. Used from every
+ * event loop, so implementations must be thread-safe and complete their futures on
+ * the caller's context, as Vert.x clients do. Failures are treated as misses.
+ *
+ * {@link AsyncMapSharedCache} is the built-in implementation; another backend (a
+ * Redis client, or an in-process stand-in in tests) can be installed with
+ * {@link com.gateway.service.SharedResources#useSharedCache}.
+ */
+public interface SharedCache {
+
+  /**
+   * @return the stored entry, or null
+   */
+  Future<SharedEntry> get(String key);
+
+  Future<Void> put(String key, SharedEntry entry, long ttlMs);
+
+  Future<Void> remove(String key);
+}
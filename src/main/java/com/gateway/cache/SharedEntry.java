@@ -0,0 +1,83 @@
+package com.gateway.cache;
+
+import com.gateway.service.BufferedResponse;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+
+import java.util.Map;
+
+/**
+ * A cached upstream response in the form kept by a {@link SharedCache}: status,
+ * headers and body, plus the absolute (wall-clock) times until which it is fresh
+ * and may be served stale.
+ */
+public class SharedEntry {
+
+  private final int statusCode;
+  private final MultiMap headers;
+  private final Buffer body;
+  private final long expiresAt;
+  private final long staleUntil;
+
+  public SharedEntry(int statusCode, MultiMap headers, Buffer body, long expiresAt, long staleUntil) {
+    this.statusCode = statusCode;
+    this.headers = headers;
+    this.body = body;
+    this.expiresAt = expiresAt;
+    this.staleUntil = staleUntil;
+  }
+
+  static SharedEntry of(HttpResponse<Buffer> response, long expiresAt, long staleUntil) {
+    return new SharedEntry(response.statusCode(), response.headers(), response.body(), expiresAt, staleUntil);
+  }
+
+  public static SharedEntry fromJson(JsonObject json) {
+    MultiMap headers = HttpHeaders.headers();
+    for (Object header : json.getJsonArray("headers", new JsonArray())) {
+      JsonArray pair = (JsonArray) header;
+      headers.add(pair.getString(0), pair.getString(1));
+    }
+    return new SharedEntry(
+      json.getInteger("status"),
+      headers,
+      json.getBuffer("body"),
+      json.getLong("expiresAt"),
+      json.getLong("staleUntil"));
+  }
+
+  public JsonObject toJson() {
+    JsonArray pairs = new JsonArray();
+    if (headers != null) {
+      for (Map.Entry<String, String> header : headers) {
+        pairs.add(new JsonArray().add(header.getKey()).add(header.getValue()));
+      }
+    }
+    return new JsonObject()
+      .put("status", statusCode)
+      .put("headers", pairs)
+      .put("body", body)
+      .put("expiresAt", expiresAt)
+      .put("staleUntil", staleUntil);
+  }
+
+  HttpResponse<Buffer> toResponse() {
+    return new BufferedResponse(HttpVersion.HTTP_1_1, statusCode, null, headers, null, null, body);
+  }
+
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  public long getExpiresAt() {
+    return expiresAt;
+  }
+
+  public long getStaleUntil() {
+    return staleUntil;
+  }
+}
@@ -1,23 +1,101 @@
 package com.gateway.config;
 
+import com.gateway.aggregate.RouteDefinition;
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Vertx;
+import com.gateway.logging.AsyncLog;
+import com.gateway.service.BlockingRunner;
+import com.gateway.service.UpstreamClients;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.WebClient;
-import io.vertx.ext.web.client.WebClientOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AppConfig {
 
   private final Vertx vertx;
-  private final WebClient webClient;
+  private final Map<String, UpstreamClientProfile> upstreamClientProfiles;
+  private final Map<String, RetryProfile> retryProfiles;
+  private final UpstreamClients upstreamClients;
+  private final AtomicInteger references = new AtomicInteger(1);
   private final int serverPort;
   private final String postsApiUrl;
   private final String usersApiUrl;
   private final int httpTimeout;
+  private final int breakerMaxFailures;
+  private final long breakerResetTimeoutMs;
+  private final int verticleInstances;
+  private final boolean cacheEnabled;
+  private final int cacheMaxEntries;
+  private final long cacheDefaultTtlMs;
+  private final long cacheStaleMs;
+  private final long cacheNegativeTtlMs;
+  private final boolean cacheSharedEnabled;
+  private final String cacheSharedMap;
+  private final String cacheInvalidationAddress;
+  private final boolean coalesceEnabled;
+  private final long coalesceMaxJoinMs;
+  private final int coalesceMaxWaiters;
+  private final String responsePrettyParam;
+  private final boolean etagEnabled;
+  private final boolean compressionEnabled;
+  private final int compressionLevel;
+  private final int compressionThreshold;
+  private final List<RouteDefinition> aggregateRoutes;
+  private final Map<String, ProxyRoute> proxyRoutes;
+  private final boolean serverLimitEnabled;
+  private final int serverLimitInitial;
+  private final int serverLimitMin;
+  private final int serverLimitMax;
+  private final int serverLimitRetryAfterSeconds;
+  private final boolean upstreamLimitEnabled;
+  private final int upstreamLimitInitial;
+  private final int upstreamLimitMin;
+  private final int upstreamLimitMax;
+  private final int upstreamLimitRetryAfterSeconds;
+  private final boolean hedgeEnabled;
+  private final double hedgePercentile;
+  private final long hedgeMinDelayMs;
+  private final int hedgeMinSamples;
+  private final double hedgeBudgetPercent;
+  private final boolean metricsEnabled;
+  private final String metricsPath;
+  private final long eventLoopLagIntervalMs;
+  private final boolean responseStreamingEnabled;
+  private final boolean rateLimitEnabled;
+  private final String rateLimitKeyHeader;
+  private final double rateLimitPerKeyRps;
+  private final int rateLimitPerKeyBurst;
+  private final double rateLimitGlobalRps;
+  private final int rateLimitGlobalBurst;
+  private final int rateLimitMaxKeys;
+  private final long rateLimitSweepMs;
+  private final boolean batchEnabled;
+  private final int batchMaxItems;
+  private final int batchParallelism;
+  private final String batchParam;
+  private final boolean accessLogEnabled;
+  private final long bodyLimitBytes;
+  private final boolean bodyUploadsEnabled;
+  private final String bodyUploadsDirectory;
+  private final boolean fetchersEnabled;
+  private final JsonObject fetcherInstances;
 
   public AppConfig(Vertx vertx) {
+    this(vertx, new JsonObject());
+  }
+
+  public AppConfig(Vertx vertx, JsonObject overrides) {
     this.vertx = vertx;
 
-    JsonObject config = loadConfiguration();
+    JsonObject config = loadConfiguration().mergeIn(overrides);
 
     this.serverPort = config.getInteger("server.port", 8080);
     this.postsApiUrl = config.getString("api.posts.url",
@@ -25,31 +103,273 @@ public class AppConfig {
     this.usersApiUrl = config.getString("api.users.url",
       "https://jsonplaceholder.typicode.com/users/1");
     this.httpTimeout = config.getInteger("http.timeout", 10000);
+    this.breakerMaxFailures = config.getInteger("breaker.max.failures", 5);
+    this.breakerResetTimeoutMs = config.getLong("breaker.reset.timeout.ms", 30000L);
+    this.verticleInstances = resolveInstances(config);
+    this.cacheEnabled = config.getBoolean("cache.enabled", true);
+    this.cacheMaxEntries = config.getInteger("cache.max.entries", 1000);
+    this.cacheDefaultTtlMs = config.getLong("cache.default.ttl.ms", 0L);
+    this.cacheStaleMs = config.getLong("cache.stale.ms", 30000L);
+    this.cacheNegativeTtlMs = config.getLong("cache.negative.ttl.ms", 5000L);
+    this.cacheSharedEnabled = config.getBoolean("cache.shared.enabled", true);
+    this.cacheSharedMap = config.getString("cache.shared.map", "gateway.cache");
+    this.cacheInvalidationAddress = config.getString("cache.invalidation.address", "gateway.cache.invalidate");
+    this.coalesceEnabled = config.getBoolean("coalesce.enabled", true);
+    this.coalesceMaxJoinMs = config.getLong("coalesce.max.join.ms", 1000L);
+    this.coalesceMaxWaiters = config.getInteger("coalesce.max.waiters", 1000);
+    this.responsePrettyParam = config.getString("response.pretty.param", "pretty");
+    this.etagEnabled = config.getBoolean("response.etag.enabled", true);
+    this.compressionEnabled = config.getBoolean("response.compression.enabled", true);
+    this.compressionLevel = config.getInteger("response.compression.level", 6);
+    this.compressionThreshold = config.getInteger("response.compression.threshold", 1024);
+    this.serverLimitEnabled = config.getBoolean("limit.server.enabled", true);
+    this.serverLimitInitial = config.getInteger("limit.server.initial", 500);
+    this.serverLimitMin = config.getInteger("limit.server.min", 20);
+    this.serverLimitMax = config.getInteger("limit.server.max", 5000);
+    this.serverLimitRetryAfterSeconds = config.getInteger("limit.server.retry.after.seconds", 1);
+    this.upstreamLimitEnabled = config.getBoolean("limit.upstream.enabled", true);
+    this.upstreamLimitInitial = config.getInteger("limit.upstream.initial", 100);
+    this.upstreamLimitMin = config.getInteger("limit.upstream.min", 5);
+    this.upstreamLimitMax = config.getInteger("limit.upstream.max", 1000);
+    this.upstreamLimitRetryAfterSeconds = config.getInteger("limit.upstream.retry.after.seconds", 1);
+    this.hedgeEnabled = config.getBoolean("hedge.enabled", false);
+    this.hedgePercentile = config.getDouble("hedge.percentile", 95.0);
+    this.hedgeMinDelayMs = config.getLong("hedge.min.delay.ms", 5L);
+    this.hedgeMinSamples = config.getInteger("hedge.min.samples", 20);
+    this.hedgeBudgetPercent = config.getDouble("hedge.budget.percent", 10.0);
+    this.metricsEnabled = config.getBoolean("metrics.enabled", true);
+    this.metricsPath = config.getString("metrics.path", "/metrics");
+    this.eventLoopLagIntervalMs = config.getLong("metrics.event.loop.lag.interval.ms", 100L);
+    this.responseStreamingEnabled = config.getBoolean("response.streaming.enabled", true);
+    this.rateLimitEnabled = config.getBoolean("rate.limit.enabled", false);
+    this.rateLimitKeyHeader = config.getString("rate.limit.key.header", "X-API-Key");
+    this.rateLimitPerKeyRps = config.getDouble("rate.limit.per.key.rps", 50.0);
+    this.rateLimitPerKeyBurst = config.getInteger("rate.limit.per.key.burst", 100);
+    this.rateLimitGlobalRps = config.getDouble("rate.limit.global.rps", 0.0);
+    this.rateLimitGlobalBurst = config.getInteger("rate.limit.global.burst", 1000);
+    this.rateLimitMaxKeys = config.getInteger("rate.limit.max.keys", 100000);
+    this.rateLimitSweepMs = config.getLong("rate.limit.sweep.interval.ms", 10000L);
+    this.batchEnabled = config.getBoolean("aggregate.batch.enabled", true);
+    this.batchMaxItems = config.getInteger("aggregate.batch.max.items", 100);
+    this.batchParallelism = Math.max(1, config.getInteger("aggregate.batch.parallelism", 8));
+    this.batchParam = config.getString("aggregate.batch.param", "id");
+    this.accessLogEnabled = config.getBoolean("log.access.enabled", true);
+    this.bodyLimitBytes = config.getLong("body.limit.bytes", 1048576L);
+    this.bodyUploadsEnabled = config.getBoolean("body.uploads.enabled", false);
+    this.bodyUploadsDirectory = config.getString("body.uploads.directory", "file-uploads");
+    this.fetchersEnabled = config.getBoolean("fetchers.enabled", false);
+    this.fetcherInstances = config.getJsonObject("fetchers.instances", new JsonObject()).copy();
+    this.aggregateRoutes = parseRoutes(config.getJsonArray("aggregate.routes",
+      new JsonArray().add(defaultRoute(postsApiUrl, usersApiUrl))));
+    this.proxyRoutes = parseProxyRoutes(config.getJsonObject("api.proxies", new JsonObject()));
 
-    WebClientOptions options = new WebClientOptions()
-      .setConnectTimeout(httpTimeout)
-      .setIdleTimeout(httpTimeout)
-      .setKeepAlive(true)
-      .setSsl(true);
-
-    this.webClient = WebClient.create(vertx, options);
+    this.upstreamClientProfiles = parseClientProfiles(config.getJsonObject("upstream.clients", new JsonObject()));
+    this.upstreamClients = new UpstreamClients(vertx, upstreamClientProfiles, httpTimeout);
+    this.retryProfiles = parseRetryProfiles(config.getJsonObject("upstream.retries", new JsonObject()));
   }
 
-  private JsonObject loadConfiguration() {
+  public static JsonObject loadConfiguration() {
     return new JsonObject()
       .put("server.port", 8080)
       .put("api.posts.url", "https://jsonplaceholder.typicode.com/posts/1")
       .put("api.users.url", "https://jsonplaceholder.typicode.com/users/1")
+      .put("api.proxies", new JsonObject())
       .put("http.timeout", 10000)
-      .put("thread.pool.size", 10);
+      .put("breaker.max.failures", 5)
+      .put("breaker.reset.timeout.ms", 30000)
+      .put("config.path", "conf/config.json")
+      .put("config.scan.period.ms", 5000)
+      .put("thread.pool.size", 10)
+      .put("verticle.instances", 0)
+      .put("verticle.threading.model", "event_loop")
+      .put("cache.enabled", true)
+      .put("cache.max.entries", 1000)
+      .put("cache.default.ttl.ms", 0)
+      .put("cache.stale.ms", 30000)
+      .put("cache.negative.ttl.ms", 5000)
+      .put("cache.shared.enabled", true)
+      .put("cache.shared.map", "gateway.cache")
+      .put("cache.invalidation.address", "gateway.cache.invalidate")
+      .put("coalesce.enabled", true)
+      .put("coalesce.max.join.ms", 1000)
+      .put("coalesce.max.waiters", 1000)
+      .put("response.pretty.param", "pretty")
+      .put("response.etag.enabled", true)
+      .put("response.compression.enabled", true)
+      .put("response.compression.level", 6)
+      .put("response.compression.threshold", 1024)
+      .put("limit.server.enabled", true)
+      .put("limit.server.initial", 500)
+      .put("limit.server.min", 20)
+      .put("limit.server.max", 5000)
+      .put("limit.server.retry.after.seconds", 1)
+      .put("limit.upstream.enabled", true)
+      .put("limit.upstream.initial", 100)
+      .put("limit.upstream.min", 5)
+      .put("limit.upstream.max", 1000)
+      .put("limit.upstream.retry.after.seconds", 1)
+      .put("hedge.enabled", false)
+      .put("hedge.percentile", 95)
+      .put("hedge.min.delay.ms", 5)
+      .put("hedge.min.samples", 20)
+      .put("hedge.budget.percent", 10)
+      .put("metrics.enabled", true)
+      .put("metrics.path", "/metrics")
+      .put("metrics.event.loop.lag.interval.ms", 100)
+      .put("response.streaming.enabled", true)
+      .put("rate.limit.enabled", false)
+      .put("rate.limit.key.header", "X-API-Key")
+      .put("rate.limit.per.key.rps", 50)
+      .put("rate.limit.per.key.burst", 100)
+      .put("rate.limit.global.rps", 0)
+      .put("rate.limit.global.burst", 1000)
+      .put("rate.limit.max.keys", 100000)
+      .put("rate.limit.sweep.interval.ms", 10000)
+      .put("aggregate.batch.enabled", true)
+      .put("aggregate.batch.max.items", 100)
+      .put("aggregate.batch.parallelism", 8)
+      .put("aggregate.batch.param", "id")
+      .put("log.access.enabled", true)
+      .put("body.limit.bytes", 1048576)
+      .put("body.uploads.enabled", false)
+      .put("body.uploads.directory", "file-uploads")
+      .put("fetchers.enabled", false)
+      .put("fetchers.instances", new JsonObject().put(UpstreamClientProfile.DEFAULT, 1))
+      .put("upstream.clients", new JsonObject()
+        .put(UpstreamClientProfile.DEFAULT, new JsonObject()
+          .put("pool.size", 20)
+          .put("wait.queue.size", 256)
+          .put("http2", false)
+          .put("http2.pool.size", 1)
+          .put("http2.multiplexing.limit", 100)
+          .put("keepalive.timeout.seconds", 60)
+          .put("ssl.engine", "jdk")
+          .put("prewarm.connections", 0)))
+      .put("upstream.retries", new JsonObject()
+        .put(UpstreamClientProfile.DEFAULT, new JsonObject()
+          .put("max.retries", 2)
+          .put("base.delay.ms", 20)
+          .put("max.delay.ms", 500)
+          .put("budget.percent", 10)));
+  }
+
+  private static JsonObject defaultRoute(String postsUrl, String usersUrl) {
+    return new JsonObject()
+      .put("path", "/aggregate")
+      .put("upstreams", new JsonArray()
+        .add(new JsonObject()
+          .put("name", "posts")
+          .put("url", postsUrl)
+          .put("fields", new JsonObject().put("post_title", "title"))
+          .put("fallback", new JsonObject().put("post_title", "N/A"))
+          .put("warning", "Post data unavailable")
+          .put("errorCode", "POST_API_ERROR")
+          .put("errorMessage", "Failed to fetch post data"))
+        .add(new JsonObject()
+          .put("name", "users")
+          .put("url", usersUrl)
+          .put("fields", new JsonObject().put("author_name", "name"))
+          .put("fallback", new JsonObject().put("author_name", "N/A"))
+          .put("warning", "User data unavailable")
+          .put("errorCode", "USER_API_ERROR")
+          .put("errorMessage", "Failed to fetch user data")));
+  }
+
+  private static List<RouteDefinition> parseRoutes(JsonArray routes) {
+    List<RouteDefinition> result = new ArrayList<>();
+    for (int i = 0; i < routes.size(); i++) {
+      result.add(RouteDefinition.fromJson(routes.getJsonObject(i)));
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  private static Map<String, ProxyRoute> parseProxyRoutes(JsonObject proxies) {
+    Map<String, ProxyRoute> result = new LinkedHashMap<>();
+    for (String name : proxies.fieldNames()) {
+      result.put(name, ProxyRoute.fromJson(name, proxies.getJsonObject(name)));
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  private static Map<String, UpstreamClientProfile> parseClientProfiles(JsonObject clients) {
+    JsonObject defaults = clients.getJsonObject(UpstreamClientProfile.DEFAULT, new JsonObject());
+    Map<String, UpstreamClientProfile> result = new LinkedHashMap<>();
+    result.put(UpstreamClientProfile.DEFAULT,
+      UpstreamClientProfile.fromJson(UpstreamClientProfile.DEFAULT, defaults, new JsonObject()));
+    for (String name : clients.fieldNames()) {
+      if (!UpstreamClientProfile.DEFAULT.equals(name)) {
+        result.put(name, UpstreamClientProfile.fromJson(name, defaults, clients.getJsonObject(name)));
+      }
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  private static Map<String, RetryProfile> parseRetryProfiles(JsonObject retries) {
+    JsonObject defaults = retries.getJsonObject(UpstreamClientProfile.DEFAULT, new JsonObject());
+    Map<String, RetryProfile> result = new LinkedHashMap<>();
+    result.put(UpstreamClientProfile.DEFAULT,
+      RetryProfile.fromJson(UpstreamClientProfile.DEFAULT, defaults, new JsonObject()));
+    for (String name : retries.fieldNames()) {
+      if (!UpstreamClientProfile.DEFAULT.equals(name)) {
+        result.put(name, RetryProfile.fromJson(name, defaults, retries.getJsonObject(name)));
+      }
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+
+  public static int resolveInstances(JsonObject config) {
+    int instances = config.getInteger("verticle.instances", 0);
+    return instances > 0 ? instances : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * "event_loop" (default) or "virtual_thread". Virtual threads need Java 21; on an
+   * older runtime the gateway falls back to event loops.
+   */
+  public static ThreadingModel resolveThreadingModel(JsonObject config) {
+    String model = config.getString("verticle.threading.model", "event_loop");
+    switch (model) {
+      case "event_loop":
+        return ThreadingModel.EVENT_LOOP;
+      case "virtual_thread":
+        if (BlockingRunner.isVirtualThreadAvailable()) {
+          return ThreadingModel.VIRTUAL_THREAD;
+        }
+        AsyncLog.get().info("Virtual threads need Java 21+, running on event loops (Java "
+          + Runtime.version().feature() + ")");
+        return ThreadingModel.EVENT_LOOP;
+      default:
+        throw new IllegalArgumentException("Unsupported verticle.threading.model: " + model);
+    }
   }
 
   public Vertx getVertx() {
     return vertx;
   }
 
+  public HttpClient getHttpClient() {
+    return upstreamClients.get(UpstreamClientProfile.DEFAULT).getHttpClient();
+  }
+
   public WebClient getWebClient() {
-    return webClient;
+    return upstreamClients.get(UpstreamClientProfile.DEFAULT).getWebClient();
+  }
+
+  public UpstreamClients getUpstreamClients() {
+    return upstreamClients;
+  }
+
+  public Map<String, UpstreamClientProfile> getUpstreamClientProfiles() {
+    return upstreamClientProfiles;
+  }
+
+  /**
+   * Retry settings for the upstream, or the default ones if it has none of its own.
+   */
+  public RetryProfile getRetryProfile(String upstream) {
+    RetryProfile profile = retryProfiles.get(upstream);
+    return profile != null ? profile : retryProfiles.get(UpstreamClientProfile.DEFAULT);
   }
 
   public int getServerPort() {
@@ -67,4 +387,289 @@ public class AppConfig {
   public int getHttpTimeout() {
     return httpTimeout;
   }
+
+  public int getVerticleInstances() {
+    return verticleInstances;
+  }
+
+  public boolean isCacheEnabled() {
+    return cacheEnabled;
+  }
+
+  public int getCacheMaxEntries() {
+    return cacheMaxEntries;
+  }
+
+  public long getCacheDefaultTtlMs() {
+    return cacheDefaultTtlMs;
+  }
+
+  public long getCacheStaleMs() {
+    return cacheStaleMs;
+  }
+
+  public long getCacheNegativeTtlMs() {
+    return cacheNegativeTtlMs;
+  }
+
+  public boolean isCacheSharedEnabled() {
+    return cacheSharedEnabled;
+  }
+
+  public String getCacheSharedMap() {
+    return cacheSharedMap;
+  }
+
+  public String getCacheInvalidationAddress() {
+    return cacheInvalidationAddress;
+  }
+
+  public boolean isCoalesceEnabled() {
+    return coalesceEnabled;
+  }
+
+  public long getCoalesceMaxJoinMs() {
+    return coalesceMaxJoinMs;
+  }
+
+  public int getCoalesceMaxWaiters() {
+    return coalesceMaxWaiters;
+  }
+
+  public String getResponsePrettyParam() {
+    return responsePrettyParam;
+  }
+
+  public boolean isEtagEnabled() {
+    return etagEnabled;
+  }
+
+  public boolean isCompressionEnabled() {
+    return compressionEnabled;
+  }
+
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  public int getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
+  public RouteDefinition getAggregateRoute(String path) {
+    for (RouteDefinition route : aggregateRoutes) {
+      if (route.getPath().equals(path)) {
+        return route;
+      }
+    }
+    return null;
+  }
+
+  public List<RouteDefinition> getAggregateRoutes() {
+    return aggregateRoutes;
+  }
+
+  /**
+   * Pass-through routes by name.
+   */
+  public Map<String, ProxyRoute> getProxyRoutes() {
+    return proxyRoutes;
+  }
+
+  public boolean isServerLimitEnabled() {
+    return serverLimitEnabled;
+  }
+
+  public int getServerLimitInitial() {
+    return serverLimitInitial;
+  }
+
+  public int getServerLimitMin() {
+    return serverLimitMin;
+  }
+
+  public int getServerLimitMax() {
+    return serverLimitMax;
+  }
+
+  public int getServerLimitRetryAfterSeconds() {
+    return serverLimitRetryAfterSeconds;
+  }
+
+  public boolean isUpstreamLimitEnabled() {
+    return upstreamLimitEnabled;
+  }
+
+  public int getUpstreamLimitInitial() {
+    return upstreamLimitInitial;
+  }
+
+  public int getUpstreamLimitMin() {
+    return upstreamLimitMin;
+  }
+
+  public int getUpstreamLimitMax() {
+    return upstreamLimitMax;
+  }
+
+  public int getUpstreamLimitRetryAfterSeconds() {
+    return upstreamLimitRetryAfterSeconds;
+  }
+
+  public boolean isHedgeEnabled() {
+    return hedgeEnabled;
+  }
+
+  public double getHedgePercentile() {
+    return hedgePercentile;
+  }
+
+  public long getHedgeMinDelayMs() {
+    return hedgeMinDelayMs;
+  }
+
+  public int getHedgeMinSamples() {
+    return hedgeMinSamples;
+  }
+
+  public double getHedgeBudgetPercent() {
+    return hedgeBudgetPercent;
+  }
+
+  public boolean isMetricsEnabled() {
+    return metricsEnabled;
+  }
+
+  public String getMetricsPath() {
+    return metricsPath;
+  }
+
+  public long getEventLoopLagIntervalMs() {
+    return eventLoopLagIntervalMs;
+  }
+
+  public int getBreakerMaxFailures() {
+    return breakerMaxFailures;
+  }
+
+  public long getBreakerResetTimeoutMs() {
+    return breakerResetTimeoutMs;
+  }
+
+  public boolean isResponseStreamingEnabled() {
+    return responseStreamingEnabled;
+  }
+
+  public boolean isRateLimitEnabled() {
+    return rateLimitEnabled;
+  }
+
+  public String getRateLimitKeyHeader() {
+    return rateLimitKeyHeader;
+  }
+
+  public double getRateLimitPerKeyRps() {
+    return rateLimitPerKeyRps;
+  }
+
+  public int getRateLimitPerKeyBurst() {
+    return rateLimitPerKeyBurst;
+  }
+
+  /**
+   * Requests per second across all clients; 0 disables the global limit.
+   */
+  public double getRateLimitGlobalRps() {
+    return rateLimitGlobalRps;
+  }
+
+  public int getRateLimitGlobalBurst() {
+    return rateLimitGlobalBurst;
+  }
+
+  public int getRateLimitMaxKeys() {
+    return rateLimitMaxKeys;
+  }
+
+  public long getRateLimitSweepMs() {
+    return rateLimitSweepMs;
+  }
+
+  public boolean isBatchEnabled() {
+    return batchEnabled;
+  }
+
+  public int getBatchMaxItems() {
+    return batchMaxItems;
+  }
+
+  public int getBatchParallelism() {
+    return batchParallelism;
+  }
+
+  public String getBatchParam() {
+    return batchParam;
+  }
+
+  public boolean isAccessLogEnabled() {
+    return accessLogEnabled;
+  }
+
+  public long getBodyLimitBytes() {
+    return bodyLimitBytes;
+  }
+
+  public boolean isBodyUploadsEnabled() {
+    return bodyUploadsEnabled;
+  }
+
+  public String getBodyUploadsDirectory() {
+    return bodyUploadsDirectory;
+  }
+
+  public boolean isFetchersEnabled() {
+    return fetchersEnabled;
+  }
+
+  /**
+   * Fetcher verticle instances for an upstream: its entry in "fetchers.instances",
+   * else the "default" entry, else 1.
+   */
+  public int getFetcherInstances(String upstream) {
+    return fetcherInstances.getInteger(upstream, fetcherInstances.getInteger(UpstreamClientProfile.DEFAULT, 1));
+  }
+
+  /**
+   * Takes a reference that keeps this snapshot's upstream clients open until
+   * {@link #release()}; fails once the snapshot has been closed.
+   */
+  boolean retain() {
+    while (true) {
+      int count = references.get();
+      if (count == 0) {
+        return false;
+      }
+      if (references.compareAndSet(count, count + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Drops a reference; the last one closes the snapshot. The holder owns the first
+   * reference and gives it up when the snapshot is replaced.
+   */
+  public void release() {
+    if (references.decrementAndGet() == 0) {
+      close();
+    }
+  }
+
+  /**
+   * Releases this snapshot's upstream clients. Clients shared with a newer snapshot
+   * stay open until that snapshot is closed too.
+   */
+  public void close() {
+    upstreamClients.close();
+  }
 }
@@ -0,0 +1,43 @@
+package com.gateway.config;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Current configuration snapshot. Readers take {@link #current()} once per request
+ * and use that immutable snapshot until the request completes, so a reload never
+ * changes settings under an in-flight request and the read path takes no locks.
+ * Requests that may outlive a reload by far (proxied streams, batches) use
+ * {@link #acquire()} instead, so the snapshot's clients stay open until they finish.
+ */
+public class ConfigHolder {
+
+  private final AtomicReference<AppConfig> current;
+
+  public ConfigHolder(AppConfig initial) {
+    this.current = new AtomicReference<>(initial);
+  }
+
+  public AppConfig current() {
+    return current.get();
+  }
+
+  /**
+   * Current snapshot with a reference taken on it; the caller must
+   * {@link AppConfig#release()} it when done.
+   */
+  public AppConfig acquire() {
+    while (true) {
+      AppConfig config = current.get();
+      if (config.retain()) {
+        return config;
+      }
+    }
+  }
+
+  /**
+   * Installs a new snapshot and returns the one it replaced.
+   */
+  public AppConfig swap(AppConfig next) {
+    return current.getAndSet(next);
+  }
+}
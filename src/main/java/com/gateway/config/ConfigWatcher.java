@@ -0,0 +1,96 @@
+package com.gateway.config;
+
+import com.gateway.logging.AsyncLog;
+import io.vertx.config.ConfigRetriever;
+import io.vertx.config.ConfigRetrieverOptions;
+import io.vertx.config.ConfigStoreOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Loads configuration through ConfigRetriever and swaps a new {@link AppConfig}
+ * snapshot into the holder whenever it changes. Sources, lowest precedence first:
+ * built-in defaults, the JSON file at "config.path" (optional), environment
+ * variables, system properties, and the verticle's deployment config.
+ *
+ * The replaced snapshot's upstream clients are closed once requests that started
+ * on it have had time to finish (twice its http.timeout) and every request that
+ * acquired it has released it. A reload that fails to parse is logged and the
+ * current snapshot stays in place.
+ *
+ * Verticles do not create watchers themselves: they share one per deployment config
+ * through {@link com.gateway.service.SharedResources#configs}.
+ */
+public class ConfigWatcher {
+
+  private final Vertx vertx;
+  private final JsonObject deploymentConfig;
+  private ConfigRetriever retriever;
+
+  public ConfigWatcher(Vertx vertx, JsonObject deploymentConfig) {
+    this.vertx = vertx;
+    this.deploymentConfig = deploymentConfig;
+  }
+
+  public Future<ConfigHolder> start() {
+    retriever = ConfigRetriever.create(vertx, retrieverOptions(deploymentConfig));
+    return retriever.getConfig().map(json -> {
+      ConfigHolder holder = new ConfigHolder(new AppConfig(vertx, json));
+      retriever.listen(change -> reload(holder, change.getNewConfiguration()));
+      return holder;
+    });
+  }
+
+  /**
+   * One-off read of the merged configuration, without watching it.
+   */
+  public static Future<JsonObject> load(Vertx vertx, JsonObject overrides) {
+    ConfigRetriever retriever = ConfigRetriever.create(vertx, retrieverOptions(overrides));
+    return retriever.getConfig().onComplete(result -> retriever.close());
+  }
+
+  public void stop() {
+    if (retriever != null) {
+      retriever.close();
+    }
+  }
+
+  private void reload(ConfigHolder holder, JsonObject json) {
+    AppConfig next;
+    try {
+      next = new AppConfig(vertx, json);
+    } catch (RuntimeException e) {
+      AsyncLog.get().error("Ignoring invalid configuration change", e);
+      return;
+    }
+
+    AppConfig previous = holder.swap(next);
+    AsyncLog.get().info("Configuration reloaded");
+    vertx.setTimer(Math.max(1, previous.getHttpTimeout() * 2L), id -> previous.release());
+  }
+
+  private static ConfigRetrieverOptions retrieverOptions(JsonObject deploymentConfig) {
+    JsonObject bootstrap = AppConfig.loadConfiguration().mergeIn(deploymentConfig);
+    String path = System.getProperty("config.path", bootstrap.getString("config.path"));
+    long scanPeriodMs = Long.getLong("config.scan.period.ms", bootstrap.getLong("config.scan.period.ms"));
+
+    ConfigRetrieverOptions options = new ConfigRetrieverOptions()
+      .setScanPeriod(scanPeriodMs)
+      .setIncludeDefaultStores(false)
+      .addStore(new ConfigStoreOptions()
+        .setType("json")
+        .setConfig(AppConfig.loadConfiguration()));
+    if (path != null && !path.isEmpty()) {
+      options.addStore(new ConfigStoreOptions()
+        .setType("file")
+        .setFormat("json")
+        .setOptional(true)
+        .setConfig(new JsonObject().put("path", path)));
+    }
+    return options
+      .addStore(new ConfigStoreOptions().setType("env"))
+      .addStore(new ConfigStoreOptions().setType("sys").setConfig(new JsonObject().put("cache", false)))
+      .addStore(new ConfigStoreOptions().setType("json").setConfig(deploymentConfig));
+  }
+}
@@ -0,0 +1,99 @@
+package com.gateway.config;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A pass-through route, read from "api.proxies" next to the "api.*.url" keys:
+ * requests to {@code path} or below it are forwarded to {@code url} plus the rest
+ * of the request URI, e.g. with path "/comments" and url
+ * "https://host/v1/comments", "/comments/7?x=1" goes to "https://host/v1/comments/7?x=1".
+ *
+ * The entry's name selects the upstream client profile and names its metrics.
+ * "request.headers" and "response.headers" set headers on the forwarded request and
+ * on the response; a null value removes the header.
+ */
+public class ProxyRoute {
+
+  private final String name;
+  private final String path;
+  private final String url;
+  private final Map<String, String> requestHeaders;
+  private final Map<String, String> responseHeaders;
+
+  public ProxyRoute(
+    String name,
+    String path,
+    String url,
+    Map<String, String> requestHeaders,
+    Map<String, String> responseHeaders
+  ) {
+    this.name = name;
+    this.path = path;
+    this.url = url;
+    this.requestHeaders = Collections.unmodifiableMap(new LinkedHashMap<>(requestHeaders));
+    this.responseHeaders = Collections.unmodifiableMap(new LinkedHashMap<>(responseHeaders));
+  }
+
+  static ProxyRoute fromJson(String name, JsonObject json) {
+    String path = json.getString("path");
+    String url = json.getString("url");
+    if (path == null || !path.startsWith("/") || url == null) {
+      throw new IllegalArgumentException("Proxy '" + name + "' needs a path starting with / and a url");
+    }
+    return new ProxyRoute(
+      name,
+      trimSlash(path),
+      trimSlash(url),
+      headers(json.getJsonObject("request.headers", new JsonObject())),
+      headers(json.getJsonObject("response.headers", new JsonObject())));
+  }
+
+  private static Map<String, String> headers(JsonObject json) {
+    Map<String, String> headers = new LinkedHashMap<>();
+    json.forEach(entry -> headers.put(entry.getKey(), entry.getValue() == null ? null : String.valueOf(entry.getValue())));
+    return headers;
+  }
+
+  private static String trimSlash(String value) {
+    return value.length() > 1 && value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+  }
+
+  /**
+   * Upstream URL for a request URI (path and query) under this route's path.
+   */
+  public String target(String requestUri) {
+    return target(path, requestUri);
+  }
+
+  /**
+   * Upstream URL for a request URI under {@code mountedPath}, the path the route was
+   * mounted on at startup; a reloaded route may carry a different path.
+   */
+  public String target(String mountedPath, String requestUri) {
+    return url + requestUri.substring(mountedPath.length());
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public Map<String, String> getRequestHeaders() {
+    return requestHeaders;
+  }
+
+  public Map<String, String> getResponseHeaders() {
+    return responseHeaders;
+  }
+}
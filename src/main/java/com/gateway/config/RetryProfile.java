@@ -0,0 +1,55 @@
+package com.gateway.config;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Retry settings of one upstream. Read from "upstream.retries" the same way client
+ * profiles are read from "upstream.clients": the "default" entry applies to every
+ * upstream and a named entry overrides it key by key.
+ */
+public class RetryProfile {
+
+  private final String name;
+  private final int maxRetries;
+  private final long baseDelayMs;
+  private final long maxDelayMs;
+  private final double budgetPercent;
+
+  public RetryProfile(String name, int maxRetries, long baseDelayMs, long maxDelayMs, double budgetPercent) {
+    this.name = name;
+    this.maxRetries = maxRetries;
+    this.baseDelayMs = baseDelayMs;
+    this.maxDelayMs = maxDelayMs;
+    this.budgetPercent = budgetPercent;
+  }
+
+  static RetryProfile fromJson(String name, JsonObject defaults, JsonObject overrides) {
+    JsonObject json = defaults.copy().mergeIn(overrides);
+    return new RetryProfile(
+      name,
+      Math.max(0, json.getInteger("max.retries", 2)),
+      Math.max(1, json.getLong("base.delay.ms", 20L)),
+      Math.max(1, json.getLong("max.delay.ms", 500L)),
+      json.getDouble("budget.percent", 10.0));
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  public long getBaseDelayMs() {
+    return baseDelayMs;
+  }
+
+  public long getMaxDelayMs() {
+    return maxDelayMs;
+  }
+
+  public double getBudgetPercent() {
+    return budgetPercent;
+  }
+}
@@ -0,0 +1,152 @@
+package com.gateway.config;
+
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.JdkSSLEngineOptions;
+import io.vertx.core.net.OpenSSLEngineOptions;
+
+/**
+ * Connection settings for the HTTP client of one upstream. Profiles are read from
+ * "upstream.clients": the "default" entry applies to every upstream and a named
+ * entry overrides it key by key for the upstream of that name.
+ */
+public class UpstreamClientProfile {
+
+  public static final String DEFAULT = "default";
+
+  private final String name;
+  private final int poolSize;
+  private final int maxWaitQueueSize;
+  private final boolean http2;
+  private final int http2PoolSize;
+  private final int http2MultiplexingLimit;
+  private final int keepAliveTimeoutSeconds;
+  private final String sslEngine;
+  private final int prewarmConnections;
+
+  public UpstreamClientProfile(
+    String name,
+    int poolSize,
+    int maxWaitQueueSize,
+    boolean http2,
+    int http2PoolSize,
+    int http2MultiplexingLimit,
+    int keepAliveTimeoutSeconds,
+    String sslEngine,
+    int prewarmConnections
+  ) {
+    this.name = name;
+    this.poolSize = poolSize;
+    this.maxWaitQueueSize = maxWaitQueueSize;
+    this.http2 = http2;
+    this.http2PoolSize = http2PoolSize;
+    this.http2MultiplexingLimit = http2MultiplexingLimit;
+    this.keepAliveTimeoutSeconds = keepAliveTimeoutSeconds;
+    this.sslEngine = sslEngine;
+    this.prewarmConnections = prewarmConnections;
+  }
+
+  static UpstreamClientProfile fromJson(String name, JsonObject defaults, JsonObject overrides) {
+    JsonObject json = defaults.copy().mergeIn(overrides);
+    String sslEngine = json.getString("ssl.engine", "jdk");
+    if (!"jdk".equals(sslEngine) && !"openssl".equals(sslEngine)) {
+      throw new IllegalArgumentException(
+        "Upstream client '" + name + "' has unknown ssl.engine: " + sslEngine);
+    }
+    return new UpstreamClientProfile(
+      name,
+      json.getInteger("pool.size", 20),
+      json.getInteger("wait.queue.size", 256),
+      json.getBoolean("http2", false),
+      json.getInteger("http2.pool.size", 1),
+      json.getInteger("http2.multiplexing.limit", 100),
+      json.getInteger("keepalive.timeout.seconds", 60),
+      sslEngine,
+      json.getInteger("prewarm.connections", 0));
+  }
+
+  public HttpClientOptions toHttpClientOptions(int httpTimeout) {
+    HttpClientOptions options = new HttpClientOptions()
+      .setConnectTimeout(httpTimeout)
+      .setIdleTimeout(httpTimeout)
+      .setKeepAlive(true)
+      .setKeepAliveTimeout(keepAliveTimeoutSeconds)
+      .setSsl(true)
+      .setShared(true)
+      .setName("gateway-upstream-" + name);
+
+    if (http2) {
+      options
+        .setProtocolVersion(HttpVersion.HTTP_2)
+        .setUseAlpn(true)
+        .setHttp2MultiplexingLimit(http2MultiplexingLimit)
+        .setHttp2KeepAliveTimeout(keepAliveTimeoutSeconds);
+    }
+
+    if (isOpenSsl()) {
+      options.setSslEngineOptions(new OpenSSLEngineOptions().setSessionCacheEnabled(true));
+    } else {
+      options.setSslEngineOptions(new JdkSSLEngineOptions());
+    }
+    return options;
+  }
+
+  public PoolOptions toPoolOptions() {
+    return new PoolOptions()
+      .setHttp1MaxSize(poolSize)
+      .setHttp2MaxSize(http2PoolSize)
+      .setMaxWaitQueueSize(maxWaitQueueSize);
+  }
+
+  /**
+   * Requests the pool can carry at once without queueing.
+   */
+  public int capacity() {
+    return http2 ? http2PoolSize * http2MultiplexingLimit : poolSize;
+  }
+
+  /**
+   * OpenSSL is used only when requested and netty-tcnative is on the classpath.
+   */
+  public boolean isOpenSsl() {
+    return "openssl".equals(sslEngine) && OpenSSLEngineOptions.isAvailable();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getPoolSize() {
+    return poolSize;
+  }
+
+  public int getMaxWaitQueueSize() {
+    return maxWaitQueueSize;
+  }
+
+  public boolean isHttp2() {
+    return http2;
+  }
+
+  public int getHttp2PoolSize() {
+    return http2PoolSize;
+  }
+
+  public int getHttp2MultiplexingLimit() {
+    return http2MultiplexingLimit;
+  }
+
+  public int getKeepAliveTimeoutSeconds() {
+    return keepAliveTimeoutSeconds;
+  }
+
+  public String getSslEngine() {
+    return sslEngine;
+  }
+
+  public int getPrewarmConnections() {
+    return prewarmConnections;
+  }
+}
@@ -1,8 +1,13 @@
 package com.gateway.exception;
 
+import io.vertx.core.json.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+
 public class ApiException extends RuntimeException {
   private final int statusCode;
   private final String errorCode;
+  private byte[] encodedPrefix;
 
   public ApiException(String message, int statusCode, String errorCode) {
     super(message);
@@ -16,6 +21,21 @@ public class ApiException extends RuntimeException {
     this.errorCode = errorCode;
   }
 
+  private ApiException(String message, int statusCode, String errorCode, boolean writableStackTrace) {
+    super(message, null, false, writableStackTrace);
+    this.statusCode = statusCode;
+    this.errorCode = errorCode;
+  }
+
+  /**
+   * An exception without a stack trace or suppressed exceptions: cheap to create,
+   * and safe to create once and fail many requests with, e.g. for a known upstream
+   * error code.
+   */
+  public static ApiException stackless(String message, int statusCode, String errorCode) {
+    return new ApiException(message, statusCode, errorCode, false);
+  }
+
   public int getStatusCode() {
     return statusCode;
   }
@@ -23,7 +43,28 @@ public class ApiException extends RuntimeException {
   public String getErrorCode() {
     return errorCode;
   }
-}
-
 
+  /**
+   * The standard error response for this exception, encoded up to and including
+   * {@code "timestamp":}; only the timestamp and closing brace are left to write.
+   * Encoded on first use, so a cached instance is encoded once.
+   */
+  public byte[] encodedPrefix() {
+    byte[] prefix = encodedPrefix;
+    if (prefix == null) {
+      prefix = encodePrefix(getMessage(), errorCode, statusCode);
+      encodedPrefix = prefix;
+    }
+    return prefix;
+  }
 
+  public static byte[] encodePrefix(String message, String errorCode, int statusCode) {
+    String json = new JsonObject()
+      .put("error", true)
+      .put("message", message)
+      .put("errorCode", errorCode)
+      .put("statusCode", statusCode)
+      .encode();
+    return (json.substring(0, json.length() - 1) + ",\"timestamp\":").getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,95 @@
+package com.gateway.handler;
+
+import com.gateway.logging.AsyncLog;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Writes one access log event per request once its response has ended: method,
+ * path, the aggregate route that served it, status and duration. Aggregate routes
+ * add each upstream's latency, outcome and circuit breaker state through
+ * {@link #recordUpstream}. Events go to an {@link AsyncLog}, so logging never waits
+ * on the output.
+ */
+public class AccessLogHandler {
+
+  private static final String START = "accessLog.start";
+  private static final String ROUTE = "accessLog.route";
+  private static final String UPSTREAMS = "accessLog.upstreams";
+
+  private final AsyncLog log;
+
+  public AccessLogHandler(AsyncLog log) {
+    this.log = log;
+  }
+
+  public void handle(RoutingContext context) {
+    long start = System.nanoTime();
+    context.put(START, start);
+    context.addEndHandler(result -> log.log("INFO", event(context, start), null));
+    context.next();
+  }
+
+  /**
+   * Whether the request goes through an access log, i.e. whether the record
+   * methods do anything.
+   */
+  public static boolean isEnabled(RoutingContext context) {
+    return context.get(START) != null;
+  }
+
+  /**
+   * Names the route that served the request; no-op without an access log.
+   */
+  public static void recordRoute(RoutingContext context, String route) {
+    if (isEnabled(context)) {
+      context.put(ROUTE, route);
+    }
+  }
+
+  /**
+   * Adds an upstream call of the request; no-op without an access log.
+   *
+   * @param elapsedNanos time from the start of the aggregation until the upstream
+   *                     resolved, including any upstreams it waited on
+   * @param breaker      state of the upstream's circuit breaker, or null
+   */
+  public static void recordUpstream(RoutingContext context, String upstream, long elapsedNanos, boolean ok,
+                                    String breaker) {
+    if (!isEnabled(context)) {
+      return;
+    }
+    JsonObject upstreams = context.get(UPSTREAMS);
+    if (upstreams == null) {
+      upstreams = new JsonObject();
+      context.put(UPSTREAMS, upstreams);
+    }
+    JsonObject call = new JsonObject().put("ms", millis(elapsedNanos)).put("ok", ok);
+    if (breaker != null) {
+      call.put("breaker", breaker);
+    }
+    upstreams.put(upstream, call);
+  }
+
+  private static JsonObject event(RoutingContext context, long start) {
+    JsonObject event = new JsonObject()
+      .put("type", "access")
+      .put("method", context.request().method().name())
+      .put("path", context.request().path())
+      .put("status", context.response().getStatusCode())
+      .put("ms", millis(System.nanoTime() - start));
+    String route = context.get(ROUTE);
+    if (route != null) {
+      event.put("route", route);
+    }
+    JsonObject upstreams = context.get(UPSTREAMS);
+    if (upstreams != null) {
+      event.put("upstreams", upstreams);
+    }
+    return event;
+  }
+
+  private static double millis(long nanos) {
+    return Math.round(nanos / 10_000.0) / 100.0;
+  }
+}
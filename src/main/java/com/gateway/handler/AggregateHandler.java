@@ -1,142 +1,182 @@
 package com.gateway.handler;
 
-import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
-import io.vertx.circuitbreaker.CircuitBreaker;
-import io.vertx.circuitbreaker.CircuitBreakerOptions;
+import com.gateway.aggregate.AggregationEngine;
+import com.gateway.aggregate.RouteDefinition;
+import com.gateway.aggregate.RouteEnricher;
+import com.gateway.aggregate.UpstreamDefinition;
 import com.gateway.config.AppConfig;
-import com.gateway.exception.ApiException;
-import com.gateway.service.ApiService;
+import com.gateway.metrics.LatencyHistogram;
+import com.gateway.service.BlockingRunner;
+
+import java.util.List;
+import java.util.function.Function;
 
 public class AggregateHandler {
 
-  private final AppConfig config;
-  private final ApiService apiService;
-  private final CircuitBreaker postsBreaker;
-  private final CircuitBreaker usersBreaker;
+  private final AggregationEngine engine;
+  private final RouteDefinition route;
+  private final ResponseWriter responseWriter;
+  private final LatencyHistogram latency;
+  private final RouteEnricher enricher;
+  private final BlockingRunner blocking;
 
   public AggregateHandler(Vertx vertx, AppConfig config) {
-    this.config = config;
-    this.apiService = new ApiService(config.getWebClient());
+    this(new AggregationEngine(vertx, config), config.getAggregateRoutes().get(0), new ResponseWriter(config));
+  }
 
-    CircuitBreakerOptions breakerOptions = new CircuitBreakerOptions()
-      .setMaxFailures(5)
-      .setTimeout(config.getHttpTimeout())
-      .setResetTimeout(30000)
-      .setFallbackOnFailure(true);
+  public AggregateHandler(AggregationEngine engine, RouteDefinition route, ResponseWriter responseWriter) {
+    this(engine, route, responseWriter, null, null);
+  }
 
-    this.postsBreaker = CircuitBreaker.create("posts-breaker", vertx, breakerOptions);
-    this.usersBreaker = CircuitBreaker.create("users-breaker", vertx, breakerOptions);
+  /**
+   * @param enricher optional blocking step run on the aggregated response
+   * @param blocking runs the enricher; when it uses virtual threads the handler must
+   *                 be invoked from a virtual-thread verticle and runs sequentially
+   */
+  public AggregateHandler(
+    AggregationEngine engine,
+    RouteDefinition route,
+    ResponseWriter responseWriter,
+    RouteEnricher enricher,
+    BlockingRunner blocking
+  ) {
+    this.engine = engine;
+    this.route = route;
+    this.responseWriter = responseWriter;
+    this.latency = engine.getMetrics().routeLatency(route.getPath());
+    this.enricher = enricher;
+    this.blocking = blocking;
   }
 
-  public void handle(RoutingContext context) {
-    Future<JsonObject> postsFuture = postsBreaker.execute(promise ->
-      fetchPostData()
-        .onSuccess(promise::complete)
-        .onFailure(promise::fail)
-    );
-
-    Future<JsonObject> usersFuture = usersBreaker.execute(promise ->
-      fetchUserData()
-        .onSuccess(promise::complete)
-        .onFailure(promise::fail)
-    );
-
-    CompositeFuture.all(postsFuture, usersFuture)
-      .onSuccess(result -> {
-        JsonObject postData = postsFuture.result();
-        JsonObject userData = usersFuture.result();
-
-        JsonObject response = aggregateResponse(postData, userData);
-        sendSuccessResponse(context, response);
-      })
-      .onFailure(error -> {
-        handleAggregateFailure(context, error, postsFuture, usersFuture);
-      });
+  public RouteDefinition getRoute() {
+    return route;
   }
 
-  private Future<JsonObject> fetchPostData() {
-    return apiService.fetch(config.getPostsApiUrl())
-      .compose(response -> {
-        if (response.statusCode() == 200) {
-          return Future.succeededFuture(response.bodyAsJsonObject());
-        } else {
-          return Future.failedFuture(
-            new ApiException(
-              "Failed to fetch post data",
-              response.statusCode(),
-              "POST_API_ERROR"
-            )
-          );
-        }
-      })
-      .recover(error -> {
-        System.err.println("Error fetching post data: " + error.getMessage());
-        return Future.failedFuture(error);
-      });
+  public void handle(RoutingContext context) {
+    if (enricher == null && wantsStream(context)) {
+      handleStreaming(context);
+      return;
+    }
+    if (blocking != null && blocking.usesVirtualThreads()) {
+      handleSequential(context);
+      return;
+    }
+    long start = System.nanoTime();
+    AppConfig config = engine.getConfigs().current();
+    Function<String, String> params = name -> param(context, name);
+    execute(context, config, params, start)
+      .compose(response -> enricher == null
+        ? Future.succeededFuture(response)
+        : blocking.run(() -> enricher.enrich(response, params)))
+      .onComplete(result -> latency.recordNanos(System.nanoTime() - start))
+      .onSuccess(response -> responseWriter.writeJson(context, 200, response))
+      .onFailure(context::fail);
   }
 
+  /**
+   * Same flow as {@link #handle} written as plain blocking code. Runs on a virtual
+   * thread; each await parks it and lets the verticle serve other requests.
+   */
+  private void handleSequential(RoutingContext context) {
+    long start = System.nanoTime();
+    AppConfig config = engine.getConfigs().current();
+    Function<String, String> params = name -> param(context, name);
+    try {
+      JsonObject response = Future.await(execute(context, config, params, start));
+      if (enricher != null) {
+        JsonObject aggregated = response;
+        response = Future.await(blocking.run(() -> enricher.enrich(aggregated, params)));
+      }
+      latency.recordNanos(System.nanoTime() - start);
+      responseWriter.writeJson(context, 200, response);
+    } catch (Throwable error) {
+      latency.recordNanos(System.nanoTime() - start);
+      context.fail(error);
+    }
+  }
 
-  private Future<JsonObject> fetchUserData() {
-    return apiService.fetch(config.getUsersApiUrl())
-      .compose(response -> {
-        if (response.statusCode() == 200) {
-          return Future.succeededFuture(response.bodyAsJsonObject());
-        } else {
-          return Future.failedFuture(
-            new ApiException(
-              "Failed to fetch user data",
-              response.statusCode(),
-              "USER_API_ERROR"
-            )
-          );
+  /**
+   * NDJSON mode for clients that accept {@code application/x-ndjson}: one line per
+   * upstream, written as soon as that upstream resolves (fallback values and warning
+   * if it failed), then a final {@code {"done":true}} line, which carries the error
+   * fields instead if every upstream failed. Time to first byte is the fastest
+   * upstream rather than the slowest.
+   */
+  private void handleStreaming(RoutingContext context) {
+    long start = System.nanoTime();
+    AppConfig config = engine.getConfigs().current();
+    RouteDefinition current = currentRoute(config);
+    NdjsonStream stream = new NdjsonStream(context.response());
+
+    List<Future<JsonObject>> results = start(context, config, current, name -> param(context, name), start);
+    List<UpstreamDefinition> upstreams = current.getUpstreams();
+    for (int i = 0; i < upstreams.size(); i++) {
+      UpstreamDefinition upstream = upstreams.get(i);
+      results.get(i).onComplete(result -> {
+        JsonObject line = new JsonObject().put("upstream", upstream.getName()).put("data",
+          AggregationEngine.putFields(new JsonObject(), upstream, result.succeeded() ? result.result() : null));
+        if (result.failed()) {
+          line.put("warning", upstream.getWarning());
         }
-      })
-      .recover(error -> {
-        System.err.println("Error fetching user data: " + error.getMessage());
-        return Future.failedFuture(error);
+        stream.write(line);
       });
+    }
+
+    Future.join(results).onComplete(done -> {
+      latency.recordNanos(System.nanoTime() - start);
+      JsonObject last = new JsonObject().put("done", true);
+      if (results.stream().noneMatch(Future::succeeded)) {
+        NdjsonStream.error(last, results.get(0).cause());
+      }
+      stream.write(last);
+      stream.end();
+    });
   }
 
-  private JsonObject aggregateResponse(JsonObject postData, JsonObject userData) {
-    String postTitle = postData.getString("title", "N/A");
-    String authorName = userData.getString("name", "N/A");
+  private Future<JsonObject> execute(RoutingContext context, AppConfig config, Function<String, String> params,
+                                     long start) {
+    RouteDefinition current = currentRoute(config);
+    return AggregationEngine.merge(current, start(context, config, current, params, start));
+  }
 
-    return new JsonObject()
-      .put("post_title", postTitle)
-      .put("author_name", authorName);
+  /**
+   * Starts the route's upstreams and adds each to the access log as it resolves.
+   */
+  private List<Future<JsonObject>> start(RoutingContext context, AppConfig config, RouteDefinition current,
+                                         Function<String, String> params, long start) {
+    List<Future<JsonObject>> results = engine.start(config, current, params, null);
+    if (!AccessLogHandler.isEnabled(context)) {
+      return results;
+    }
+    AccessLogHandler.recordRoute(context, route.getPath());
+    List<UpstreamDefinition> upstreams = current.getUpstreams();
+    for (int i = 0; i < upstreams.size(); i++) {
+      String name = upstreams.get(i).getName();
+      results.get(i).onComplete(result -> AccessLogHandler.recordUpstream(
+        context, name, System.nanoTime() - start, result.succeeded(), engine.breakerState(name)));
+    }
+    return results;
   }
 
-  private void handleAggregateFailure(
-    RoutingContext context,
-    Throwable error,
-    Future<JsonObject> postsFuture,
-    Future<JsonObject> usersFuture
-  ) {
-    if (postsFuture.succeeded() && usersFuture.failed()) {
-      JsonObject fallbackResponse = new JsonObject()
-        .put("post_title", postsFuture.result().getString("title", "N/A"))
-        .put("author_name", "N/A")
-        .put("warning", "User data unavailable");
-      sendSuccessResponse(context, fallbackResponse);
-    } else if (postsFuture.failed() && usersFuture.succeeded()) {
-      JsonObject fallbackResponse = new JsonObject()
-        .put("post_title", "N/A")
-        .put("author_name", usersFuture.result().getString("name", "N/A"))
-        .put("warning", "Post data unavailable");
-      sendSuccessResponse(context, fallbackResponse);
-    } else {
-      context.fail(error);
+  private boolean wantsStream(RoutingContext context) {
+    if (!engine.getConfigs().current().isResponseStreamingEnabled()) {
+      return false;
     }
+    String accept = context.request().getHeader("accept");
+    return accept != null && accept.contains(NdjsonStream.CONTENT_TYPE);
+  }
+
+  private RouteDefinition currentRoute(AppConfig config) {
+    RouteDefinition current = config.getAggregateRoute(route.getPath());
+    return current != null ? current : route;
   }
 
-  private void sendSuccessResponse(RoutingContext context, JsonObject response) {
-    context.response()
-      .setStatusCode(200)
-      .putHeader("content-type", "application/json")
-      .end(response.encodePrettily());
+  private static String param(RoutingContext context, String name) {
+    String value = context.pathParam(name);
+    return value != null ? value : context.request().getParam(name);
   }
 }
@@ -0,0 +1,167 @@
+package com.gateway.handler;
+
+import com.gateway.aggregate.AggregationEngine;
+import com.gateway.aggregate.RouteDefinition;
+import com.gateway.aggregate.RouteEnricher;
+import com.gateway.config.AppConfig;
+import com.gateway.exception.ApiException;
+import com.gateway.metrics.LatencyHistogram;
+import com.gateway.service.BlockingRunner;
+import io.vertx.core.Future;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * POST {@code <route>/batch}: runs an aggregate route once per item of a JSON array
+ * body and streams one NDJSON line per item as soon as that item completes.
+ *
+ * An item is either an object of route parameters or a scalar bound to
+ * {@code aggregate.batch.param}; parameters missing from an item fall back to the
+ * query string. All items of a batch share one upstream memo, so upstream data used
+ * by several items (e.g. the author of many posts) is fetched once. At most
+ * {@code aggregate.batch.parallelism} items run at a time, and no new item starts
+ * while the client is not reading. The batch holds its config snapshot until the
+ * response ends, so a reload does not close the upstream clients of later items.
+ */
+public class BatchAggregateHandler {
+
+  private final AggregationEngine engine;
+  private final RouteDefinition route;
+  private final LatencyHistogram latency;
+  private final RouteEnricher enricher;
+  private final BlockingRunner blocking;
+
+  public BatchAggregateHandler(AggregationEngine engine, RouteDefinition route) {
+    this(engine, route, null, null);
+  }
+
+  public BatchAggregateHandler(
+    AggregationEngine engine,
+    RouteDefinition route,
+    RouteEnricher enricher,
+    BlockingRunner blocking
+  ) {
+    this.engine = engine;
+    this.route = route;
+    this.latency = engine.getMetrics().routeLatency(path(route));
+    this.enricher = enricher;
+    this.blocking = blocking;
+  }
+
+  public static String path(RouteDefinition route) {
+    return route.getPath() + "/batch";
+  }
+
+  public void handle(RoutingContext context) {
+    AccessLogHandler.recordRoute(context, path(route));
+    AppConfig config = engine.getConfigs().acquire();
+    context.addEndHandler(done -> config.release());
+    JsonArray items;
+    try {
+      items = parseItems(context, config.getBatchMaxItems());
+    } catch (ApiException e) {
+      context.fail(e);
+      return;
+    }
+    RouteDefinition current = config.getAggregateRoute(route.getPath());
+    new Batch(context, config, current != null ? current : route, items).start();
+  }
+
+  private static JsonArray parseItems(RoutingContext context, int maxItems) {
+    JsonArray items;
+    try {
+      items = context.body().asJsonArray();
+    } catch (DecodeException | ClassCastException e) {
+      items = null;
+    }
+    if (items == null) {
+      throw new ApiException("Batch body must be a JSON array", 400, "INVALID_BATCH");
+    }
+    if (items.size() > maxItems) {
+      throw new ApiException("Batch exceeds " + maxItems + " items", 413, "BATCH_TOO_LARGE");
+    }
+    return items;
+  }
+
+  private final class Batch {
+
+    private final RoutingContext context;
+    private final NdjsonStream stream;
+    private final AppConfig config;
+    private final RouteDefinition route;
+    private final JsonArray items;
+    private final Map<String, Future<JsonObject>> memo = new HashMap<>();
+    private final long start = System.nanoTime();
+    private int next;
+    private int running;
+    private int completed;
+
+    private Batch(RoutingContext context, AppConfig config, RouteDefinition route, JsonArray items) {
+      this.context = context;
+      this.stream = new NdjsonStream(context.response());
+      this.config = config;
+      this.route = route;
+      this.items = items;
+    }
+
+    private void start() {
+      if (items.isEmpty()) {
+        finish();
+        return;
+      }
+      stream.onDrain(this::launch);
+      launch();
+    }
+
+    private void launch() {
+      while (running < config.getBatchParallelism() && next < items.size()
+        && !stream.isFull() && !stream.isClosed()) {
+        int index = next++;
+        running++;
+        execute(items.getValue(index)).onComplete(result -> {
+          running--;
+          completed++;
+          JsonObject line = new JsonObject().put("index", index);
+          stream.write(result.succeeded()
+            ? line.put("statusCode", 200).put("body", result.result())
+            : NdjsonStream.error(line, result.cause()));
+          if (completed == items.size() || (stream.isClosed() && running == 0)) {
+            finish();
+          } else {
+            launch();
+          }
+        });
+      }
+    }
+
+    private Future<JsonObject> execute(Object item) {
+      Function<String, String> params = name -> param(item, name);
+      Future<JsonObject> result = engine.execute(config, route, params, memo);
+      if (enricher == null) {
+        return result;
+      }
+      return result.compose(response -> blocking.run(() -> enricher.enrich(response, params)));
+    }
+
+    private String param(Object item, String name) {
+      Object value = null;
+      if (item instanceof JsonObject) {
+        value = ((JsonObject) item).getValue(name);
+      } else if (item != null && name.equals(config.getBatchParam())) {
+        value = item;
+      }
+      return value != null ? String.valueOf(value) : context.request().getParam(name);
+    }
+
+    private void finish() {
+      latency.recordNanos(System.nanoTime() - start);
+      stream.end();
+    }
+  }
+}
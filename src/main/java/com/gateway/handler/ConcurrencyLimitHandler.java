@@ -0,0 +1,43 @@
+package com.gateway.handler;
+
+import com.gateway.limit.AdaptiveConcurrencyLimiter;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Router-level load shedding. Requests beyond the adaptive limit are answered
+ * immediately with 503 and Retry-After instead of queueing behind the upstreams.
+ */
+public class ConcurrencyLimitHandler {
+
+  private static final Buffer OVERLOADED = new JsonObject()
+    .put("error", true)
+    .put("message", "Gateway overloaded, retry later")
+    .put("errorCode", "OVERLOADED")
+    .put("statusCode", 503)
+    .toBuffer();
+
+  private final AdaptiveConcurrencyLimiter limiter;
+  private final String retryAfterSeconds;
+
+  public ConcurrencyLimitHandler(AdaptiveConcurrencyLimiter limiter, int retryAfterSeconds) {
+    this.limiter = limiter;
+    this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+  }
+
+  public void handle(RoutingContext context) {
+    if (!limiter.tryAcquire()) {
+      context.response()
+        .setStatusCode(503)
+        .putHeader("content-type", "application/json")
+        .putHeader("retry-after", retryAfterSeconds)
+        .end(OVERLOADED);
+      return;
+    }
+
+    long start = System.nanoTime();
+    context.addEndHandler(result -> limiter.release(System.nanoTime() - start, result.failed()));
+    context.next();
+  }
+}
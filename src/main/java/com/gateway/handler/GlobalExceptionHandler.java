@@ -1,53 +1,91 @@
 package com.gateway.handler;
 
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import com.gateway.exception.ApiException;
+import com.gateway.logging.ErrorLog;
+import com.gateway.metrics.MetricsRegistry;
+import com.gateway.service.ApiService;
 
+/**
+ * Turns failures into the standard JSON error response. ApiException bodies are
+ * pre-encoded once per exception (see {@link ApiException#encodedPrefix()}), so a
+ * cached exception costs only the timestamp; errors are logged through the
+ * rate-limited {@link ErrorLog}. A route failed by upstream load shedding gets
+ * Retry-After, like a request shed by {@link ConcurrencyLimitHandler}.
+ */
 public class GlobalExceptionHandler {
+
+  private static final byte[] UNKNOWN_ERROR =
+    ApiException.encodePrefix("An unexpected error occurred", "UNKNOWN_ERROR", 500);
+  private static final byte[] PAYLOAD_TOO_LARGE =
+    ApiException.encodePrefix("Request body too large", "PAYLOAD_TOO_LARGE", 413);
+
+  private final ResponseWriter responseWriter;
+  private final MetricsRegistry metrics;
+  private final String overloadedRetryAfterSeconds;
+
+  public GlobalExceptionHandler() {
+    this(new ResponseWriter());
+  }
+
+  public GlobalExceptionHandler(ResponseWriter responseWriter) {
+    this(responseWriter, null);
+  }
+
+  public GlobalExceptionHandler(ResponseWriter responseWriter, MetricsRegistry metrics) {
+    this(responseWriter, metrics, 1);
+  }
+
+  public GlobalExceptionHandler(
+    ResponseWriter responseWriter,
+    MetricsRegistry metrics,
+    int overloadedRetryAfterSeconds
+  ) {
+    this.responseWriter = responseWriter;
+    this.metrics = metrics;
+    this.overloadedRetryAfterSeconds = String.valueOf(overloadedRetryAfterSeconds);
+  }
+
   public void handle(RoutingContext context) {
     Throwable failure = context.failure();
     int statusCode = context.statusCode();
 
     if (failure != null) {
       handleException(context, failure);
+    } else if (statusCode == 413) {
+      // Raised by the body handler when a request exceeds body.limit.bytes.
+      sendEncodedResponse(context, 413, "PAYLOAD_TOO_LARGE", PAYLOAD_TOO_LARGE);
     } else {
       handleUnknownError(context);
     }
   }
 
   private void handleException(RoutingContext context, Throwable throwable) {
-    JsonObject errorResponse;
-    int statusCode;
-
     if (throwable instanceof ApiException) {
       ApiException apiEx = (ApiException) throwable;
-      statusCode = apiEx.getStatusCode();
-      errorResponse = createErrorResponse(
-        apiEx.getMessage(),
-        apiEx.getErrorCode(),
-        statusCode
-      );
-    } else {
-      statusCode = 500;
-      errorResponse = createErrorResponse(
-        "Internal server error: " + throwable.getMessage(),
-        "INTERNAL_ERROR",
-        statusCode
-      );
+      logError(apiEx.getErrorCode(), throwable, apiEx.getStatusCode());
+      if (ApiService.isOverloaded(apiEx)) {
+        context.response().putHeader("retry-after", overloadedRetryAfterSeconds);
+      }
+      sendEncodedResponse(context, apiEx.getStatusCode(), apiEx.getErrorCode(), apiEx.encodedPrefix());
+      return;
     }
 
-    logError(throwable, statusCode);
+    int statusCode = 500;
+    JsonObject errorResponse = createErrorResponse(
+      "Internal server error: " + throwable.getMessage(),
+      "INTERNAL_ERROR",
+      statusCode
+    );
+
+    logError(throwable.getClass().getName(), throwable, statusCode);
     sendErrorResponse(context, statusCode, errorResponse);
   }
 
   private void handleUnknownError(RoutingContext context) {
-    JsonObject errorResponse = createErrorResponse(
-      "An unexpected error occurred",
-      "UNKNOWN_ERROR",
-      500
-    );
-    sendErrorResponse(context, 500, errorResponse);
+    sendEncodedResponse(context, 500, "UNKNOWN_ERROR", UNKNOWN_ERROR);
   }
 
   private JsonObject createErrorResponse(String message, String errorCode, int statusCode) {
@@ -60,16 +98,24 @@ public class GlobalExceptionHandler {
   }
 
   private void sendErrorResponse(RoutingContext context, int statusCode, JsonObject response) {
-    context.response()
-      .setStatusCode(statusCode)
-      .putHeader("content-type", "application/json")
-      .end(response.encodePrettily());
+    if (metrics != null) {
+      metrics.recordError(response.getString("errorCode"));
+    }
+    responseWriter.writeJson(context, statusCode, response);
   }
 
-  private void logError(Throwable throwable, int statusCode) {
-    System.err.println("Error occurred [" + statusCode + "]: " + throwable.getMessage());
-    if (statusCode >= 500) {
-      throwable.printStackTrace();
+  private void sendEncodedResponse(RoutingContext context, int statusCode, String errorCode, byte[] prefix) {
+    if (metrics != null) {
+      metrics.recordError(errorCode);
     }
+    Buffer body = Buffer.buffer(prefix.length + 14)
+      .appendBytes(prefix)
+      .appendString(Long.toString(System.currentTimeMillis()))
+      .appendByte((byte) '}');
+    responseWriter.writeEncoded(context, statusCode, body);
+  }
+
+  private void logError(String key, Throwable throwable, int statusCode) {
+    ErrorLog.get().error(key, "Error occurred [" + statusCode + "]", throwable, statusCode >= 500);
   }
 }
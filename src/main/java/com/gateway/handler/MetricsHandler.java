@@ -0,0 +1,23 @@
+package com.gateway.handler;
+
+import com.gateway.metrics.PrometheusExporter;
+import com.gateway.service.SharedResources;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Serves the process-wide metrics in Prometheus text format.
+ */
+public class MetricsHandler {
+
+  private final SharedResources shared;
+
+  public MetricsHandler(SharedResources shared) {
+    this.shared = shared;
+  }
+
+  public void handle(RoutingContext context) {
+    context.response()
+      .putHeader("content-type", PrometheusExporter.CONTENT_TYPE)
+      .end(PrometheusExporter.render(shared));
+  }
+}
@@ -0,0 +1,105 @@
+package com.gateway.handler;
+
+import com.gateway.exception.ApiException;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Chunked {@code application/x-ndjson} response, one JSON object per line.
+ *
+ * Honours the response's write queue: while {@code writeQueueFull()} is set, lines
+ * are held back and written from the drain handler, and producers that can wait
+ * (e.g. batch items not yet started) check {@link #isFull()} and resume from
+ * {@link #onDrain(Runnable)}. Once the client is gone every write is a no-op.
+ */
+public class NdjsonStream {
+
+  public static final String CONTENT_TYPE = "application/x-ndjson";
+
+  private final HttpServerResponse response;
+  private final Deque<Buffer> pending = new ArrayDeque<>();
+  private Runnable drainListener;
+  private boolean ending;
+
+  public NdjsonStream(HttpServerResponse response) {
+    this.response = response;
+    response.setChunked(true).putHeader("content-type", CONTENT_TYPE);
+    response.drainHandler(v -> drain());
+  }
+
+  public void write(JsonObject line) {
+    if (isClosed()) {
+      return;
+    }
+    Buffer buffer = line.toBuffer().appendByte((byte) '\n');
+    if (pending.isEmpty() && !response.writeQueueFull()) {
+      response.write(buffer);
+    } else {
+      pending.add(buffer);
+    }
+  }
+
+  /**
+   * True while the client is not keeping up; producers should stop creating lines.
+   */
+  public boolean isFull() {
+    return !pending.isEmpty() || response.writeQueueFull();
+  }
+
+  public boolean isClosed() {
+    return response.closed();
+  }
+
+  /**
+   * Called once the write queue has room again and held-back lines are written.
+   */
+  public void onDrain(Runnable listener) {
+    this.drainListener = listener;
+  }
+
+  /**
+   * Ends the response after any held-back lines.
+   */
+  public void end() {
+    ending = true;
+    if (pending.isEmpty() && !isClosed()) {
+      response.end();
+    }
+  }
+
+  private void drain() {
+    while (!pending.isEmpty() && !response.writeQueueFull() && !isClosed()) {
+      response.write(pending.poll());
+    }
+    if (!pending.isEmpty()) {
+      return;
+    }
+    if (ending) {
+      if (!isClosed()) {
+        response.end();
+      }
+    } else if (drainListener != null) {
+      drainListener.run();
+    }
+  }
+
+  /**
+   * Adds the fields of the standard error response for {@code error} to {@code line}.
+   */
+  public static JsonObject error(JsonObject line, Throwable error) {
+    line.put("error", true);
+    if (error instanceof ApiException) {
+      ApiException apiEx = (ApiException) error;
+      return line.put("message", apiEx.getMessage())
+        .put("errorCode", apiEx.getErrorCode())
+        .put("statusCode", apiEx.getStatusCode());
+    }
+    return line.put("message", "Internal server error: " + error.getMessage())
+      .put("errorCode", "INTERNAL_ERROR")
+      .put("statusCode", 500);
+  }
+}
@@ -0,0 +1,173 @@
+package com.gateway.handler;
+
+import com.gateway.config.AppConfig;
+import com.gateway.config.ConfigHolder;
+import com.gateway.config.ProxyRoute;
+import com.gateway.exception.ApiException;
+import com.gateway.logging.ErrorLog;
+import com.gateway.metrics.LatencyHistogram;
+import com.gateway.metrics.MetricsRegistry;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Forwards requests of a {@link ProxyRoute} to its upstream without buffering:
+ * the request body is piped to the upstream request and the upstream response body
+ * to the client, each with backpressure, so neither is held on the heap. Hop-by-hop
+ * headers are dropped, X-Forwarded-* added and the route's header rewrites applied.
+ *
+ * If the client goes away, the upstream request is reset. Failures before the
+ * response starts become 502 (504 on timeout); after that the client's stream is
+ * reset, since the status is already sent. Latency until the last byte is recorded
+ * under the route's path. The path stays the one mounted at startup; the URL and
+ * header rewrites follow reloads. The config snapshot is held until the exchange
+ * ends, so a reload does not close the upstream client under a long stream.
+ */
+public class ProxyHandler {
+
+  private static final Set<String> HOP_BY_HOP = Set.of(
+    "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "proxy-connection",
+    "te", "trailer", "transfer-encoding", "upgrade");
+  private static final ApiException BAD_GATEWAY =
+    ApiException.stackless("Proxied upstream unavailable", 502, "PROXY_UPSTREAM_ERROR");
+  private static final ApiException GATEWAY_TIMEOUT =
+    ApiException.stackless("Proxied upstream timed out", 504, "PROXY_TIMEOUT");
+
+  private final ConfigHolder configs;
+  private final ProxyRoute route;
+  private final LatencyHistogram latency;
+
+  public ProxyHandler(ConfigHolder configs, ProxyRoute route, MetricsRegistry metrics) {
+    this.configs = configs;
+    this.route = route;
+    this.latency = metrics.routeLatency(route.getPath());
+  }
+
+  public ProxyRoute getRoute() {
+    return route;
+  }
+
+  public void handle(RoutingContext context) {
+    long start = System.nanoTime();
+    AppConfig config = configs.acquire();
+    context.addEndHandler(done -> config.release());
+    ProxyRoute current = config.getProxyRoutes().getOrDefault(route.getName(), route);
+    HttpServerRequest request = context.request();
+    request.pause();
+    AccessLogHandler.recordRoute(context, route.getPath());
+
+    RequestOptions options = new RequestOptions()
+      .setMethod(request.method())
+      .setAbsoluteURI(current.target(route.getPath(), request.uri()))
+      .setIdleTimeout(config.getHttpTimeout());
+    config.getUpstreamClients().get(route.getName()).getHttpClient().request(options)
+      .onSuccess(upstreamRequest -> forward(context, current, upstreamRequest, start))
+      .onFailure(error -> fail(context, null, error, start));
+  }
+
+  private void forward(RoutingContext context, ProxyRoute current, HttpClientRequest upstreamRequest, long start) {
+    HttpServerRequest request = context.request();
+    HttpServerResponse response = context.response();
+
+    copyHeaders(request.headers(), upstreamRequest.headers());
+    upstreamRequest.headers().remove(HttpHeaders.HOST);
+    String forwardedFor = request.getHeader("x-forwarded-for");
+    String client = request.remoteAddress() == null ? "unknown" : request.remoteAddress().host();
+    upstreamRequest.putHeader("x-forwarded-for", forwardedFor == null ? client : forwardedFor + ", " + client);
+    upstreamRequest.putHeader("x-forwarded-proto", request.scheme() == null ? "http" : request.scheme());
+    if (request.authority() != null) {
+      upstreamRequest.putHeader("x-forwarded-host", request.authority().toString());
+    }
+    rewrite(current.getRequestHeaders(), upstreamRequest.headers());
+
+    response.closeHandler(v -> upstreamRequest.reset());
+    (request.isEnded() ? upstreamRequest.send() : upstreamRequest.send(request))
+      .onSuccess(upstreamResponse -> respond(context, current, upstreamRequest, upstreamResponse, start))
+      .onFailure(error -> fail(context, upstreamRequest, error, start));
+  }
+
+  private void respond(
+    RoutingContext context,
+    ProxyRoute current,
+    HttpClientRequest upstreamRequest,
+    HttpClientResponse upstreamResponse,
+    long start
+  ) {
+    HttpServerResponse response = context.response();
+    if (response.closed()) {
+      upstreamRequest.reset();
+      return;
+    }
+    AccessLogHandler.recordUpstream(context, route.getName(), System.nanoTime() - start, true, null);
+
+    response.setStatusCode(upstreamResponse.statusCode());
+    copyHeaders(upstreamResponse.headers(), response.headers());
+    rewrite(current.getResponseHeaders(), response.headers());
+    if (!response.headers().contains(HttpHeaders.CONTENT_LENGTH) && hasBody(context, upstreamResponse)) {
+      response.setChunked(true);
+    }
+
+    upstreamResponse.pipe()
+      .endOnFailure(false)
+      .to(response)
+      .onComplete(done -> {
+        latency.recordNanos(System.nanoTime() - start);
+        if (done.failed()) {
+          upstreamRequest.reset();
+          response.reset();
+        }
+      });
+  }
+
+  private void fail(RoutingContext context, HttpClientRequest upstreamRequest, Throwable error, long start) {
+    latency.recordNanos(System.nanoTime() - start);
+    AccessLogHandler.recordUpstream(context, route.getName(), System.nanoTime() - start, false, null);
+    if (upstreamRequest != null) {
+      upstreamRequest.reset();
+    }
+    if (context.response().closed()) {
+      return;
+    }
+    ApiException failure = error instanceof TimeoutException ? GATEWAY_TIMEOUT : BAD_GATEWAY;
+    ErrorLog.get().error(failure.getErrorCode(), "Error proxying " + route.getName(), error, false);
+    if (context.response().headWritten()) {
+      context.response().reset();
+    } else {
+      context.fail(failure);
+    }
+  }
+
+  private static boolean hasBody(RoutingContext context, HttpClientResponse upstreamResponse) {
+    int status = upstreamResponse.statusCode();
+    return context.request().method() != HttpMethod.HEAD && status != 204 && status != 304 && status >= 200;
+  }
+
+  private static void copyHeaders(MultiMap from, MultiMap to) {
+    for (Map.Entry<String, String> header : from) {
+      if (!HOP_BY_HOP.contains(header.getKey().toLowerCase())) {
+        to.add(header.getKey(), header.getValue());
+      }
+    }
+  }
+
+  private static void rewrite(Map<String, String> rewrites, MultiMap headers) {
+    for (Map.Entry<String, String> header : rewrites.entrySet()) {
+      if (header.getValue() == null) {
+        headers.remove(header.getKey());
+      } else {
+        headers.set(header.getKey(), header.getValue());
+      }
+    }
+  }
+}
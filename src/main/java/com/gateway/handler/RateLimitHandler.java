@@ -0,0 +1,88 @@
+package com.gateway.handler;
+
+import com.gateway.limit.RateLimiter;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client and global request rate limits. The client key is the API key header
+ * when present, otherwise the remote IP. A request must pass the client's limit and
+ * then the global one; a request the global limit rejects does not count against
+ * its client. Rejected requests get 429 with Retry-After, and every response
+ * carries RateLimit-Limit/RateLimit-Remaining for the client's limit.
+ */
+public class RateLimitHandler {
+
+  private static final Buffer RATE_LIMITED = new JsonObject()
+    .put("error", true)
+    .put("message", "Rate limit exceeded, retry later")
+    .put("errorCode", "RATE_LIMITED")
+    .put("statusCode", 429)
+    .toBuffer();
+
+  private final RateLimiter perKey;
+  private final RateLimiter global;
+  private final String keyHeader;
+  private final String limit;
+
+  /**
+   * @param global limit across all clients, or null for none
+   */
+  public RateLimitHandler(RateLimiter perKey, RateLimiter global, String keyHeader) {
+    this.perKey = perKey;
+    this.global = global;
+    this.keyHeader = keyHeader;
+    this.limit = String.valueOf(perKey.getBurst());
+  }
+
+  public void handle(RoutingContext context) {
+    String key = clientKey(context.request());
+    long now = System.nanoTime();
+
+    long result = perKey.tryAcquire(key, now);
+    if (!RateLimiter.isAdmitted(result)) {
+      reject(context, -result);
+      return;
+    }
+    if (global != null) {
+      long globalResult = global.tryAcquire("", now);
+      if (!RateLimiter.isAdmitted(globalResult)) {
+        perKey.release(key);
+        reject(context, -globalResult);
+        return;
+      }
+    }
+
+    context.response()
+      .putHeader("ratelimit-limit", limit)
+      .putHeader("ratelimit-remaining", String.valueOf(result));
+    context.next();
+  }
+
+  private String clientKey(HttpServerRequest request) {
+    String apiKey = keyHeader == null ? null : request.getHeader(keyHeader);
+    if (apiKey != null && !apiKey.isEmpty()) {
+      return "key:" + apiKey;
+    }
+    return request.remoteAddress() == null ? "ip:unknown" : "ip:" + request.remoteAddress().host();
+  }
+
+  private void reject(RoutingContext context, long waitNanos) {
+    String retryAfter = String.valueOf(Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)
+      / TimeUnit.SECONDS.toNanos(1)));
+    HttpServerResponse response = context.response();
+    response
+      .setStatusCode(429)
+      .putHeader("content-type", "application/json")
+      .putHeader("retry-after", retryAfter)
+      .putHeader("ratelimit-limit", limit)
+      .putHeader("ratelimit-remaining", "0")
+      .putHeader("ratelimit-reset", retryAfter)
+      .end(RATE_LIMITED);
+  }
+}
@@ -0,0 +1,157 @@
+package com.gateway.handler;
+
+import com.gateway.config.AppConfig;
+import com.gateway.json.JsonEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.zip.CRC32C;
+
+/**
+ * Serializes JSON responses. Bodies are written compactly into pooled buffers that
+ * are released once the write completes; pretty output is only produced when the
+ * debug query flag (e.g. ?pretty=true) is present. Bodies smaller than the
+ * compression threshold are marked identity so the server compressor skips them.
+ *
+ * With ETags enabled, 200 responses to GET/HEAD carry a weak ETag computed from the
+ * encoded body, and a request whose If-None-Match matches it gets an empty 304.
+ * The body is still built and encoded to compute the tag; the 304 saves the
+ * transfer and the compression.
+ */
+public class ResponseWriter {
+
+  private static final ByteBufAllocator ALLOCATOR = PooledByteBufAllocator.DEFAULT;
+
+  private final String prettyParam;
+  private final int compressionThreshold;
+  private final boolean etagEnabled;
+
+  public ResponseWriter() {
+    this("pretty", 1024);
+  }
+
+  public ResponseWriter(AppConfig config) {
+    this(
+      config.getResponsePrettyParam(),
+      config.isCompressionEnabled() ? config.getCompressionThreshold() : 0,
+      config.isEtagEnabled()
+    );
+  }
+
+  public ResponseWriter(String prettyParam, int compressionThreshold) {
+    this(prettyParam, compressionThreshold, false);
+  }
+
+  public ResponseWriter(String prettyParam, int compressionThreshold, boolean etagEnabled) {
+    this.prettyParam = prettyParam;
+    this.compressionThreshold = compressionThreshold;
+    this.etagEnabled = etagEnabled;
+  }
+
+  public void writeJson(RoutingContext context, int statusCode, JsonObject body) {
+    HttpServerResponse response = context.response()
+      .setStatusCode(statusCode)
+      .putHeader("content-type", "application/json");
+
+    if (isPretty(context)) {
+      Buffer pretty = Buffer.buffer(body.encodePrettily());
+      skipCompressionIfSmall(response, pretty.length());
+      response.end(pretty);
+      return;
+    }
+
+    ByteBuf encoded = JsonEncoder.encode(body, ALLOCATOR);
+    try {
+      if (usesEtag(context, statusCode)) {
+        String etag = etag(encoded);
+        response.putHeader(HttpHeaders.ETAG, etag);
+        if (matches(context.request().getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+          encoded.release();
+          response.setStatusCode(304).end();
+          return;
+        }
+      }
+      skipCompressionIfSmall(response, encoded.readableBytes());
+      response.end(wrap(encoded)).onComplete(result -> encoded.release());
+    } catch (RuntimeException e) {
+      encoded.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Writes a body that is already compact JSON, e.g. a pre-encoded error response.
+   * With the debug flag it is decoded and written pretty instead.
+   */
+  public void writeEncoded(RoutingContext context, int statusCode, Buffer body) {
+    if (isPretty(context)) {
+      writeJson(context, statusCode, body.toJsonObject());
+      return;
+    }
+    HttpServerResponse response = context.response()
+      .setStatusCode(statusCode)
+      .putHeader("content-type", "application/json");
+    skipCompressionIfSmall(response, body.length());
+    response.end(body);
+  }
+
+  // Buffer.buffer(ByteBuf) has no public replacement in Vert.x 4; the alternative copies the body.
+  @SuppressWarnings("deprecation")
+  private static Buffer wrap(ByteBuf encoded) {
+    return Buffer.buffer(encoded);
+  }
+
+  private boolean usesEtag(RoutingContext context, int statusCode) {
+    if (!etagEnabled || statusCode != 200) {
+      return false;
+    }
+    HttpMethod method = context.request().method();
+    return method == HttpMethod.GET || method == HttpMethod.HEAD;
+  }
+
+  static String etag(ByteBuf encoded) {
+    CRC32C crc = new CRC32C();
+    crc.update(encoded.nioBuffer());
+    return "W/\"" + Integer.toHexString(encoded.readableBytes()) + "-" + Long.toHexString(crc.getValue()) + "\"";
+  }
+
+  /**
+   * Weak comparison against an If-None-Match list, as required for GET.
+   */
+  static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    String opaque = etag.substring(2);
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.equals("*") || tag.equals(opaque)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isPretty(RoutingContext context) {
+    if (prettyParam == null || prettyParam.isEmpty()) {
+      return false;
+    }
+    return "true".equalsIgnoreCase(context.request().getParam(prettyParam));
+  }
+
+  private void skipCompressionIfSmall(HttpServerResponse response, int length) {
+    if (length < compressionThreshold) {
+      response.putHeader(HttpHeaders.CONTENT_ENCODING, HttpHeaders.IDENTITY);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.gateway.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Writes compact JSON straight into a Netty buffer without going through a String.
+ * The output matches {@link JsonObject#encode()}. The caller owns the returned
+ * buffer and must release it.
+ */
+public final class JsonEncoder {
+
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  private JsonEncoder() {
+  }
+
+  public static ByteBuf encode(JsonObject json, ByteBufAllocator allocator) {
+    ByteBuf buf = allocator.buffer(256);
+    OutputStream out = new ByteBufOutputStream(buf);
+    try (JsonGenerator generator = FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+      write(generator, json);
+    } catch (IOException | RuntimeException e) {
+      buf.release();
+      throw new EncodeException("Failed to encode as JSON: " + e.getMessage(), e);
+    }
+    return buf;
+  }
+
+  private static void write(JsonGenerator generator, Object value) throws IOException {
+    if (value == null) {
+      generator.writeNull();
+    } else if (value instanceof JsonObject) {
+      generator.writeStartObject();
+      for (Map.Entry<String, Object> entry : (JsonObject) value) {
+        generator.writeFieldName(entry.getKey());
+        write(generator, entry.getValue());
+      }
+      generator.writeEndObject();
+    } else if (value instanceof JsonArray) {
+      generator.writeStartArray();
+      for (Object element : (JsonArray) value) {
+        write(generator, element);
+      }
+      generator.writeEndArray();
+    } else if (value instanceof CharSequence) {
+      generator.writeString(value.toString());
+    } else if (value instanceof Integer) {
+      generator.writeNumber((Integer) value);
+    } else if (value instanceof Long) {
+      generator.writeNumber((Long) value);
+    } else if (value instanceof Double) {
+      generator.writeNumber((Double) value);
+    } else if (value instanceof Number) {
+      generator.writeNumber(value.toString());
+    } else if (value instanceof Boolean) {
+      generator.writeBoolean((Boolean) value);
+    } else {
+      // Instants, binary values, enums and the like: exactly what JsonObject.encode() writes.
+      generator.writeRawValue(Json.encode(value));
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package com.gateway.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Pulls a fixed set of dotted paths (e.g. "title", "address.city") out of a JSON
+ * object with the Jackson streaming parser, reading straight from the buffer's
+ * backing memory. Subtrees that cannot contain a requested path are skipped and
+ * parsing stops as soon as every path has been found.
+ *
+ * The result is keyed by path. Instances are immutable and thread-safe.
+ */
+public final class JsonProjection {
+
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  private final List<String> paths;
+  private final Set<String> targets;
+  private final Set<String> prefixes;
+
+  private JsonProjection(List<String> paths) {
+    this.paths = paths;
+    this.targets = new HashSet<>(paths);
+    this.prefixes = new HashSet<>();
+    for (String path : paths) {
+      int dot = path.indexOf('.');
+      while (dot > 0) {
+        prefixes.add(path.substring(0, dot));
+        dot = path.indexOf('.', dot + 1);
+      }
+    }
+  }
+
+  public static JsonProjection of(String... paths) {
+    return new JsonProjection(List.of(paths));
+  }
+
+  public List<String> paths() {
+    return paths;
+  }
+
+  public JsonObject extract(Buffer body) {
+    JsonObject result = new JsonObject();
+    if (body == null || body.length() == 0) {
+      return result;
+    }
+
+    try (JsonParser parser = createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new DecodeException("Expected a JSON object");
+      }
+      readObject(parser, null, result);
+    } catch (IOException e) {
+      throw new DecodeException("Failed to decode: " + e.getMessage(), e);
+    }
+    return result;
+  }
+
+  private boolean readObject(JsonParser parser, String prefix, JsonObject result) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.currentName();
+      String path = prefix == null ? name : prefix + '.' + name;
+      JsonToken value = parser.nextToken();
+
+      if (targets.contains(path)) {
+        Object read = readValue(parser, value);
+        result.put(path, read);
+        if (read instanceof JsonObject && prefixes.contains(path)) {
+          // Also requested below this path (e.g. "address" and "address.city").
+          putNested(path, (JsonObject) read, result);
+        }
+        if (result.size() == targets.size()) {
+          return true;
+        }
+      } else if (value == JsonToken.START_OBJECT && prefixes.contains(path)) {
+        if (readObject(parser, path, result)) {
+          return true;
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return false;
+  }
+
+  private void putNested(String prefix, JsonObject object, JsonObject result) {
+    for (String target : targets) {
+      if (!target.startsWith(prefix + '.')) {
+        continue;
+      }
+      JsonObject current = object;
+      String[] names = target.substring(prefix.length() + 1).split("\\.");
+      for (int i = 0; current != null && i < names.length - 1; i++) {
+        Object child = current.getValue(names[i]);
+        current = child instanceof JsonObject ? (JsonObject) child : null;
+      }
+      if (current != null && current.containsKey(names[names.length - 1])) {
+        result.put(target, current.getValue(names[names.length - 1]));
+      }
+    }
+  }
+
+  private static Object readValue(JsonParser parser, JsonToken token) throws IOException {
+    switch (token) {
+      case START_OBJECT:
+        JsonObject object = new JsonObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String name = parser.currentName();
+          object.put(name, readValue(parser, parser.nextToken()));
+        }
+        return object;
+      case START_ARRAY:
+        JsonArray array = new JsonArray();
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+          array.add(readValue(parser, element));
+        }
+        return array;
+      case VALUE_STRING:
+        return parser.getText();
+      case VALUE_NUMBER_INT:
+      case VALUE_NUMBER_FLOAT:
+        return parser.getNumberValue();
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      default:
+        return null;
+    }
+  }
+
+  // Buffer.getByteBuf has no public replacement in Vert.x 4; the alternative copies the body.
+  @SuppressWarnings("deprecation")
+  private static JsonParser createParser(Buffer body) throws IOException {
+    ByteBuf buf = body.getByteBuf();
+    if (buf.hasArray()) {
+      return FACTORY.createParser(buf.array(), buf.arrayOffset() + buf.readerIndex(), buf.readableBytes());
+    }
+    return FACTORY.createParser((InputStream) new ByteBufInputStream(buf));
+  }
+}
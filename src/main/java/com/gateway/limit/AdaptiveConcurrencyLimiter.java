@@ -0,0 +1,107 @@
+package com.gateway.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Vegas-style adaptive concurrency limit. Each completed call reports its round-trip
+ * time; the estimated queue (limit * (1 - minRtt / rtt)) grows the limit while it is
+ * short and shrinks it once latency shows requests are queueing. The minimum RTT is
+ * re-probed periodically so the baseline can follow a slower or faster upstream.
+ *
+ * Thread-safe: acquiring is a CAS on the in-flight count and limit updates are
+ * serialized on the limiter.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private static final int PROBE_INTERVAL = 1000;
+
+  private final String name;
+  private final int minLimit;
+  private final int maxLimit;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder rejected = new LongAdder();
+  private volatile int limit;
+
+  private double estimatedLimit;
+  private long minRttNanos = Long.MAX_VALUE;
+  private int samplesSinceProbe;
+
+  public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+    this.name = name;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    this.limit = (int) estimatedLimit;
+  }
+
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        rejected.increment();
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Releases a permit and feeds the call's round-trip time into the limit.
+   * A dropped call (timeout, connection failure) always shrinks the limit.
+   */
+  public void release(long rttNanos, boolean dropped) {
+    int inFlightBeforeRelease = inFlight.getAndDecrement();
+    update(rttNanos, inFlightBeforeRelease, dropped);
+  }
+
+  private synchronized void update(long rttNanos, int inFlightAtSample, boolean dropped) {
+    if (++samplesSinceProbe >= PROBE_INTERVAL) {
+      samplesSinceProbe = 0;
+      minRttNanos = rttNanos;
+    }
+    if (rttNanos > 0 && rttNanos < minRttNanos) {
+      minRttNanos = rttNanos;
+    }
+
+    double current = estimatedLimit;
+    double step = Math.max(1, Math.log10(current));
+    double next;
+
+    if (dropped) {
+      next = current - step;
+    } else if (inFlightAtSample * 2 < current || rttNanos <= 0) {
+      return;
+    } else {
+      double queue = current * (1 - (double) minRttNanos / rttNanos);
+      if (queue < 3 * step) {
+        next = current + step;
+      } else if (queue > 6 * step) {
+        next = current - step;
+      } else {
+        return;
+      }
+    }
+
+    estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+    limit = (int) estimatedLimit;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  public long getRejected() {
+    return rejected.sum();
+  }
+}
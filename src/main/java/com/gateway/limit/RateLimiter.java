@@ -0,0 +1,138 @@
+package com.gateway.limit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keyed rate limiter using the generic cell rate algorithm (GCRA): each key keeps
+ * only its theoretical arrival time, so admitting a request is one CAS on that key's
+ * cell. Equivalent to a token bucket of {@code burst} tokens refilled at
+ * {@code ratePerSecond}.
+ *
+ * Thread-safe and lock-free. The cells live in a concurrent map, so one instance can
+ * be shared by every verticle instance and event loop. Memory is bounded: keys whose
+ * bucket has refilled are swept once per {@code sweepIntervalNanos} by whichever
+ * request comes first, and while {@code maxKeys} are tracked new keys are spread by
+ * hash over a fixed set of overflow cells, so a client rotating keys only throttles
+ * the newcomers that land on the same cells instead of all of them.
+ */
+public class RateLimiter {
+
+  static final int OVERFLOW_STRIPES = 64;
+
+  private final String name;
+  private final int burst;
+  private final long emissionNanos;
+  private final long toleranceNanos;
+  private final int maxKeys;
+  private final long sweepIntervalNanos;
+  private final ConcurrentMap<String, AtomicLong> cells = new ConcurrentHashMap<>();
+  private final AtomicLong[] overflow = new AtomicLong[OVERFLOW_STRIPES];
+  private final AtomicLong nextSweep = new AtomicLong();
+  private final LongAdder rejected = new LongAdder();
+
+  public RateLimiter(String name, double ratePerSecond, int burst, int maxKeys, long sweepIntervalNanos) {
+    if (ratePerSecond <= 0 || burst <= 0) {
+      throw new IllegalArgumentException("Rate limiter " + name + " needs a positive rate and burst");
+    }
+    this.name = name;
+    this.burst = burst;
+    this.emissionNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+    this.toleranceNanos = emissionNanos * burst;
+    this.maxKeys = maxKeys;
+    this.sweepIntervalNanos = sweepIntervalNanos;
+    long now = System.nanoTime();
+    this.nextSweep.set(now + sweepIntervalNanos);
+    for (int i = 0; i < OVERFLOW_STRIPES; i++) {
+      overflow[i] = new AtomicLong(now);
+    }
+  }
+
+  /**
+   * Takes one request for {@code key}.
+   *
+   * @return when admitted, the requests still available to the key right now (0 or
+   *         more); when rejected, minus the nanoseconds until the next one would be
+   *         admitted (always negative)
+   */
+  public long tryAcquire(String key, long nowNanos) {
+    if (nowNanos - nextSweep.get() >= 0) {
+      sweep(nowNanos);
+    }
+    AtomicLong cell = cell(key, nowNanos);
+    while (true) {
+      long tat = cell.get();
+      long newTat = Math.max(tat, nowNanos) + emissionNanos;
+      long debt = newTat - nowNanos;
+      if (debt > toleranceNanos) {
+        rejected.increment();
+        return -Math.max(1, debt - toleranceNanos);
+      }
+      if (cell.compareAndSet(tat, newTat)) {
+        return (toleranceNanos - debt) / emissionNanos;
+      }
+    }
+  }
+
+  /**
+   * Gives back a request taken by {@link #tryAcquire}, e.g. when a later limit
+   * rejected it.
+   */
+  public void release(String key) {
+    AtomicLong cell = cells.get(key);
+    if (cell == null) {
+      cell = overflowCell(key);
+    }
+    cell.addAndGet(-emissionNanos);
+  }
+
+  private AtomicLong cell(String key, long nowNanos) {
+    AtomicLong cell = cells.get(key);
+    if (cell != null) {
+      return cell;
+    }
+    if (cells.size() >= maxKeys) {
+      return overflowCell(key);
+    }
+    return cells.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+  }
+
+  private AtomicLong overflowCell(String key) {
+    int hash = key.hashCode();
+    return overflow[(hash ^ (hash >>> 16)) & (OVERFLOW_STRIPES - 1)];
+  }
+
+  /**
+   * Drops keys whose bucket is full again: forgetting them changes nothing. A request
+   * racing with the removal of its key may be admitted against a fresh cell.
+   */
+  private void sweep(long nowNanos) {
+    long scheduled = nextSweep.get();
+    if (!nextSweep.compareAndSet(scheduled, nowNanos + sweepIntervalNanos)) {
+      return;
+    }
+    cells.values().removeIf(cell -> cell.get() - nowNanos <= 0);
+  }
+
+  public static boolean isAdmitted(long result) {
+    return result >= 0;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getBurst() {
+    return burst;
+  }
+
+  public int getTrackedKeys() {
+    return cells.size();
+  }
+
+  public long getRejected() {
+    return rejected.sum();
+  }
+}
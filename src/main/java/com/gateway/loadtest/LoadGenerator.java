@@ -0,0 +1,113 @@
+package com.gateway.loadtest;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+
+/**
+ * Open-loop load generator: requests are scheduled at a fixed rate regardless of
+ * how fast responses come back, and latency is measured from each request's
+ * scheduled send time, which corrects for coordinated omission.
+ *
+ * All bookkeeping runs on one event loop context.
+ */
+public class LoadGenerator {
+
+  private static final long TICK_MS = 1;
+
+  private final Vertx vertx;
+  private final HttpClient client;
+  private final String uri;
+  private final int ratePerSecond;
+  private final long totalRequests;
+  private final long timeoutMs;
+
+  private LoadReport report;
+  private Promise<LoadReport> done;
+  private long start;
+  private long sent;
+  private long completed;
+
+  public LoadGenerator(Vertx vertx, HttpClient client, String uri, int ratePerSecond, long durationMs, long timeoutMs) {
+    this.vertx = vertx;
+    this.client = client;
+    this.uri = uri;
+    this.ratePerSecond = ratePerSecond;
+    this.totalRequests = ratePerSecond * durationMs / 1000;
+    this.timeoutMs = timeoutMs;
+  }
+
+  public Future<LoadReport> run() {
+    Context context = vertx.getOrCreateContext();
+    done = Promise.promise();
+    context.runOnContext(v -> {
+      report = new LoadReport(ratePerSecond);
+      start = System.nanoTime();
+      if (totalRequests == 0) {
+        done.complete(report);
+        return;
+      }
+      vertx.setPeriodic(TICK_MS, this::tick);
+    });
+    return done.future();
+  }
+
+  private void tick(long timerId) {
+    long elapsed = System.nanoTime() - start;
+    long due = Math.min(totalRequests, elapsed * ratePerSecond / 1_000_000_000L + 1);
+    while (sent < due) {
+      long intended = start + sent * 1_000_000_000L / ratePerSecond;
+      sent++;
+      send(intended);
+    }
+    if (sent >= totalRequests) {
+      vertx.cancelTimer(timerId);
+    }
+  }
+
+  private void send(long intended) {
+    long written = System.nanoTime();
+    client.request(new RequestOptions()
+        .setMethod(HttpMethod.GET)
+        .setURI(uri)
+        .setIdleTimeout(timeoutMs))
+      .compose(request -> request.send())
+      .compose(response -> response.body().map(body -> classify(response, body)))
+      .onComplete(result -> {
+        long now = System.nanoTime();
+        report.corrected.recordNanos(now - intended);
+        report.service.recordNanos(now - written);
+        if (result.failed()) {
+          report.failures++;
+        }
+        if (++completed == totalRequests) {
+          report.finish(now - start);
+          done.complete(report);
+        }
+      });
+  }
+
+  private Void classify(HttpClientResponse response, Buffer body) {
+    int status = response.statusCode();
+    if (status == 200) {
+      if (body.toString().contains("\"warning\"")) {
+        report.fallback++;
+      } else {
+        report.ok++;
+      }
+    } else if (status == 503 && body.toString().contains("\"OVERLOADED\"")) {
+      report.shed++;
+    } else if (status >= 500) {
+      report.serverErrors++;
+    } else {
+      report.otherStatus++;
+    }
+    return null;
+  }
+}
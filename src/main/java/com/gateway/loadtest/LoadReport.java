@@ -0,0 +1,100 @@
+package com.gateway.loadtest;
+
+import com.gateway.metrics.LatencyHistogram;
+import io.vertx.core.json.JsonObject;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Outcome of one open-loop run. "corrected" latencies are measured from the time a
+ * request was scheduled to be sent, so queueing inside the generator or the gateway
+ * is not hidden (coordinated omission); "service" latencies are measured from the
+ * time it was actually written.
+ */
+public class LoadReport {
+
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999, 1.0};
+
+  final LatencyHistogram corrected = new LatencyHistogram();
+  final LatencyHistogram service = new LatencyHistogram();
+  long ok;
+  long fallback;
+  long shed;
+  long serverErrors;
+  long otherStatus;
+  long failures;
+  private final int targetRate;
+  private long elapsedNanos;
+
+  LoadReport(int targetRate) {
+    this.targetRate = targetRate;
+  }
+
+  void finish(long elapsedNanos) {
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  public long getRequests() {
+    return ok + fallback + shed + serverErrors + otherStatus + failures;
+  }
+
+  public double getAchievedRate() {
+    return elapsedNanos == 0 ? 0 : getRequests() * 1e9 / elapsedNanos;
+  }
+
+  public LatencyHistogram getCorrected() {
+    return corrected;
+  }
+
+  public LatencyHistogram getService() {
+    return service;
+  }
+
+  public JsonObject toJson() {
+    return new JsonObject()
+      .put("targetRate", targetRate)
+      .put("achievedRate", getAchievedRate())
+      .put("requests", getRequests())
+      .put("ok", ok)
+      .put("fallback", fallback)
+      .put("shed", shed)
+      .put("serverErrors", serverErrors)
+      .put("otherStatus", otherStatus)
+      .put("failures", failures)
+      .put("correctedMs", quantiles(corrected))
+      .put("serviceMs", quantiles(service));
+  }
+
+  public String format() {
+    StringBuilder out = new StringBuilder();
+    out.append(String.format(Locale.ROOT, "target %d req/s, achieved %.1f req/s, %d requests%n",
+      targetRate, getAchievedRate(), getRequests()));
+    out.append(String.format(Locale.ROOT,
+      "ok %d, fallback %d, shed %d, 5xx %d, other status %d, failed %d%n",
+      ok, fallback, shed, serverErrors, otherStatus, failures));
+    out.append(String.format(Locale.ROOT, "%-10s %12s %12s%n", "quantile", "corrected ms", "service ms"));
+    for (double quantile : QUANTILES) {
+      out.append(String.format(Locale.ROOT, "%-10s %12.2f %12.2f%n",
+        label(quantile),
+        corrected.quantileMicros(quantile) / 1000.0,
+        service.quantileMicros(quantile) / 1000.0));
+    }
+    return out.toString();
+  }
+
+  private static JsonObject quantiles(LatencyHistogram histogram) {
+    JsonObject json = new JsonObject();
+    for (double quantile : QUANTILES) {
+      json.put(label(quantile), histogram.quantileMicros(quantile) / 1000.0);
+    }
+    return json;
+  }
+
+  private static String label(double quantile) {
+    if (quantile == 1.0) {
+      return "max";
+    }
+    return "p" + BigDecimal.valueOf(quantile * 100).stripTrailingZeros().toPlainString();
+  }
+}
@@ -0,0 +1,134 @@
+package com.gateway.loadtest;
+
+import com.gateway.ApiGatewayVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the gateway against a local {@link StubUpstreamVerticle} and drives it with
+ * the open-loop {@link LoadGenerator}. Stub, gateway and generator each get their
+ * own Vertx so they do not share event loops.
+ *
+ * Arguments are key=value pairs:
+ * - rate, duration.seconds, connections, timeout.ms, path: generator settings
+ * - stub.*: stub profile, e.g. stub.latency.distribution=lognormal,
+ *   stub.users.error.rate=0.3, stub.posts.drip.chunk.bytes=16
+ * - gateway.*: gateway config overrides, e.g. gateway.http.timeout=500
+ *
+ * mvn compile exec:java -Dexec.mainClass=com.gateway.loadtest.LoadTestRunner
+ *   -Dexec.args="rate=1000 duration.seconds=30 stub.latency.distribution=lognormal"
+ */
+public class LoadTestRunner {
+
+  private static final int GATEWAY_PORT = 18180;
+  private static final int UPSTREAM_PORT = 18181;
+
+  public static void main(String[] args) throws Exception {
+    JsonObject settings = new JsonObject();
+    JsonObject stub = new JsonObject();
+    JsonObject gateway = new JsonObject();
+    for (String arg : args) {
+      int eq = arg.indexOf('=');
+      if (eq <= 0) {
+        throw new IllegalArgumentException("Expected key=value, got " + arg);
+      }
+      String key = arg.substring(0, eq);
+      Object value = parseValue(arg.substring(eq + 1));
+      if (key.startsWith("stub.")) {
+        putStub(stub, key.substring("stub.".length()), value);
+      } else if (key.startsWith("gateway.")) {
+        gateway.put(key.substring("gateway.".length()), value);
+      } else {
+        settings.put(key, value);
+      }
+    }
+
+    int rate = settings.getInteger("rate", 500);
+    long durationMs = settings.getLong("duration.seconds", 30L) * 1000;
+    int connections = settings.getInteger("connections", 256);
+    long timeoutMs = settings.getLong("timeout.ms", 5000L);
+    String path = settings.getString("path", "/aggregate");
+
+    String upstream = "http://localhost:" + UPSTREAM_PORT;
+    JsonObject gatewayConfig = new JsonObject()
+      .put("server.port", GATEWAY_PORT)
+      .put("verticle.instances", 1)
+      .put("api.posts.url", upstream + "/posts/1")
+      .put("api.users.url", upstream + "/users/1")
+      .mergeIn(gateway);
+
+    Vertx stubVertx = Vertx.vertx();
+    Vertx gatewayVertx = Vertx.vertx();
+    Vertx driver = Vertx.vertx();
+    try {
+      await(stubVertx.deployVerticle(new StubUpstreamVerticle(UPSTREAM_PORT, stub)));
+      await(gatewayVertx.deployVerticle(ApiGatewayVerticle::new, new DeploymentOptions()
+        .setInstances(gatewayConfig.getInteger("verticle.instances"))
+        .setConfig(gatewayConfig)));
+
+      HttpClient client = driver.createHttpClient(new HttpClientOptions()
+        .setDefaultPort(GATEWAY_PORT)
+        .setMaxPoolSize(connections)
+        .setKeepAlive(true));
+
+      System.out.println("stub: " + stub.encode());
+      System.out.println("gateway: " + gateway.encode());
+      LoadReport report = await(new LoadGenerator(driver, client, path, rate, durationMs, timeoutMs).run());
+      System.out.print(report.format());
+      System.out.println(report.toJson().encode());
+
+      String metrics = await(client.request(HttpMethod.GET, "/metrics")
+        .compose(request -> request.send())
+        .compose(response -> response.body())).toString();
+      metrics.lines()
+        .filter(line -> line.startsWith("gateway_circuit_breaker") || line.startsWith("gateway_errors_total")
+          || line.startsWith("gateway_upstream_retr"))
+        .forEach(System.out::println);
+    } finally {
+      await(driver.close());
+      await(gatewayVertx.close());
+      await(stubVertx.close());
+    }
+  }
+
+  private static void putStub(JsonObject stub, String key, Object value) {
+    for (String endpoint : new String[] {"posts", "users"}) {
+      if (key.startsWith(endpoint + ".")) {
+        JsonObject overrides = stub.getJsonObject(endpoint);
+        if (overrides == null) {
+          overrides = new JsonObject();
+          stub.put(endpoint, overrides);
+        }
+        overrides.put(key.substring(endpoint.length() + 1), value);
+        return;
+      }
+    }
+    stub.put(key, value);
+  }
+
+  private static Object parseValue(String raw) {
+    if ("true".equals(raw) || "false".equals(raw)) {
+      return Boolean.parseBoolean(raw);
+    }
+    try {
+      return Long.parseLong(raw);
+    } catch (NumberFormatException notLong) {
+      try {
+        return Double.parseDouble(raw);
+      } catch (NumberFormatException notDouble) {
+        return raw;
+      }
+    }
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.MINUTES);
+  }
+}
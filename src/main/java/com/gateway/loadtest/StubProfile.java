@@ -0,0 +1,104 @@
+package com.gateway.loadtest;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Behaviour of one stub upstream endpoint: response latency distribution, injected
+ * error and hang rates, body size, and optional slow-drip delivery of the body.
+ *
+ * Latency distributions: "fixed" (latency.ms), "uniform" (latency.min.ms to
+ * latency.max.ms) and "lognormal" (latency.median.ms and latency.p99.ms).
+ */
+public class StubProfile {
+
+  private static final double Z_99 = 2.3263;
+
+  private final String distribution;
+  private final double latencyMs;
+  private final double latencyMinMs;
+  private final double latencyMaxMs;
+  private final double latencyMedianMs;
+  private final double latencySigma;
+  private final double errorRate;
+  private final int errorStatus;
+  private final double hangRate;
+  private final int payloadBytes;
+  private final int dripChunkBytes;
+  private final long dripIntervalMs;
+
+  public StubProfile(JsonObject json) {
+    this.distribution = json.getString("latency.distribution", "fixed");
+    this.latencyMs = json.getDouble("latency.ms", 0.0);
+    this.latencyMinMs = json.getDouble("latency.min.ms", 0.0);
+    this.latencyMaxMs = json.getDouble("latency.max.ms", latencyMinMs);
+    this.latencyMedianMs = json.getDouble("latency.median.ms", 10.0);
+    double p99 = json.getDouble("latency.p99.ms", latencyMedianMs * 5);
+    this.latencySigma = Math.log(Math.max(p99, latencyMedianMs) / latencyMedianMs) / Z_99;
+    this.errorRate = json.getDouble("error.rate", 0.0);
+    this.errorStatus = json.getInteger("error.status", 503);
+    this.hangRate = json.getDouble("hang.rate", 0.0);
+    this.payloadBytes = json.getInteger("payload.bytes", 0);
+    this.dripChunkBytes = json.getInteger("drip.chunk.bytes", 0);
+    this.dripIntervalMs = json.getLong("drip.interval.ms", 10L);
+
+    if (!"fixed".equals(distribution) && !"uniform".equals(distribution) && !"lognormal".equals(distribution)) {
+      throw new IllegalArgumentException("Unknown latency.distribution: " + distribution);
+    }
+  }
+
+  public static StubProfile defaults() {
+    return new StubProfile(new JsonObject());
+  }
+
+  /**
+   * Settings under the given key override the shared ones, e.g. "posts" or "users".
+   */
+  public static StubProfile forEndpoint(JsonObject config, String endpoint) {
+    JsonObject merged = config.copy();
+    merged.remove("posts");
+    merged.remove("users");
+    return new StubProfile(merged.mergeIn(config.getJsonObject(endpoint, new JsonObject())));
+  }
+
+  public long sampleLatencyMs() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    switch (distribution) {
+      case "uniform":
+        return Math.round(latencyMinMs + random.nextDouble() * (latencyMaxMs - latencyMinMs));
+      case "lognormal":
+        return Math.round(latencyMedianMs * Math.exp(latencySigma * random.nextGaussian()));
+      default:
+        return Math.round(latencyMs);
+    }
+  }
+
+  public boolean sampleError() {
+    return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+  }
+
+  public boolean sampleHang() {
+    return hangRate > 0 && ThreadLocalRandom.current().nextDouble() < hangRate;
+  }
+
+  public int getErrorStatus() {
+    return errorStatus;
+  }
+
+  public int getPayloadBytes() {
+    return payloadBytes;
+  }
+
+  public boolean isDrip() {
+    return dripChunkBytes > 0;
+  }
+
+  public int getDripChunkBytes() {
+    return dripChunkBytes;
+  }
+
+  public long getDripIntervalMs() {
+    return dripIntervalMs;
+  }
+}
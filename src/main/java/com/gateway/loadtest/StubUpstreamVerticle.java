@@ -0,0 +1,110 @@
+package com.gateway.loadtest;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * In-process stand-in for jsonplaceholder serving /posts/:id and /users/:id, used
+ * by tests, benchmarks and the load test. Latency, errors, hangs, body size and
+ * slow-drip bodies are injected per {@link StubProfile}; the deployment config may
+ * hold shared settings plus "posts"/"users" overrides, and "port".
+ */
+public class StubUpstreamVerticle extends AbstractVerticle {
+
+  private final int port;
+  private final JsonObject profiles;
+
+  public StubUpstreamVerticle(int port) {
+    this(port, new JsonObject());
+  }
+
+  public StubUpstreamVerticle(int port, JsonObject profiles) {
+    this.port = port;
+    this.profiles = profiles;
+  }
+
+  @Override
+  public void start(Promise<Void> startPromise) {
+    JsonObject settings = profiles.copy().mergeIn(config());
+    StubProfile postProfile = StubProfile.forEndpoint(settings, "posts");
+    StubProfile userProfile = StubProfile.forEndpoint(settings, "users");
+
+    Buffer post = pad(new JsonObject()
+      .put("userId", 1)
+      .put("id", 1)
+      .put("title", "stub post title")
+      .put("body", "stub post body"), postProfile.getPayloadBytes());
+    Buffer user = pad(new JsonObject()
+      .put("id", 1)
+      .put("name", "Stub Author")
+      .put("username", "stub")
+      .put("email", "stub@example.com"), userProfile.getPayloadBytes());
+
+    Router router = Router.router(vertx);
+    router.get("/posts/:id").handler(ctx -> respond(ctx, postProfile, post));
+    router.get("/users/:id").handler(ctx -> respond(ctx, userProfile, user));
+
+    vertx.createHttpServer()
+      .requestHandler(router)
+      .listen(settings.getInteger("port", port))
+      .<Void>mapEmpty()
+      .onComplete(startPromise);
+  }
+
+  private void respond(RoutingContext ctx, StubProfile profile, Buffer body) {
+    if (profile.sampleHang()) {
+      return;
+    }
+    long delayMs = profile.sampleLatencyMs();
+    if (delayMs <= 0) {
+      send(ctx, profile, body);
+    } else {
+      vertx.setTimer(delayMs, id -> send(ctx, profile, body));
+    }
+  }
+
+  private void send(RoutingContext ctx, StubProfile profile, Buffer body) {
+    HttpServerResponse response = ctx.response();
+    if (response.closed()) {
+      return;
+    }
+    if (profile.sampleError()) {
+      response.setStatusCode(profile.getErrorStatus()).end();
+      return;
+    }
+
+    response.putHeader("content-type", "application/json");
+    if (!profile.isDrip()) {
+      response.end(body);
+      return;
+    }
+    response.setChunked(true);
+    drip(response, body, 0, profile);
+  }
+
+  private void drip(HttpServerResponse response, Buffer body, int offset, StubProfile profile) {
+    if (response.closed()) {
+      return;
+    }
+    int end = Math.min(body.length(), offset + profile.getDripChunkBytes());
+    if (end >= body.length()) {
+      response.end(body.slice(offset, end));
+      return;
+    }
+    response.write(body.slice(offset, end));
+    vertx.setTimer(profile.getDripIntervalMs(), id -> drip(response, body, end, profile));
+  }
+
+  private static Buffer pad(JsonObject json, int targetBytes) {
+    int missing = targetBytes - json.toBuffer().length() - ",\"padding\":\"\"".length();
+    if (missing > 0) {
+      json.put("padding", "x".repeat(missing));
+    }
+    return json.toBuffer();
+  }
+}
@@ -0,0 +1,173 @@
+package com.gateway.logging;
+
+import io.vertx.core.json.JsonObject;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured log written off the calling thread. Each event is a JSON object, written
+ * as one line by a single background thread. Events are handed over through a
+ * bounded lock-free ring: a producer claims a slot with one CAS and never waits, and
+ * when the ring is full the event is dropped and counted, so a slow stdout can never
+ * stall an event loop. Encoding, including stack traces, happens on the writer.
+ *
+ * Every event gets {@code ts} (epoch millis) and {@code level}; the process-wide
+ * instance writes to stdout and drains what is left on JVM shutdown.
+ */
+public class AsyncLog {
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+  private static final AsyncLog DEFAULT = new AsyncLog(null, 16384);
+
+  static {
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> DEFAULT.close(1000), "gateway-log-shutdown"));
+  }
+
+  private final PrintStream out;
+  private final int mask;
+  private final AtomicReferenceArray<Entry> slots;
+  private final AtomicLong tail = new AtomicLong();
+  private volatile long head;
+  private volatile boolean closing;
+  private final Thread writer;
+  private final LongAdder written = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+
+  /**
+   * @param out      where lines are written, or null for the current {@code System.out}
+   * @param capacity events the ring holds, rounded up to a power of two
+   */
+  public AsyncLog(PrintStream out, int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    this.out = out;
+    this.mask = size - 1;
+    this.slots = new AtomicReferenceArray<>(size);
+    this.writer = new Thread(this::drain, "gateway-log-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  public static AsyncLog get() {
+    return DEFAULT;
+  }
+
+  public void info(String message) {
+    log("INFO", new JsonObject().put("msg", message), null);
+  }
+
+  public void error(String message, Throwable error) {
+    JsonObject event = new JsonObject().put("msg", message);
+    if (error != null) {
+      event.put("error", String.valueOf(error.getMessage()));
+    }
+    log("ERROR", event, error);
+  }
+
+  /**
+   * Queues {@code event} with its level and timestamp. The event must not be
+   * modified afterwards.
+   *
+   * @param stack when set, its stack trace is added as {@code stack}
+   * @return false if the ring was full and the event was dropped
+   */
+  public boolean log(String level, JsonObject event, Throwable stack) {
+    Entry entry = new Entry(System.currentTimeMillis(), level, event, stack);
+    while (true) {
+      long slot = tail.get();
+      if (slot - head > mask) {
+        dropped.increment();
+        return false;
+      }
+      if (tail.compareAndSet(slot, slot + 1)) {
+        slots.lazySet((int) slot & mask, entry);
+        return true;
+      }
+    }
+  }
+
+  private void drain() {
+    while (true) {
+      long slot = head;
+      int index = (int) slot & mask;
+      Entry entry = slots.get(index);
+      if (entry == null) {
+        // Empty, or a producer has claimed the slot and is about to publish it.
+        if (closing && tail.get() == slot) {
+          return;
+        }
+        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        continue;
+      }
+      slots.lazySet(index, null);
+      head = slot + 1;
+      write(entry);
+    }
+  }
+
+  private void write(Entry entry) {
+    JsonObject line = new JsonObject().put("ts", entry.timestamp).put("level", entry.level);
+    line.mergeIn(entry.event);
+    if (entry.stack != null) {
+      StringWriter stack = new StringWriter();
+      entry.stack.printStackTrace(new PrintWriter(stack));
+      line.put("stack", stack.toString());
+    }
+    try {
+      (out != null ? out : System.out).println(line.encode());
+    } catch (RuntimeException e) {
+      // An event that cannot be encoded is lost, not the writer.
+      dropped.increment();
+      return;
+    }
+    written.increment();
+  }
+
+  /**
+   * Lets the writer finish what is queued and exit, waiting up to {@code timeoutMs}
+   * for it. Events logged afterwards are accepted but never written.
+   */
+  public void close(long timeoutMs) {
+    closing = true;
+    LockSupport.unpark(writer);
+    try {
+      writer.join(timeoutMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Events written so far.
+   */
+  public long getWritten() {
+    return written.sum();
+  }
+
+  /**
+   * Events lost because the ring was full (or could not be encoded).
+   */
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  private static final class Entry {
+    final long timestamp;
+    final String level;
+    final JsonObject event;
+    final Throwable stack;
+
+    Entry(long timestamp, String level, JsonObject event, Throwable stack) {
+      this.timestamp = timestamp;
+      this.level = level;
+      this.event = event;
+      this.stack = stack;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package com.gateway.logging;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Error log that stays cheap while an upstream is down. Lines are rate-limited per
+ * key (an error code, say): at most {@code linesPerInterval} per interval, and the
+ * number of lines skipped is reported with the key's next line as
+ * {@code suppressed}. Admitted lines go to an {@link AsyncLog}, and a stack trace is
+ * only attached to the first line of a key in each interval.
+ */
+public class ErrorLog {
+
+  private static final int MAX_KEYS = 1024;
+  private static final String OVERFLOW_KEY = "other";
+  private static final ErrorLog DEFAULT = new ErrorLog(AsyncLog.get(), 5, TimeUnit.SECONDS.toNanos(10));
+
+  private final AsyncLog sink;
+  private final int linesPerInterval;
+  private final long intervalNanos;
+  private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+  private final LongAdder suppressed = new LongAdder();
+
+  public ErrorLog(AsyncLog sink, int linesPerInterval, long intervalNanos) {
+    this.sink = sink;
+    this.linesPerInterval = linesPerInterval;
+    this.intervalNanos = intervalNanos;
+  }
+
+  /**
+   * The process-wide error log, writing to {@link AsyncLog#get()}.
+   */
+  public static ErrorLog get() {
+    return DEFAULT;
+  }
+
+  /**
+   * Logs {@code message} with the error's message, when {@code error} is set.
+   *
+   * @param withStack attach the error's stack trace, if this is the key's first line
+   *                  of the interval
+   */
+  public void error(String key, String message, Throwable error, boolean withStack) {
+    Window window = window(key);
+    long now = System.nanoTime();
+    long start = window.start.get();
+    if (now - start >= intervalNanos && window.start.compareAndSet(start, now)) {
+      window.count.set(0);
+    }
+    int count = window.count.incrementAndGet();
+    if (count > linesPerInterval) {
+      window.skipped.incrementAndGet();
+      suppressed.increment();
+      return;
+    }
+
+    JsonObject event = new JsonObject().put("type", "error").put("key", key).put("msg", message);
+    if (error != null) {
+      event.put("error", String.valueOf(error.getMessage()));
+    }
+    long skipped = window.skipped.getAndSet(0);
+    if (skipped > 0) {
+      event.put("suppressed", skipped);
+    }
+    sink.log("ERROR", event, withStack && count == 1 ? error : null);
+  }
+
+  private Window window(String key) {
+    Window window = windows.get(key);
+    if (window != null) {
+      return window;
+    }
+    if (windows.size() >= MAX_KEYS) {
+      key = OVERFLOW_KEY;
+    }
+    return windows.computeIfAbsent(key, k -> new Window(System.nanoTime()));
+  }
+
+  /**
+   * Lines skipped by the per-key rate limit.
+   */
+  public long getSuppressed() {
+    return suppressed.sum();
+  }
+
+  private static final class Window {
+    final AtomicLong start;
+    final AtomicInteger count = new AtomicInteger();
+    final AtomicLong skipped = new AtomicLong();
+
+    Window(long start) {
+      this.start = new AtomicLong(start);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.gateway.metrics;
+
+import io.vertx.core.Vertx;
+
+/**
+ * Measures how late a periodic timer fires on the current event loop; the delay
+ * beyond the interval is time the loop spent busy with other work.
+ */
+public class EventLoopLagProbe {
+
+  private final Vertx vertx;
+  private final long intervalNanos;
+  private final LatencyHistogram histogram;
+  private long timerId = -1;
+  private long lastTick;
+
+  public EventLoopLagProbe(Vertx vertx, long intervalMs, LatencyHistogram histogram) {
+    this.vertx = vertx;
+    this.intervalNanos = intervalMs * 1_000_000L;
+    this.histogram = histogram;
+  }
+
+  public void start() {
+    lastTick = System.nanoTime();
+    timerId = vertx.setPeriodic(intervalNanos / 1_000_000L, id -> tick());
+  }
+
+  public void stop() {
+    if (timerId >= 0) {
+      vertx.cancelTimer(timerId);
+      timerId = -1;
+    }
+  }
+
+  private void tick() {
+    long now = System.nanoTime();
+    histogram.recordNanos(Math.max(0, now - lastTick - intervalNanos));
+    lastTick = now;
+  }
+}
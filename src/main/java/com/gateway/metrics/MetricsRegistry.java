@@ -0,0 +1,78 @@
+package com.gateway.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide metrics. Histograms and counters are created on first use and then
+ * only looked up, so recording on the request path does not allocate; callers on
+ * hot paths keep the returned instance instead of looking it up per request.
+ */
+public class MetricsRegistry {
+
+  private final ConcurrentMap<String, LatencyHistogram> routeLatency = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LatencyHistogram> upstreamLatency = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> upstreamErrors = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> breakerTransitions = new ConcurrentHashMap<>();
+  private final LatencyHistogram eventLoopLag = new LatencyHistogram();
+
+  public LatencyHistogram routeLatency(String route) {
+    return routeLatency.computeIfAbsent(route, key -> new LatencyHistogram());
+  }
+
+  public LatencyHistogram upstreamLatency(String upstream) {
+    return upstreamLatency.computeIfAbsent(upstream, key -> new LatencyHistogram());
+  }
+
+  public LatencyHistogram eventLoopLag() {
+    return eventLoopLag;
+  }
+
+  /**
+   * Counts an error response sent to a client.
+   */
+  public void recordError(String errorCode) {
+    errors.computeIfAbsent(errorCode, key -> new LongAdder()).increment();
+  }
+
+  /**
+   * Counts a failed upstream fetch, whether or not it failed the client's request.
+   */
+  public void recordUpstreamError(String upstream, String errorCode) {
+    upstreamErrors
+      .computeIfAbsent(upstream, key -> new ConcurrentHashMap<>())
+      .computeIfAbsent(errorCode, key -> new LongAdder())
+      .increment();
+  }
+
+  public void recordBreakerTransition(String breaker, String state) {
+    breakerTransitions
+      .computeIfAbsent(breaker, key -> new ConcurrentHashMap<>())
+      .computeIfAbsent(state, key -> new LongAdder())
+      .increment();
+  }
+
+  public Map<String, LatencyHistogram> routeLatencies() {
+    return Collections.unmodifiableMap(routeLatency);
+  }
+
+  public Map<String, LatencyHistogram> upstreamLatencies() {
+    return Collections.unmodifiableMap(upstreamLatency);
+  }
+
+  public Map<String, LongAdder> errors() {
+    return Collections.unmodifiableMap(errors);
+  }
+
+  public Map<String, ConcurrentMap<String, LongAdder>> upstreamErrors() {
+    return Collections.unmodifiableMap(upstreamErrors);
+  }
+
+  public Map<String, ConcurrentMap<String, LongAdder>> breakerTransitions() {
+    return Collections.unmodifiableMap(breakerTransitions);
+  }
+}
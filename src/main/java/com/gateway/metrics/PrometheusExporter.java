@@ -0,0 +1,248 @@
+package com.gateway.metrics;
+
+import com.gateway.cache.CacheStats;
+import com.gateway.limit.AdaptiveConcurrencyLimiter;
+import com.gateway.limit.RateLimiter;
+import com.gateway.logging.AsyncLog;
+import com.gateway.logging.ErrorLog;
+import com.gateway.service.CoalescingStats;
+import com.gateway.service.HedgeStats;
+import com.gateway.service.RetryStats;
+import com.gateway.service.PoolStats;
+import com.gateway.service.SharedResources;
+import io.vertx.circuitbreaker.CircuitBreaker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Renders the process-wide metrics in the Prometheus text exposition format.
+ * Latency histograms are exported as Prometheus histograms over fixed second
+ * buckets, so they can be aggregated across instances and queried with
+ * histogram_quantile.
+ */
+public final class PrometheusExporter {
+
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private static final String[] BUCKETS_SECONDS = {
+    "0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10"
+  };
+  private static final long[] BUCKETS_MICROS = new long[BUCKETS_SECONDS.length];
+
+  static {
+    for (int i = 0; i < BUCKETS_SECONDS.length; i++) {
+      BUCKETS_MICROS[i] = Math.round(Double.parseDouble(BUCKETS_SECONDS[i]) * 1_000_000);
+    }
+  }
+
+  private PrometheusExporter() {
+  }
+
+  public static String render(SharedResources shared) {
+    MetricsRegistry metrics = shared.metrics();
+    StringBuilder out = new StringBuilder(4096);
+
+    header(out, "gateway_route_latency_seconds", "histogram", "Aggregate route latency");
+    for (Map.Entry<String, LatencyHistogram> entry : metrics.routeLatencies().entrySet()) {
+      histogram(out, "gateway_route_latency_seconds", "route", entry.getKey(), entry.getValue());
+    }
+
+    header(out, "gateway_upstream_latency_seconds", "histogram", "Upstream request latency");
+    for (Map.Entry<String, LatencyHistogram> entry : metrics.upstreamLatencies().entrySet()) {
+      histogram(out, "gateway_upstream_latency_seconds", "upstream", entry.getKey(), entry.getValue());
+    }
+
+    header(out, "gateway_event_loop_lag_seconds", "histogram", "Delay of event loop timers beyond their interval");
+    histogram(out, "gateway_event_loop_lag_seconds", null, null, metrics.eventLoopLag());
+
+    header(out, "gateway_errors_total", "counter", "Error responses by error code");
+    for (Map.Entry<String, LongAdder> entry : metrics.errors().entrySet()) {
+      sample(out, "gateway_errors_total", "code", entry.getKey(), entry.getValue().sum());
+    }
+
+    header(out, "gateway_upstream_errors_total", "counter", "Failed upstream fetches by error code");
+    for (Map.Entry<String, ConcurrentMap<String, LongAdder>> upstream : metrics.upstreamErrors().entrySet()) {
+      for (Map.Entry<String, LongAdder> code : upstream.getValue().entrySet()) {
+        out.append("gateway_upstream_errors_total{upstream=\"").append(escape(upstream.getKey()))
+          .append("\",code=\"").append(escape(code.getKey())).append("\"} ")
+          .append(code.getValue().sum()).append('\n');
+      }
+    }
+
+    header(out, "gateway_circuit_breaker_state", "gauge", "Circuit breaker state: 0 closed, 1 half-open, 2 open");
+    for (CircuitBreaker breaker : shared.breakers()) {
+      sample(out, "gateway_circuit_breaker_state", "breaker", breaker.name(), stateValue(breaker));
+    }
+
+    header(out, "gateway_circuit_breaker_transitions_total", "counter", "Circuit breaker state transitions");
+    for (Map.Entry<String, ConcurrentMap<String, LongAdder>> breaker : metrics.breakerTransitions().entrySet()) {
+      for (Map.Entry<String, LongAdder> state : breaker.getValue().entrySet()) {
+        out.append("gateway_circuit_breaker_transitions_total{breaker=\"").append(escape(breaker.getKey()))
+          .append("\",state=\"").append(state.getKey()).append("\"} ")
+          .append(state.getValue().sum()).append('\n');
+      }
+    }
+
+    Map<String, PoolStats> pools = shared.poolStats();
+    header(out, "gateway_upstream_pool_capacity", "gauge", "Requests an upstream pool carries without queueing");
+    for (Map.Entry<String, PoolStats> entry : pools.entrySet()) {
+      sample(out, "gateway_upstream_pool_capacity", "client", entry.getKey(), entry.getValue().getCapacity());
+    }
+    header(out, "gateway_upstream_pool_open_connections", "gauge", "Open upstream connections");
+    for (Map.Entry<String, PoolStats> entry : pools.entrySet()) {
+      sample(out, "gateway_upstream_pool_open_connections", "client", entry.getKey(),
+        entry.getValue().getOpenConnections());
+    }
+    header(out, "gateway_upstream_pool_in_flight", "gauge", "Upstream requests in flight");
+    for (Map.Entry<String, PoolStats> entry : pools.entrySet()) {
+      sample(out, "gateway_upstream_pool_in_flight", "client", entry.getKey(), entry.getValue().getInFlight());
+    }
+    header(out, "gateway_upstream_pool_utilization", "gauge", "In-flight upstream requests over pool capacity");
+    for (Map.Entry<String, PoolStats> entry : pools.entrySet()) {
+      sample(out, "gateway_upstream_pool_utilization", "client", entry.getKey(), entry.getValue().getUtilization());
+    }
+    header(out, "gateway_upstream_pool_requests_total", "counter", "Upstream requests sent");
+    for (Map.Entry<String, PoolStats> entry : pools.entrySet()) {
+      sample(out, "gateway_upstream_pool_requests_total", "client", entry.getKey(), entry.getValue().getRequests());
+    }
+
+    header(out, "gateway_concurrency_limit", "gauge", "Current adaptive concurrency limit");
+    for (AdaptiveConcurrencyLimiter limiter : shared.concurrencyLimiters()) {
+      sample(out, "gateway_concurrency_limit", "limiter", limiter.getName(), limiter.getLimit());
+    }
+    header(out, "gateway_concurrency_in_flight", "gauge", "Requests admitted by the limiter and in flight");
+    for (AdaptiveConcurrencyLimiter limiter : shared.concurrencyLimiters()) {
+      sample(out, "gateway_concurrency_in_flight", "limiter", limiter.getName(), limiter.getInFlight());
+    }
+    header(out, "gateway_concurrency_rejected_total", "counter", "Requests rejected by the limiter");
+    for (AdaptiveConcurrencyLimiter limiter : shared.concurrencyLimiters()) {
+      sample(out, "gateway_concurrency_rejected_total", "limiter", limiter.getName(), limiter.getRejected());
+    }
+
+    header(out, "gateway_rate_limited_total", "counter", "Requests rejected by the rate limiter");
+    for (RateLimiter limiter : shared.rateLimiters()) {
+      sample(out, "gateway_rate_limited_total", "limiter", limiter.getName(), limiter.getRejected());
+    }
+    header(out, "gateway_rate_limit_keys", "gauge", "Client keys tracked by the rate limiter");
+    for (RateLimiter limiter : shared.rateLimiters()) {
+      sample(out, "gateway_rate_limit_keys", "limiter", limiter.getName(), limiter.getTrackedKeys());
+    }
+
+    CacheStats cache = shared.cacheStats();
+    header(out, "gateway_cache_requests_total", "counter", "Response cache lookups by result");
+    sample(out, "gateway_cache_requests_total", "result", "hit", cache.getHits());
+    sample(out, "gateway_cache_requests_total", "result", "stale", cache.getStaleHits());
+    sample(out, "gateway_cache_requests_total", "result", "miss", cache.getMisses());
+    header(out, "gateway_cache_revalidated_total", "counter", "Cache misses answered 304 by the upstream");
+    sample(out, "gateway_cache_revalidated_total", null, null, cache.getRevalidated());
+    header(out, "gateway_cache_shared_hits_total", "counter", "Local cache misses served from the shared tier");
+    sample(out, "gateway_cache_shared_hits_total", null, null, cache.getSharedHits());
+    header(out, "gateway_cache_invalidations_total", "counter", "Local cache entries dropped by invalidation");
+    sample(out, "gateway_cache_invalidations_total", null, null, cache.getInvalidations());
+    header(out, "gateway_cache_evictions_total", "counter", "Response cache evictions");
+    sample(out, "gateway_cache_evictions_total", null, null, cache.getEvictions());
+
+    CoalescingStats coalescing = shared.coalescingStats();
+    header(out, "gateway_coalesce_requests_total", "counter", "Upstream GETs by coalescing outcome");
+    sample(out, "gateway_coalesce_requests_total", "result", "leader", coalescing.getLeaders());
+    sample(out, "gateway_coalesce_requests_total", "result", "coalesced", coalescing.getCoalesced());
+    sample(out, "gateway_coalesce_requests_total", "result", "rejected", coalescing.getJoinsRejected());
+
+    header(out, "gateway_hedge_requests_total", "counter", "Hedged upstream requests by outcome");
+    for (Map.Entry<String, HedgeStats> entry : shared.hedgeStats().entrySet()) {
+      HedgeStats hedge = entry.getValue();
+      hedgeSample(out, entry.getKey(), "sent", hedge.getSent());
+      hedgeSample(out, entry.getKey(), "won", hedge.getWon());
+      hedgeSample(out, entry.getKey(), "budget_denied", hedge.getBudgetDenied());
+    }
+
+    header(out, "gateway_upstream_retries_total", "counter", "Upstream retries sent");
+    for (Map.Entry<String, RetryStats> entry : shared.retryStats().entrySet()) {
+      upstreamSample(out, "gateway_upstream_retries_total", entry.getKey(), null, entry.getValue().getRetries());
+    }
+    header(out, "gateway_upstream_retry_calls_total", "counter", "Retried upstream calls by outcome");
+    for (Map.Entry<String, RetryStats> entry : shared.retryStats().entrySet()) {
+      RetryStats retry = entry.getValue();
+      upstreamSample(out, "gateway_upstream_retry_calls_total", entry.getKey(), "recovered", retry.getRecovered());
+      upstreamSample(out, "gateway_upstream_retry_calls_total", entry.getKey(), "exhausted", retry.getExhausted());
+      upstreamSample(out, "gateway_upstream_retry_calls_total", entry.getKey(), "budget_denied",
+        retry.getBudgetDenied());
+    }
+
+    header(out, "gateway_log_events_total", "counter", "Log events by outcome");
+    sample(out, "gateway_log_events_total", "result", "written", AsyncLog.get().getWritten());
+    sample(out, "gateway_log_events_total", "result", "dropped", AsyncLog.get().getDropped());
+    sample(out, "gateway_log_events_total", "result", "suppressed", ErrorLog.get().getSuppressed());
+
+    return out.toString();
+  }
+
+  private static void header(StringBuilder out, String name, String type, String help) {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void histogram(StringBuilder out, String name, String label, String value,
+                                LatencyHistogram histogram) {
+    String labels = label == null ? "" : label + "=\"" + escape(value) + "\",";
+    long[] cumulative = histogram.cumulativeCounts(BUCKETS_MICROS);
+    for (int i = 0; i < BUCKETS_SECONDS.length; i++) {
+      out.append(name).append("_bucket{").append(labels).append("le=\"").append(BUCKETS_SECONDS[i]).append("\"} ")
+        .append(cumulative[i]).append('\n');
+    }
+    long count = cumulative[BUCKETS_SECONDS.length];
+    out.append(name).append("_bucket{").append(labels).append("le=\"+Inf\"} ").append(count).append('\n');
+    String suffix = label == null ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+    out.append(name).append("_sum").append(suffix).append(' ')
+      .append(seconds(histogram.getSumMicros())).append('\n');
+    out.append(name).append("_count").append(suffix).append(' ').append(count).append('\n');
+  }
+
+  private static void sample(StringBuilder out, String name, String label, String value, double sample) {
+    out.append(name);
+    if (label != null) {
+      out.append('{').append(label).append("=\"").append(escape(value)).append("\"}");
+    }
+    out.append(' ');
+    if (sample == Math.rint(sample) && !Double.isInfinite(sample)) {
+      out.append((long) sample);
+    } else {
+      out.append(sample);
+    }
+    out.append('\n');
+  }
+
+  private static void hedgeSample(StringBuilder out, String upstream, String result, long value) {
+    out.append("gateway_hedge_requests_total{upstream=\"").append(escape(upstream))
+      .append("\",result=\"").append(result).append("\"} ").append(value).append('\n');
+  }
+
+  private static void upstreamSample(StringBuilder out, String name, String upstream, String result, long value) {
+    out.append(name).append("{upstream=\"").append(escape(upstream));
+    if (result != null) {
+      out.append("\",result=\"").append(result);
+    }
+    out.append("\"} ").append(value).append('\n');
+  }
+
+  private static int stateValue(CircuitBreaker breaker) {
+    switch (breaker.state()) {
+      case OPEN:
+        return 2;
+      case HALF_OPEN:
+        return 1;
+      default:
+        return 0;
+    }
+  }
+
+  private static double seconds(long micros) {
+    return micros / 1_000_000.0;
+  }
+
+  static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
@@ -1,21 +1,273 @@
 package com.gateway.service;
 
+import com.gateway.cache.ResponseCache;
+import com.gateway.cache.SharedCache;
+import com.gateway.config.AppConfig;
+import com.gateway.config.ConfigHolder;
+import com.gateway.exception.ApiException;
+import com.gateway.limit.AdaptiveConcurrencyLimiter;
+import com.gateway.metrics.LatencyHistogram;
 import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.core.buffer.Buffer;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 public class ApiService {
 
+  public static final String DEFAULT_UPSTREAM = "default";
+  public static final ApiException UPSTREAM_OVERLOADED =
+    ApiException.stackless("Upstream concurrency limit reached", 503, "UPSTREAM_OVERLOADED");
+
+  private final Vertx vertx;
   private final WebClient webClient;
+  private final ConfigHolder configs;
+  private final ResponseCache cache;
+  private final SharedCache sharedCache;
+  private final SingleFlight<HttpResponse<Buffer>> singleFlight;
+  private final SharedResources shared;
+  private final Map<String, AdaptiveConcurrencyLimiter> limiters = new HashMap<>();
+  private final Map<String, HedgePolicy> hedgePolicies = new HashMap<>();
+  private final Map<String, RetryPolicy> retryPolicies = new HashMap<>();
+  private final Map<String, LatencyHistogram> latencies = new HashMap<>();
+  private AppConfig policyConfig;
 
   public ApiService(WebClient webClient) {
+    this.vertx = null;
     this.webClient = webClient;
+    this.configs = null;
+    this.cache = null;
+    this.sharedCache = null;
+    this.singleFlight = null;
+    this.shared = null;
+  }
+
+  public ApiService(Vertx vertx, AppConfig config) {
+    this(vertx, new ConfigHolder(config));
+  }
+
+  /**
+   * Cache and coalescing settings are taken from the snapshot current at
+   * construction; clients, limits, retries and hedging follow the snapshot of each call.
+   * With the cache enabled, URLs published on cache.invalidation.address are dropped
+   * from this instance's cache.
+   */
+  public ApiService(Vertx vertx, ConfigHolder configs) {
+    AppConfig config = configs.current();
+    this.vertx = vertx;
+    this.webClient = null;
+    this.configs = configs;
+    this.shared = SharedResources.get(vertx);
+    this.sharedCache = config.isCacheEnabled() && config.isCacheSharedEnabled()
+      ? shared.sharedCache(config.getCacheSharedMap())
+      : null;
+    this.cache = config.isCacheEnabled()
+      ? new ResponseCache(
+          config.getCacheMaxEntries(),
+          config.getCacheDefaultTtlMs(),
+          config.getCacheStaleMs(),
+          config.getCacheNegativeTtlMs(),
+          sharedCache,
+          shared.cacheStats(),
+          System::currentTimeMillis)
+      : null;
+    if (cache != null) {
+      vertx.eventBus().<String>consumer(config.getCacheInvalidationAddress(),
+        message -> cache.invalidate(message.body()));
+    }
+    this.singleFlight = config.isCoalesceEnabled()
+      ? new SingleFlight<>(
+          config.getCoalesceMaxJoinMs(),
+          config.getCoalesceMaxWaiters(),
+          shared.coalescingStats())
+      : null;
   }
 
   public Future<HttpResponse<Buffer>> fetch(String url) {
-    return webClient
-      .getAbs(url)
-      .send();
+    return fetch(DEFAULT_UPSTREAM, url);
+  }
+
+  public Future<HttpResponse<Buffer>> fetch(String upstream, String url) {
+    return fetch(configs == null ? null : configs.current(), upstream, url);
+  }
+
+  /**
+   * Drops a URL from the shared cache tier, then publishes it on
+   * cache.invalidation.address so every instance, on every node, drops its local copy.
+   */
+  public Future<Void> invalidate(String url) {
+    AppConfig config = configs.current();
+    Future<Void> removed = sharedCache == null ? Future.succeededFuture() : sharedCache.remove(url).otherwiseEmpty();
+    return removed.onComplete(v -> vertx.eventBus().publish(config.getCacheInvalidationAddress(), url));
+  }
+
+  /**
+   * Fetches with the given configuration snapshot, so every call made for one
+   * request uses the same settings even if the configuration is reloaded meanwhile.
+   */
+  public Future<HttpResponse<Buffer>> fetch(AppConfig config, String upstream, String url) {
+    if (cache == null) {
+      return coalesce(config, upstream, url, null);
+    }
+    return cache.get(url, conditional -> coalesce(config, upstream, url, conditional));
+  }
+
+  /**
+   * @param conditional If-None-Match / If-Modified-Since headers when the cache is
+   *                    revalidating an entry, otherwise null
+   */
+  private Future<HttpResponse<Buffer>> coalesce(AppConfig config, String upstream, String url, MultiMap conditional) {
+    if (singleFlight == null) {
+      return retry(config, upstream, url, conditional);
+    }
+    // A conditional call may be answered 304, so it only joins identical conditional calls.
+    String key = conditional == null ? url : url + '\n' + conditional.get(HttpHeaders.IF_NONE_MATCH)
+      + '\n' + conditional.get(HttpHeaders.IF_MODIFIED_SINCE);
+    return singleFlight.execute(key, () -> retry(config, upstream, url, conditional));
+  }
+
+  /**
+   * Retries connect failures, resets and 502/503/504 answers with jittered
+   * exponential backoff on the event-loop timer, within the upstream's retry budget
+   * and only while the retry can still start inside http.timeout of the first
+   * attempt (the breaker's timeout for the whole call).
+   */
+  private Future<HttpResponse<Buffer>> retry(AppConfig config, String upstream, String url, MultiMap conditional) {
+    if (configs == null) {
+      return limit(config, upstream, url, conditional);
+    }
+    RetryPolicy policy = retryPolicy(config, upstream);
+    if (policy.getMaxRetries() == 0) {
+      return limit(config, upstream, url, conditional);
+    }
+
+    policy.onRequest();
+    Promise<HttpResponse<Buffer>> result = Promise.promise();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getHttpTimeout());
+    attempt(config, upstream, url, conditional, policy, shared.retryStats(upstream), 0, deadline, result);
+    return result.future();
+  }
+
+  private void attempt(
+    AppConfig config,
+    String upstream,
+    String url,
+    MultiMap conditional,
+    RetryPolicy policy,
+    RetryStats stats,
+    int retries,
+    long deadline,
+    Promise<HttpResponse<Buffer>> result
+  ) {
+    limit(config, upstream, url, conditional).onComplete(outcome -> {
+      boolean retryable = outcome.succeeded()
+        ? RetryPolicy.isRetryable(outcome.result().statusCode())
+        : RetryPolicy.isRetryable(outcome.cause());
+      if (retryable && retries < policy.getMaxRetries()) {
+        long delayMs = policy.backoffMs(retries + 1);
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs) < deadline) {
+          if (policy.tryAcquireRetry()) {
+            stats.recordRetry();
+            vertx.setTimer(delayMs, id -> attempt(config, upstream, url, conditional, policy, stats, retries + 1,
+              deadline, result));
+            return;
+          }
+          stats.recordBudgetDenied();
+        }
+      }
+      if (retries > 0) {
+        if (retryable || outcome.failed()) {
+          stats.recordExhausted();
+        } else {
+          stats.recordRecovered();
+        }
+      }
+      result.handle(outcome);
+    });
+  }
+
+  private Future<HttpResponse<Buffer>> limit(AppConfig config, String upstream, String url, MultiMap conditional) {
+    if (configs == null || !config.isUpstreamLimitEnabled()) {
+      return send(config, upstream, url, conditional);
+    }
+
+    AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(upstream, name ->
+      shared.concurrencyLimiter("upstream-" + name,
+        config.getUpstreamLimitInitial(), config.getUpstreamLimitMin(), config.getUpstreamLimitMax()));
+    if (!limiter.tryAcquire()) {
+      return Future.failedFuture(UPSTREAM_OVERLOADED);
+    }
+
+    long start = System.nanoTime();
+    return send(config, upstream, url, conditional).onComplete(result ->
+      limiter.release(System.nanoTime() - start, result.failed()));
+  }
+
+  /**
+   * Whether a call was shed by the upstream's concurrency limit: local backpressure,
+   * not an upstream failure. Matches by error code, so it also holds for failures
+   * relayed by a fetcher verticle.
+   */
+  public static boolean isOverloaded(Throwable error) {
+    return error instanceof ApiException
+      && UPSTREAM_OVERLOADED.getErrorCode().equals(((ApiException) error).getErrorCode());
+  }
+
+  private Future<HttpResponse<Buffer>> send(AppConfig config, String upstream, String url, MultiMap conditional) {
+    if (configs == null) {
+      return webClient
+        .getAbs(url)
+        .send();
+    }
+
+    UpstreamClient client = config.getUpstreamClients().get(upstream);
+    PoolStats poolStats = client.getPoolStats();
+    LatencyHistogram latency = latencies.computeIfAbsent(upstream, name -> shared.metrics().upstreamLatency(name));
+    long start = System.nanoTime();
+    poolStats.requestStarted();
+    Future<HttpResponse<Buffer>> response;
+    if (config.isHedgeEnabled()) {
+      response = HedgedCall.execute(vertx, client.getHttpClient(), url, conditional,
+        hedgePolicy(config, upstream), shared.hedgeStats(upstream));
+    } else {
+      HttpRequest<Buffer> request = client.getWebClient().getAbs(url);
+      if (conditional != null) {
+        request.putHeaders(conditional);
+      }
+      response = request.send();
+    }
+    return response.onComplete(result -> {
+      poolStats.requestEnded();
+      latency.recordNanos(System.nanoTime() - start);
+    });
+  }
+
+  private HedgePolicy hedgePolicy(AppConfig config, String upstream) {
+    refreshPolicies(config);
+    return hedgePolicies.computeIfAbsent(upstream, name ->
+      new HedgePolicy(config.getHedgePercentile(), config.getHedgeMinDelayMs(),
+        config.getHedgeMinSamples(), config.getHedgeBudgetPercent()));
+  }
+
+  private RetryPolicy retryPolicy(AppConfig config, String upstream) {
+    refreshPolicies(config);
+    return retryPolicies.computeIfAbsent(upstream, name -> new RetryPolicy(config.getRetryProfile(name)));
+  }
+
+  private void refreshPolicies(AppConfig config) {
+    // Rebuilt when a newer snapshot arrives; calls still on an older one share them.
+    if (config != policyConfig && config == configs.current()) {
+      hedgePolicies.clear();
+      retryPolicies.clear();
+      policyConfig = config;
+    }
   }
 }
@@ -0,0 +1,68 @@
+package com.gateway.service;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs blocking work (JDBC lookups, legacy SDK calls) off the event loop.
+ *
+ * With virtual threads each task gets its own virtual thread, so tens of thousands
+ * of concurrent blocking calls cost little. Without them tasks go to the Vert.x
+ * worker pool. Either way the result is delivered on the caller's context.
+ *
+ * Virtual threads are looked up reflectively so the code still compiles for and
+ * runs on Java 17, where this runner always uses the worker pool.
+ */
+public class BlockingRunner {
+
+  private static final ExecutorService VIRTUAL_THREADS = virtualThreadExecutor();
+
+  private final Vertx vertx;
+  private final boolean virtualThreads;
+
+  public BlockingRunner(Vertx vertx, boolean virtualThreads) {
+    this.vertx = vertx;
+    this.virtualThreads = virtualThreads && VIRTUAL_THREADS != null;
+  }
+
+  public static boolean isVirtualThreadAvailable() {
+    return VIRTUAL_THREADS != null;
+  }
+
+  public boolean usesVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public <T> Future<T> run(Callable<T> task) {
+    if (!virtualThreads) {
+      return vertx.executeBlocking(task, false);
+    }
+    Context context = vertx.getOrCreateContext();
+    CompletableFuture<T> result = CompletableFuture.supplyAsync(() -> {
+      try {
+        return task.call();
+      } catch (Exception e) {
+        throw new CompletionException(e);
+      }
+    }, VIRTUAL_THREADS);
+    return Future.fromCompletionStage(result, context)
+      .recover(error -> Future.failedFuture(error instanceof CompletionException && error.getCause() != null
+        ? error.getCause()
+        : error));
+  }
+
+  private static ExecutorService virtualThreadExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.gateway.service;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.web.client.HttpResponse;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A fully read upstream response, for responses the gateway assembles itself
+ * rather than receiving from WebClient (hedged calls, shared-cache entries).
+ */
+public final class BufferedResponse implements HttpResponse<Buffer> {
+
+  private final HttpVersion version;
+  private final int statusCode;
+  private final String statusMessage;
+  private final MultiMap headers;
+  private final MultiMap trailers;
+  private final List<String> cookies;
+  private final Buffer body;
+
+  public BufferedResponse(
+    HttpVersion version,
+    int statusCode,
+    String statusMessage,
+    MultiMap headers,
+    MultiMap trailers,
+    List<String> cookies,
+    Buffer body
+  ) {
+    this.version = version;
+    this.statusCode = statusCode;
+    this.statusMessage = statusMessage;
+    this.headers = headers != null ? headers : HttpHeaders.headers();
+    this.trailers = trailers != null ? trailers : HttpHeaders.headers();
+    this.cookies = cookies != null ? cookies : Collections.emptyList();
+    this.body = body;
+  }
+
+  @Override
+  public HttpVersion version() {
+    return version;
+  }
+
+  @Override
+  public int statusCode() {
+    return statusCode;
+  }
+
+  @Override
+  public String statusMessage() {
+    return statusMessage;
+  }
+
+  @Override
+  public MultiMap headers() {
+    return headers;
+  }
+
+  @Override
+  public String getHeader(String headerName) {
+    return headers.get(headerName);
+  }
+
+  @Override
+  public MultiMap trailers() {
+    return trailers;
+  }
+
+  @Override
+  public String getTrailer(String trailerName) {
+    return trailers.get(trailerName);
+  }
+
+  @Override
+  public List<String> cookies() {
+    return cookies;
+  }
+
+  @Override
+  public Buffer body() {
+    return body;
+  }
+
+  @Override
+  public Buffer bodyAsBuffer() {
+    return body;
+  }
+
+  @Override
+  public List<String> followedRedirects() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public JsonArray bodyAsJsonArray() {
+    return body == null ? null : body.toJsonArray();
+  }
+}
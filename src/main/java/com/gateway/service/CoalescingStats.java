@@ -0,0 +1,43 @@
+package com.gateway.service;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class CoalescingStats {
+
+  private final LongAdder leaders = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder joinsRejected = new LongAdder();
+
+  void recordLeader() {
+    leaders.increment();
+  }
+
+  void recordCoalesced() {
+    coalesced.increment();
+  }
+
+  void recordJoinRejected() {
+    joinsRejected.increment();
+  }
+
+  public long getLeaders() {
+    return leaders.sum();
+  }
+
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  public long getJoinsRejected() {
+    return joinsRejected.sum();
+  }
+
+  public JsonObject toJson() {
+    return new JsonObject()
+      .put("leaders", getLeaders())
+      .put("coalesced", getCoalesced())
+      .put("joinsRejected", getJoinsRejected());
+  }
+}
@@ -0,0 +1,77 @@
+package com.gateway.service;
+
+import java.util.Arrays;
+
+/**
+ * Per-upstream hedging state: a ring of recent latencies from which the hedge delay
+ * (a percentile, recomputed every few samples) is derived, and a token bucket that
+ * caps hedges to a fraction of requests.
+ *
+ * Not thread-safe: one instance per upstream per ApiService, used from its event loop.
+ */
+public class HedgePolicy {
+
+  private static final int WINDOW = 256;
+  private static final int RECOMPUTE_EVERY = 32;
+  private static final int TOKEN = 1000;
+  private static final int MAX_TOKENS = 10 * TOKEN;
+
+  private final double percentile;
+  private final long minDelayMs;
+  private final int minSamples;
+  private final int tokensPerRequest;
+  private final long[] samples = new long[WINDOW];
+  private final long[] scratch = new long[WINDOW];
+
+  private int count;
+  private int next;
+  private int sinceRecompute;
+  private long delayMs = -1;
+  private int tokens;
+
+  public HedgePolicy(double percentile, long minDelayMs, int minSamples, double budgetPercent) {
+    this.percentile = percentile;
+    this.minDelayMs = minDelayMs;
+    this.minSamples = Math.min(minSamples, WINDOW);
+    this.tokensPerRequest = (int) Math.round(budgetPercent / 100.0 * TOKEN);
+  }
+
+  public void recordLatency(long nanos) {
+    samples[next] = nanos;
+    next = (next + 1) % WINDOW;
+    if (count < WINDOW) {
+      count++;
+    }
+    if (count >= minSamples && (++sinceRecompute >= RECOMPUTE_EVERY || delayMs < 0)) {
+      sinceRecompute = 0;
+      recompute();
+    }
+  }
+
+  /**
+   * Delay after which a hedge should be sent, or -1 while there are too few samples.
+   */
+  public long hedgeDelayMs() {
+    return delayMs;
+  }
+
+  public void onRequest() {
+    tokens = Math.min(MAX_TOKENS, tokens + tokensPerRequest);
+  }
+
+  public boolean tryAcquireHedge() {
+    if (tokens >= TOKEN) {
+      tokens -= TOKEN;
+      return true;
+    }
+    return false;
+  }
+
+  private void recompute() {
+    System.arraycopy(samples, 0, scratch, 0, count);
+    Arrays.sort(scratch, 0, count);
+    int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+    long nanos = scratch[Math.max(0, Math.min(count - 1, index))];
+    delayMs = Math.max(minDelayMs, nanos / 1_000_000L);
+  }
+}
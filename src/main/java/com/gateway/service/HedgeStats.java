@@ -0,0 +1,43 @@
+package com.gateway.service;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class HedgeStats {
+
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder won = new LongAdder();
+  private final LongAdder budgetDenied = new LongAdder();
+
+  void recordSent() {
+    sent.increment();
+  }
+
+  void recordWon() {
+    won.increment();
+  }
+
+  void recordBudgetDenied() {
+    budgetDenied.increment();
+  }
+
+  public long getSent() {
+    return sent.sum();
+  }
+
+  public long getWon() {
+    return won.sum();
+  }
+
+  public long getBudgetDenied() {
+    return budgetDenied.sum();
+  }
+
+  public JsonObject toJson() {
+    return new JsonObject()
+      .put("sent", getSent())
+      .put("won", getWon())
+      .put("budgetDenied", getBudgetDenied());
+  }
+}
@@ -0,0 +1,173 @@
+package com.gateway.service;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.ext.web.client.HttpResponse;
+
+
+/**
+ * One logical GET that may be hedged: if the primary attempt has not answered
+ * within the policy's delay and the hedge budget allows it, an identical second
+ * attempt is sent. The first response wins and the other attempt is reset.
+ *
+ * Goes through HttpClient rather than WebClient because the losing request has to
+ * be cancellable.
+ */
+final class HedgedCall {
+
+  private final Vertx vertx;
+  private final HttpClient client;
+  private final String url;
+  private final MultiMap headers;
+  private final HedgePolicy policy;
+  private final HedgeStats stats;
+  private final Promise<HttpResponse<Buffer>> result = Promise.promise();
+
+  private Attempt primary;
+  private Attempt hedge;
+  private Throwable firstFailure;
+  private int pending;
+  private long timerId = -1;
+
+  private HedgedCall(Vertx vertx, HttpClient client, String url, MultiMap headers, HedgePolicy policy,
+                     HedgeStats stats) {
+    this.vertx = vertx;
+    this.client = client;
+    this.url = url;
+    this.headers = headers;
+    this.policy = policy;
+    this.stats = stats;
+  }
+
+  static Future<HttpResponse<Buffer>> execute(
+    Vertx vertx,
+    HttpClient client,
+    String url,
+    MultiMap headers,
+    HedgePolicy policy,
+    HedgeStats stats
+  ) {
+    return new HedgedCall(vertx, client, url, headers, policy, stats).start();
+  }
+
+  private Future<HttpResponse<Buffer>> start() {
+    policy.onRequest();
+    primary = launch(false);
+    long delayMs = policy.hedgeDelayMs();
+    if (delayMs >= 0 && !result.future().isComplete()) {
+      timerId = vertx.setTimer(Math.max(1, delayMs), id -> {
+        timerId = -1;
+        maybeHedge();
+      });
+    }
+    return result.future();
+  }
+
+  private void maybeHedge() {
+    if (result.future().isComplete()) {
+      return;
+    }
+    if (!policy.tryAcquireHedge()) {
+      stats.recordBudgetDenied();
+      return;
+    }
+    stats.recordSent();
+    hedge = launch(true);
+  }
+
+  private Attempt launch(boolean isHedge) {
+    Attempt attempt = new Attempt(isHedge);
+    pending++;
+    long start = System.nanoTime();
+    RequestOptions options = new RequestOptions().setMethod(HttpMethod.GET).setAbsoluteURI(url);
+    if (headers != null) {
+      options.setHeaders(headers);
+    }
+    client.request(options)
+      .compose(request -> {
+        attempt.request = request;
+        if (attempt.cancelled) {
+          request.reset();
+          return Future.failedFuture("Hedged attempt cancelled");
+        }
+        return request.send();
+      })
+      .compose(response -> response.body().map(body -> toResponse(response, body)))
+      .onComplete(outcome -> onAttemptComplete(attempt, outcome, System.nanoTime() - start));
+    return attempt;
+  }
+
+  private void onAttemptComplete(Attempt attempt, AsyncResult<HttpResponse<Buffer>> outcome, long nanos) {
+    pending--;
+    if (result.future().isComplete()) {
+      return;
+    }
+
+    if (outcome.succeeded()) {
+      policy.recordLatency(nanos);
+      if (attempt.isHedge) {
+        stats.recordWon();
+      }
+      cancelTimer();
+      result.complete(outcome.result());
+      Attempt other = attempt == primary ? hedge : primary;
+      if (other != null) {
+        other.cancel();
+      }
+      return;
+    }
+
+    if (firstFailure == null) {
+      firstFailure = outcome.cause();
+    }
+    if (pending == 0) {
+      cancelTimer();
+      result.fail(firstFailure);
+    }
+  }
+
+  private void cancelTimer() {
+    if (timerId >= 0) {
+      vertx.cancelTimer(timerId);
+      timerId = -1;
+    }
+  }
+
+  private static HttpResponse<Buffer> toResponse(HttpClientResponse response, Buffer body) {
+    return new BufferedResponse(
+      response.version(),
+      response.statusCode(),
+      response.statusMessage(),
+      response.headers(),
+      response.trailers(),
+      response.cookies(),
+      body
+    );
+  }
+
+  private static final class Attempt {
+    private final boolean isHedge;
+    private HttpClientRequest request;
+    private boolean cancelled;
+
+    private Attempt(boolean isHedge) {
+      this.isHedge = isHedge;
+    }
+
+    private void cancel() {
+      cancelled = true;
+      if (request != null) {
+        request.reset();
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.gateway.service;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection pool usage of one upstream client, shared by every verticle instance.
+ * Utilization is in-flight requests over the requests the pool can carry without
+ * queueing (connections, or connections times streams for HTTP/2).
+ */
+public class PoolStats {
+
+  private volatile int capacity;
+  private final AtomicInteger openConnections = new AtomicInteger();
+  private final LongAdder connectionsOpened = new LongAdder();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger peakInFlight = new AtomicInteger();
+  private final LongAdder requests = new LongAdder();
+
+  public PoolStats(int capacity) {
+    this.capacity = capacity;
+  }
+
+  void setCapacity(int capacity) {
+    this.capacity = capacity;
+  }
+
+  void connectionOpened() {
+    connectionsOpened.increment();
+    openConnections.incrementAndGet();
+  }
+
+  void connectionClosed() {
+    openConnections.decrementAndGet();
+  }
+
+  void requestStarted() {
+    requests.increment();
+    int current = inFlight.incrementAndGet();
+    peakInFlight.accumulateAndGet(current, Math::max);
+  }
+
+  void requestEnded() {
+    inFlight.decrementAndGet();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int getOpenConnections() {
+    return openConnections.get();
+  }
+
+  public long getConnectionsOpened() {
+    return connectionsOpened.sum();
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  public int getPeakInFlight() {
+    return peakInFlight.get();
+  }
+
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  public double getUtilization() {
+    return capacity == 0 ? 0 : (double) inFlight.get() / capacity;
+  }
+
+  public JsonObject toJson() {
+    return new JsonObject()
+      .put("capacity", capacity)
+      .put("openConnections", getOpenConnections())
+      .put("connectionsOpened", getConnectionsOpened())
+      .put("inFlight", getInFlight())
+      .put("peakInFlight", getPeakInFlight())
+      .put("requests", getRequests())
+      .put("utilization", getUtilization());
+  }
+}
@@ -0,0 +1,78 @@
+package com.gateway.service;
+
+import com.gateway.config.RetryProfile;
+import io.vertx.core.http.HttpClosedException;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-upstream retry state: which failures may be retried, the jittered exponential
+ * backoff before each retry, and a token bucket that caps retries to a fraction of
+ * requests so a failing upstream does not receive a retry storm.
+ *
+ * Not thread-safe: one instance per upstream per ApiService, used from its event loop.
+ */
+public class RetryPolicy {
+
+  private static final int TOKEN = 1000;
+  private static final int MAX_TOKENS = 10 * TOKEN;
+
+  private final int maxRetries;
+  private final long baseDelayMs;
+  private final long maxDelayMs;
+  private final int tokensPerRequest;
+  private int tokens = MAX_TOKENS;
+
+  public RetryPolicy(RetryProfile profile) {
+    this(profile.getMaxRetries(), profile.getBaseDelayMs(), profile.getMaxDelayMs(), profile.getBudgetPercent());
+  }
+
+  public RetryPolicy(int maxRetries, long baseDelayMs, long maxDelayMs, double budgetPercent) {
+    this.maxRetries = maxRetries;
+    this.baseDelayMs = baseDelayMs;
+    this.maxDelayMs = maxDelayMs;
+    this.tokensPerRequest = (int) Math.round(budgetPercent / 100.0 * TOKEN);
+  }
+
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  public void onRequest() {
+    tokens = Math.min(MAX_TOKENS, tokens + tokensPerRequest);
+  }
+
+  public boolean tryAcquireRetry() {
+    if (tokens >= TOKEN) {
+      tokens -= TOKEN;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Backoff before the given retry (1-based): a uniformly random delay up to
+   * {@code baseDelayMs * 2^(retry - 1)}, capped at {@code maxDelayMs} ("full jitter").
+   */
+  public long backoffMs(int retry) {
+    long ceiling = baseDelayMs << Math.min(retry - 1, 20);
+    ceiling = Math.min(maxDelayMs, ceiling);
+    return 1 + ThreadLocalRandom.current().nextLong(ceiling);
+  }
+
+  /**
+   * Responses that tell the request never reached a healthy upstream.
+   */
+  public static boolean isRetryable(int statusCode) {
+    return statusCode == 502 || statusCode == 503 || statusCode == 504;
+  }
+
+  /**
+   * Connect failures, resets and connections closed before the response. Timeouts
+   * are not retried: the upstream may still be working on the first attempt.
+   */
+  public static boolean isRetryable(Throwable failure) {
+    return failure instanceof IOException || failure instanceof HttpClosedException;
+  }
+}
@@ -0,0 +1,59 @@
+package com.gateway.service;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class RetryStats {
+
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder recovered = new LongAdder();
+  private final LongAdder exhausted = new LongAdder();
+  private final LongAdder budgetDenied = new LongAdder();
+
+  void recordRetry() {
+    retries.increment();
+  }
+
+  void recordRecovered() {
+    recovered.increment();
+  }
+
+  void recordExhausted() {
+    exhausted.increment();
+  }
+
+  void recordBudgetDenied() {
+    budgetDenied.increment();
+  }
+
+  public long getRetries() {
+    return retries.sum();
+  }
+
+  /**
+   * Calls that succeeded after at least one retry.
+   */
+  public long getRecovered() {
+    return recovered.sum();
+  }
+
+  /**
+   * Calls that still failed after their last allowed retry.
+   */
+  public long getExhausted() {
+    return exhausted.sum();
+  }
+
+  public long getBudgetDenied() {
+    return budgetDenied.sum();
+  }
+
+  public JsonObject toJson() {
+    return new JsonObject()
+      .put("retries", getRetries())
+      .put("recovered", getRecovered())
+      .put("exhausted", getExhausted())
+      .put("budgetDenied", getBudgetDenied());
+  }
+}
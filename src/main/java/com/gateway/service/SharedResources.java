@@ -0,0 +1,242 @@
+package com.gateway.service;
+
+import com.gateway.cache.AsyncMapSharedCache;
+import com.gateway.cache.CacheStats;
+import com.gateway.cache.SharedCache;
+import com.gateway.config.ConfigHolder;
+import com.gateway.config.ConfigWatcher;
+import com.gateway.limit.AdaptiveConcurrencyLimiter;
+import com.gateway.limit.RateLimiter;
+import com.gateway.metrics.MetricsRegistry;
+import io.vertx.circuitbreaker.CircuitBreaker;
+import io.vertx.circuitbreaker.CircuitBreakerOptions;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide state shared by every deployed gateway verticle instance.
+ * Stored in a Vert.x local map so all instances on the same Vertx see the same object.
+ */
+public class SharedResources implements Shareable {
+
+  private static final String MAP_NAME = "gateway.shared";
+  private static final String KEY = "resources";
+
+  private final Vertx vertx;
+  private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, JsonObject> breakerSettings = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+  private final CacheStats cacheStats = new CacheStats();
+  private final CoalescingStats coalescingStats = new CoalescingStats();
+  private final ConcurrentMap<String, HedgeStats> hedgeStats = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, RetryStats> retryStats = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, PoolStats> poolStats = new ConcurrentHashMap<>();
+  private final Set<String> prewarmed = ConcurrentHashMap.newKeySet();
+  private final MetricsRegistry metrics = new MetricsRegistry();
+  private final Map<String, ConfigWatch> configWatches = new HashMap<>();
+  private SharedCache sharedCache;
+
+  private SharedResources(Vertx vertx) {
+    this.vertx = vertx;
+  }
+
+  public static SharedResources get(Vertx vertx) {
+    LocalMap<String, SharedResources> map = vertx.sharedData().getLocalMap(MAP_NAME);
+    return map.computeIfAbsent(KEY, key -> new SharedResources(vertx));
+  }
+
+  /**
+   * Configuration holder for the given deployment config, shared by every verticle
+   * instance deployed with it: one ConfigWatcher scans the sources and every instance
+   * serves the same snapshot, with one set of upstream clients. The watcher starts
+   * with the first caller; when the last one calls {@link #releaseConfigs} it stops
+   * and the current snapshot's clients are released.
+   * The returned future completes on the caller's context.
+   */
+  public Future<ConfigHolder> configs(JsonObject deploymentConfig) {
+    String key = deploymentConfig.encode();
+    Future<ConfigHolder> started;
+    synchronized (configWatches) {
+      ConfigWatch watch = configWatches.computeIfAbsent(key, k -> new ConfigWatch(vertx, deploymentConfig));
+      watch.users++;
+      started = watch.started;
+    }
+    Context context = vertx.getOrCreateContext();
+    Promise<ConfigHolder> result = Promise.promise();
+    started.onComplete(holder -> context.runOnContext(v -> {
+      if (holder.failed()) {
+        releaseConfigs(deploymentConfig);
+      }
+      result.handle(holder);
+    }));
+    return result.future();
+  }
+
+  /**
+   * Gives up a holder obtained from {@link #configs}; the last user stops its watcher.
+   */
+  public void releaseConfigs(JsonObject deploymentConfig) {
+    String key = deploymentConfig.encode();
+    synchronized (configWatches) {
+      ConfigWatch watch = configWatches.get(key);
+      if (watch != null && --watch.users == 0) {
+        configWatches.remove(key);
+        watch.watcher.stop();
+        if (watch.started.succeeded()) {
+          watch.started.result().current().release();
+        }
+      }
+    }
+  }
+
+  public CircuitBreaker breaker(String name, CircuitBreakerOptions options) {
+    CircuitBreaker current = breakers.get(name);
+    if (current != null) {
+      return current;
+    }
+    return breakers.computeIfAbsent(name, key -> createBreaker(key, options));
+  }
+
+  /**
+   * Like {@link #breaker}, but if the existing breaker was created with different
+   * options (before a configuration reload) it is replaced by a fresh one.
+   */
+  public CircuitBreaker reconfigureBreaker(String name, CircuitBreakerOptions options) {
+    JsonObject settings = options.toJson();
+    return breakers.compute(name, (key, existing) -> {
+      if (existing != null && settings.equals(breakerSettings.get(key))) {
+        return existing;
+      }
+      if (existing != null) {
+        existing.close();
+      }
+      return createBreaker(key, options);
+    });
+  }
+
+  private CircuitBreaker createBreaker(String name, CircuitBreakerOptions options) {
+    breakerSettings.put(name, options.toJson());
+    CircuitBreaker breaker = CircuitBreaker.create(name, vertx, options);
+    breaker.openHandler(v -> metrics.recordBreakerTransition(name, "open"));
+    breaker.halfOpenHandler(v -> metrics.recordBreakerTransition(name, "half_open"));
+    breaker.closeHandler(v -> metrics.recordBreakerTransition(name, "closed"));
+    return breaker;
+  }
+
+  public Collection<CircuitBreaker> breakers() {
+    return breakers.values();
+  }
+
+  public MetricsRegistry metrics() {
+    return metrics;
+  }
+
+  public AdaptiveConcurrencyLimiter concurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+    AdaptiveConcurrencyLimiter limiter = limiters.get(name);
+    if (limiter != null) {
+      return limiter;
+    }
+    return limiters.computeIfAbsent(name,
+      key -> new AdaptiveConcurrencyLimiter(key, initialLimit, minLimit, maxLimit));
+  }
+
+  public Collection<AdaptiveConcurrencyLimiter> concurrencyLimiters() {
+    return limiters.values();
+  }
+
+  /**
+   * Rate limiter shared by all verticle instances; created with the settings of the
+   * first caller.
+   */
+  public RateLimiter rateLimiter(String name, double ratePerSecond, int burst, int maxKeys, long sweepIntervalMs) {
+    return rateLimiters.computeIfAbsent(name, key ->
+      new RateLimiter(key, ratePerSecond, burst, maxKeys, TimeUnit.MILLISECONDS.toNanos(sweepIntervalMs)));
+  }
+
+  public Collection<RateLimiter> rateLimiters() {
+    return rateLimiters.values();
+  }
+
+  public CacheStats cacheStats() {
+    return cacheStats;
+  }
+
+  /**
+   * The shared cache tier: the one installed with {@link #useSharedCache}, otherwise
+   * an async map with the given name, created on first use.
+   */
+  public synchronized SharedCache sharedCache(String mapName) {
+    if (sharedCache == null) {
+      sharedCache = new AsyncMapSharedCache(vertx, mapName);
+    }
+    return sharedCache;
+  }
+
+  /**
+   * Replaces the shared cache tier for caches created from now on.
+   */
+  public synchronized void useSharedCache(SharedCache cache) {
+    this.sharedCache = cache;
+  }
+
+  public CoalescingStats coalescingStats() {
+    return coalescingStats;
+  }
+
+  public HedgeStats hedgeStats(String upstream) {
+    return hedgeStats.computeIfAbsent(upstream, key -> new HedgeStats());
+  }
+
+  public Map<String, HedgeStats> hedgeStats() {
+    return Collections.unmodifiableMap(hedgeStats);
+  }
+
+  public RetryStats retryStats(String upstream) {
+    return retryStats.computeIfAbsent(upstream, key -> new RetryStats());
+  }
+
+  public Map<String, RetryStats> retryStats() {
+    return Collections.unmodifiableMap(retryStats);
+  }
+
+  public PoolStats poolStats(String client, int capacity) {
+    PoolStats stats = poolStats.computeIfAbsent(client, key -> new PoolStats(capacity));
+    stats.setCapacity(capacity);
+    return stats;
+  }
+
+  public Map<String, PoolStats> poolStats() {
+    return Collections.unmodifiableMap(poolStats);
+  }
+
+  boolean markPrewarmed(String upstream) {
+    return prewarmed.add(upstream);
+  }
+
+  private static final class ConfigWatch {
+
+    private final ConfigWatcher watcher;
+    private final Future<ConfigHolder> started;
+    private int users;
+
+    private ConfigWatch(Vertx vertx, JsonObject deploymentConfig) {
+      this.watcher = new ConfigWatcher(vertx, deploymentConfig);
+      this.started = watcher.start();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.gateway.service;
+
+import io.vertx.core.Future;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one in-flight future.
+ * A caller only joins a call that started less than maxJoinMs ago and still has
+ * room for another waiter; otherwise it issues its own call, which later callers
+ * then join instead.
+ *
+ * Not thread-safe: one instance per verticle, used from its event loop.
+ */
+public class SingleFlight<T> {
+
+  private final long maxJoinMs;
+  private final int maxWaiters;
+  private final CoalescingStats stats;
+  private final LongSupplier clock;
+  private final Map<String, InFlight<T>> inFlight = new HashMap<>();
+
+  public SingleFlight(long maxJoinMs, int maxWaiters, CoalescingStats stats) {
+    this(maxJoinMs, maxWaiters, stats, System::currentTimeMillis);
+  }
+
+  public SingleFlight(long maxJoinMs, int maxWaiters, CoalescingStats stats, LongSupplier clock) {
+    this.maxJoinMs = maxJoinMs;
+    this.maxWaiters = maxWaiters;
+    this.stats = stats;
+    this.clock = clock;
+  }
+
+  public Future<T> execute(String key, Supplier<Future<T>> call) {
+    long now = clock.getAsLong();
+    InFlight<T> current = inFlight.get(key);
+
+    if (current != null) {
+      if (now - current.startedAt <= maxJoinMs && current.waiters < maxWaiters) {
+        current.waiters++;
+        stats.recordCoalesced();
+        return current.future;
+      }
+      stats.recordJoinRejected();
+    }
+
+    Future<T> future = call.get();
+    InFlight<T> flight = new InFlight<>(future, now);
+    inFlight.put(key, flight);
+    stats.recordLeader();
+    future.onComplete(result -> inFlight.remove(key, flight));
+    return future;
+  }
+
+  public int inFlightCount() {
+    return inFlight.size();
+  }
+
+  private static final class InFlight<T> {
+    private final Future<T> future;
+    private final long startedAt;
+    private int waiters;
+
+    private InFlight(Future<T> future, long startedAt) {
+      this.future = future;
+      this.startedAt = startedAt;
+    }
+  }
+}
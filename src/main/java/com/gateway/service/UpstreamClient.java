@@ -0,0 +1,40 @@
+package com.gateway.service;
+
+import com.gateway.config.UpstreamClientProfile;
+import io.vertx.core.http.HttpClient;
+import io.vertx.ext.web.client.WebClient;
+
+/**
+ * The HTTP client built from one {@link UpstreamClientProfile}, with the WebClient
+ * wrapping it and its pool stats.
+ */
+public class UpstreamClient {
+
+  private final UpstreamClientProfile profile;
+  private final HttpClient httpClient;
+  private final WebClient webClient;
+  private final PoolStats poolStats;
+
+  public UpstreamClient(UpstreamClientProfile profile, HttpClient httpClient, WebClient webClient, PoolStats poolStats) {
+    this.profile = profile;
+    this.httpClient = httpClient;
+    this.webClient = webClient;
+    this.poolStats = poolStats;
+  }
+
+  public UpstreamClientProfile getProfile() {
+    return profile;
+  }
+
+  public HttpClient getHttpClient() {
+    return httpClient;
+  }
+
+  public WebClient getWebClient() {
+    return webClient;
+  }
+
+  public PoolStats getPoolStats() {
+    return poolStats;
+  }
+}
@@ -0,0 +1,107 @@
+package com.gateway.service;
+
+import com.gateway.config.UpstreamClientProfile;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One HTTP client per upstream client profile. Clients are shared by name, so every
+ * verticle instance on the same Vertx uses the same pools.
+ */
+public class UpstreamClients {
+
+  private final Map<String, UpstreamClient> clients = new LinkedHashMap<>();
+  private final SharedResources shared;
+
+  public UpstreamClients(Vertx vertx, Map<String, UpstreamClientProfile> profiles, int httpTimeout) {
+    this.shared = SharedResources.get(vertx);
+    for (UpstreamClientProfile profile : profiles.values()) {
+      clients.put(profile.getName(), create(vertx, profile, httpTimeout));
+    }
+  }
+
+  private UpstreamClient create(Vertx vertx, UpstreamClientProfile profile, int httpTimeout) {
+    HttpClientOptions options = profile.toHttpClientOptions(httpTimeout);
+    PoolOptions poolOptions = profile.toPoolOptions();
+    // Shared clients are looked up by name: a changed profile must get a new pool.
+    options.setName(options.getName() + "-"
+      + Integer.toHexString((options.toJson().encode() + poolOptions.toJson().encode()).hashCode()));
+    PoolStats poolStats = shared.poolStats(profile.getName(), profile.capacity());
+
+    HttpClient httpClient = vertx.httpClientBuilder()
+      .with(options)
+      .with(poolOptions)
+      .withConnectHandler(connection -> {
+        poolStats.connectionOpened();
+        connection.closeHandler(v -> poolStats.connectionClosed());
+      })
+      .build();
+
+    WebClient webClient = WebClient.wrap(httpClient, new WebClientOptions(options));
+    return new UpstreamClient(profile, httpClient, webClient, poolStats);
+  }
+
+  /**
+   * Client for the named upstream, or the default client when it has no profile.
+   */
+  public UpstreamClient get(String upstream) {
+    UpstreamClient client = clients.get(upstream);
+    return client != null ? client : clients.get(UpstreamClientProfile.DEFAULT);
+  }
+
+  public Map<String, UpstreamClient> all() {
+    return Collections.unmodifiableMap(clients);
+  }
+
+  /**
+   * Opens the profile's prewarm.connections connections to the upstream's origin by
+   * sending that many concurrent HEAD requests. Runs once per upstream per process;
+   * the returned future never fails.
+   */
+  public Future<Void> prewarm(String upstream, String url) {
+    UpstreamClient client = get(upstream);
+    int connections = client.getProfile().getPrewarmConnections();
+    String origin = origin(url);
+    if (connections <= 0 || origin == null || !shared.markPrewarmed(upstream)) {
+      return Future.succeededFuture();
+    }
+
+    List<Future<?>> attempts = new ArrayList<>(connections);
+    for (int i = 0; i < connections; i++) {
+      attempts.add(client.getHttpClient()
+        .request(new RequestOptions().setMethod(HttpMethod.HEAD).setAbsoluteURI(origin + "/"))
+        .compose(request -> request.send())
+        .compose(response -> response.end()));
+    }
+    return Future.join(attempts).<Void>mapEmpty().otherwiseEmpty();
+  }
+
+  static String origin(String url) {
+    int scheme = url.indexOf("://");
+    if (scheme < 0) {
+      return null;
+    }
+    int path = url.indexOf('/', scheme + 3);
+    String origin = path < 0 ? url : url.substring(0, path);
+    return origin.contains("{") ? null : origin;
+  }
+
+  public void close() {
+    for (UpstreamClient client : clients.values()) {
+      client.getHttpClient().close();
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package com.gateway;
+
+import com.gateway.handler.ConcurrencyLimitHandler;
+import com.gateway.limit.AdaptiveConcurrencyLimiter;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private static void saturate(AdaptiveConcurrencyLimiter limiter, int rounds, long rttNanos) {
+    for (int round = 0; round < rounds; round++) {
+      int acquired = 0;
+      while (limiter.tryAcquire()) {
+        acquired++;
+      }
+      for (int i = 0; i < acquired; i++) {
+        limiter.release(rttNanos, false);
+      }
+    }
+  }
+
+  @Test
+  void testRejectsBeyondLimit() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10);
+
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.tryAcquire());
+    assertFalse(limiter.tryAcquire());
+    assertEquals(1, limiter.getRejected());
+    assertEquals(2, limiter.getInFlight());
+  }
+
+  @Test
+  void testLimitGrowsWhileLatencyStaysAtBaseline() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100);
+
+    saturate(limiter, 5, RTT);
+
+    assertTrue(limiter.getLimit() > 10);
+  }
+
+  @Test
+  void testLimitShrinksWhenLatencyShowsQueueing() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 50, 1, 100);
+    saturate(limiter, 1, RTT);
+    int before = limiter.getLimit();
+
+    saturate(limiter, 3, RTT * 5);
+
+    assertTrue(limiter.getLimit() < before);
+  }
+
+  @Test
+  void testDroppedCallsShrinkLimitDownToMinimum() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 5, 3, 100);
+
+    for (int i = 0; i < 10; i++) {
+      limiter.tryAcquire();
+      limiter.release(RTT, true);
+    }
+
+    assertEquals(3, limiter.getLimit());
+  }
+
+  @Test
+  void testHandlerShedsWith503AndRetryAfter() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1);
+    limiter.tryAcquire();
+    RoutingContext context = mock(RoutingContext.class);
+    HttpServerResponse response = mock(HttpServerResponse.class);
+    when(context.response()).thenReturn(response);
+    when(response.setStatusCode(anyInt())).thenReturn(response);
+    when(response.putHeader(anyString(), anyString())).thenReturn(response);
+
+    new ConcurrencyLimitHandler(limiter, 2).handle(context);
+
+    verify(response).setStatusCode(503);
+    verify(response).putHeader("retry-after", "2");
+    verify(response).end(any(Buffer.class));
+    verify(context, never()).next();
+  }
+}
@@ -0,0 +1,170 @@
+package com.gateway;
+
+import com.gateway.aggregate.AggregationEngine;
+import com.gateway.aggregate.RouteDefinition;
+import com.gateway.config.AppConfig;
+import com.gateway.exception.ApiException;
+import com.gateway.metrics.MetricsRegistry;
+import com.gateway.service.ApiService;
+import com.gateway.service.SharedResources;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class AggregationEngineTest {
+
+  private static final String BASE = "http://localhost:8095";
+
+  private Vertx vertx;
+  private AggregationEngine engine;
+
+  @BeforeEach
+  void setup(VertxTestContext testContext) {
+    vertx = Vertx.vertx();
+    engine = new AggregationEngine(vertx, new AppConfig(vertx));
+
+    Router router = Router.router(vertx);
+    router.get("/posts/:id").handler(ctx -> {
+      int id = Integer.parseInt(ctx.pathParam("id"));
+      ctx.json(new JsonObject().put("id", id).put("userId", id * 10).put("title", "Post " + id));
+    });
+    router.get("/users/:id").handler(ctx ->
+      ctx.json(new JsonObject().put("id", ctx.pathParam("id")).put("name", "User " + ctx.pathParam("id"))));
+    router.get("/broken").handler(ctx -> ctx.response().setStatusCode(503).end());
+    router.get("/slow/:id").handler(ctx -> vertx.setTimer(200, id -> ctx.json(new JsonObject().put("title", "Slow"))));
+
+    vertx.createHttpServer()
+      .requestHandler(router)
+      .listen(8095)
+      .onComplete(testContext.succeedingThenComplete());
+  }
+
+  @AfterEach
+  void cleanup(VertxTestContext testContext) {
+    vertx.close(testContext.succeedingThenComplete());
+  }
+
+  private static JsonObject upstream(String name, String url, String outputKey, String sourcePath) {
+    return new JsonObject()
+      .put("name", name)
+      .put("url", url)
+      .put("fields", new JsonObject().put(outputKey, sourcePath));
+  }
+
+  private static RouteDefinition route(JsonObject... upstreams) {
+    return RouteDefinition.fromJson(new JsonObject()
+      .put("path", "/test")
+      .put("upstreams", new JsonArray(List.of((Object[]) upstreams))));
+  }
+
+  @Test
+  void testDependentUpstreamUsesResolvedField(VertxTestContext testContext) {
+    RouteDefinition route = route(
+      upstream("post", BASE + "/posts/{id}", "post_title", "title"),
+      upstream("author", BASE + "/users/{post.userId}", "author_name", "name"));
+
+    engine.execute(route, Map.of("id", "3")::get)
+      .onComplete(testContext.succeeding(body -> testContext.verify(() -> {
+        assertEquals("Post 3", body.getString("post_title"));
+        assertEquals("User 30", body.getString("author_name"));
+        assertFalse(body.containsKey("warning"));
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testFailedUpstreamUsesFallbackAndWarning(VertxTestContext testContext) {
+    RouteDefinition route = route(
+      upstream("posts", BASE + "/posts/1", "post_title", "title"),
+      upstream("users", BASE + "/broken", "author_name", "name")
+        .put("fallback", new JsonObject().put("author_name", "Anonymous")));
+
+    engine.execute(route, name -> null)
+      .onComplete(testContext.succeeding(body -> testContext.verify(() -> {
+        assertEquals("Post 1", body.getString("post_title"));
+        assertEquals("Anonymous", body.getString("author_name"));
+        assertEquals("Users data unavailable", body.getString("warning"));
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testFailedDependencySkipsDependent(VertxTestContext testContext) {
+    RouteDefinition route = route(
+      upstream("post", BASE + "/broken", "post_title", "title"),
+      upstream("author", BASE + "/users/{post.userId}", "author_name", "name"),
+      upstream("other", BASE + "/users/7", "other_name", "name"));
+
+    engine.execute(route, name -> null)
+      .onComplete(testContext.succeeding(body -> testContext.verify(() -> {
+        assertEquals("N/A", body.getString("post_title"));
+        assertEquals("N/A", body.getString("author_name"));
+        assertEquals("User 7", body.getString("other_name"));
+        assertEquals("Post data unavailable; Author data unavailable", body.getString("warning"));
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testAllUpstreamsFailingFailsRequest(VertxTestContext testContext) {
+    RouteDefinition route = route(
+      upstream("posts", BASE + "/broken", "post_title", "title"),
+      upstream("users", BASE + "/users/{missing}", "author_name", "name"));
+
+    engine.execute(route, name -> null)
+      .onComplete(testContext.failing(error -> testContext.verify(() -> {
+        assertInstanceOf(ApiException.class, error);
+        assertEquals("POSTS_API_ERROR", ((ApiException) error).getErrorCode());
+        assertEquals(503, ((ApiException) error).getStatusCode());
+        MetricsRegistry metrics = SharedResources.get(vertx).metrics();
+        assertEquals(1, metrics.upstreamErrors().get("posts").get("POSTS_API_ERROR").sum());
+        assertFalse(metrics.errors().containsKey("POSTS_API_ERROR"), "error responses are counted by the handler");
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testShedCallsDoNotOpenBreaker(VertxTestContext testContext) {
+    AggregationEngine limited = new AggregationEngine(vertx, new AppConfig(vertx, new JsonObject()
+      .put("limit.upstream.initial", 1)
+      .put("limit.upstream.min", 1)
+      .put("limit.upstream.max", 1)
+      .put("breaker.max.failures", 2)));
+    RouteDefinition route = route(upstream("slow", BASE + "/slow/{id}", "title", "title"));
+
+    List<Future<JsonObject>> calls = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      calls.add(limited.execute(route, Map.of("id", String.valueOf(i))::get));
+    }
+    Future.join(calls).onComplete(done -> testContext.verify(() -> {
+      assertTrue(calls.get(0).succeeded(), String.valueOf(calls.get(0).cause()));
+      for (Future<JsonObject> shed : calls.subList(1, calls.size())) {
+        assertTrue(ApiService.isOverloaded(shed.cause()), String.valueOf(shed.cause()));
+      }
+      assertEquals("CLOSED", limited.breakerState("slow"));
+      testContext.completeNow();
+    }));
+  }
+
+  @Test
+  void testRejectsDependencyCycles() {
+    assertThrows(IllegalArgumentException.class, () -> route(
+      upstream("a", BASE + "/users/{b.id}", "a", "name"),
+      upstream("b", BASE + "/users/{a.id}", "b", "name")));
+  }
+}
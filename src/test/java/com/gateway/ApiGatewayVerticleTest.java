@@ -1,6 +1,12 @@
 package com.gateway;
 
+import com.gateway.loadtest.StubUpstreamVerticle;
+import com.gateway.service.SharedResources;
+import io.vertx.circuitbreaker.CircuitBreakerOptions;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.junit5.VertxExtension;
@@ -42,6 +48,24 @@ class ApiGatewayVerticleTest {
       }));
   }
 
+  @Test
+  void testMetricsEndpointServesPrometheusText(VertxTestContext testContext) {
+    client.get(8080, "localhost", "/aggregate")
+      .send()
+      .compose(aggregate -> client.get(8080, "localhost", "/metrics").send())
+      .onComplete(testContext.succeeding(response -> {
+        testContext.verify(() -> {
+          assertEquals(200, response.statusCode());
+          assertTrue(response.getHeader("content-type").startsWith("text/plain"));
+          String body = response.bodyAsString();
+          assertTrue(body.contains("# TYPE gateway_route_latency_seconds histogram"));
+          assertTrue(body.contains("gateway_route_latency_seconds_count{route=\"/aggregate\"} 1"));
+          assertTrue(body.contains("gateway_event_loop_lag_seconds_count"));
+          testContext.completeNow();
+        });
+      }));
+  }
+
   @Test
   void testAggregateReturns200OnSuccess(VertxTestContext testContext) {
     client.get(8080, "localhost", "/aggregate")
@@ -72,4 +96,54 @@ class ApiGatewayVerticleTest {
         });
       }));
   }
+
+  @Test
+  void testMultipleInstancesShareCircuitBreakers(VertxTestContext testContext) {
+    JsonObject config = new JsonObject()
+      .put("server.port", 8090)
+      .put("verticle.instances", 2)
+      .put("api.posts.url", "http://localhost:8091/posts/1")
+      .put("api.users.url", "http://localhost:8091/users/1");
+
+    vertx.deployVerticle(new StubUpstreamVerticle(8091))
+      .compose(id -> vertx.deployVerticle(ApiGatewayVerticle::new,
+        new DeploymentOptions().setInstances(2).setConfig(config)))
+      .onComplete(testContext.succeeding(id -> {
+        SharedResources.get(vertx)
+          .breaker("posts-breaker", new CircuitBreakerOptions())
+          .open();
+
+        Future<?> first = client.get(8090, "localhost", "/aggregate").send();
+        Future<?> second = client.get(8090, "localhost", "/aggregate").send();
+
+        Future.all(first, second)
+          .onComplete(testContext.succeeding(result -> {
+            testContext.verify(() -> {
+              for (int i = 0; i < result.size(); i++) {
+                JsonObject body = result.<io.vertx.ext.web.client.HttpResponse<?>>resultAt(i).bodyAsJsonObject();
+                assertEquals("N/A", body.getString("post_title"));
+                assertEquals("Stub Author", body.getString("author_name"));
+                assertEquals("Post data unavailable", body.getString("warning"));
+              }
+              testContext.completeNow();
+            });
+          }));
+      }));
+  }
+
+  @Test
+  void testBatchBodyOverLimitIsRejected(VertxTestContext testContext) {
+    JsonObject config = new JsonObject()
+      .put("server.port", 8092)
+      .put("body.limit.bytes", 64);
+
+    vertx.deployVerticle(ApiGatewayVerticle::new, new DeploymentOptions().setConfig(config))
+      .compose(id -> client.post(8092, "localhost", "/aggregate/batch")
+        .sendBuffer(Buffer.buffer("[" + "1,".repeat(100) + "1]")))
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(413, response.statusCode());
+        assertEquals("PAYLOAD_TOO_LARGE", response.bodyAsJsonObject().getString("errorCode"));
+        testContext.completeNow();
+      })));
+  }
 }
@@ -0,0 +1,107 @@
+package com.gateway;
+
+import com.gateway.handler.AccessLogHandler;
+import com.gateway.logging.AsyncLog;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class AsyncLogTest {
+
+  @Test
+  void testFullRingDropsInsteadOfBlocking() {
+    CountDownLatch release = new CountDownLatch(1);
+    OutputStream stalled = new OutputStream() {
+      @Override
+      public void write(int b) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    AsyncLog log = new AsyncLog(new PrintStream(stalled), 4);
+
+    int accepted = 0;
+    for (int i = 0; i < 50; i++) {
+      if (log.log("INFO", new JsonObject().put("msg", "line " + i), null)) {
+        accepted++;
+      }
+    }
+
+    assertTrue(accepted <= 5, "ring of 4 plus the event being written, accepted " + accepted);
+    assertEquals(50 - accepted, log.getDropped());
+    release.countDown();
+  }
+
+  @Test
+  void testConcurrentProducersLoseNothingWhileRingHasRoom() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    AsyncLog log = new AsyncLog(new PrintStream(bytes, true, StandardCharsets.UTF_8), 4096);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      int producer = t;
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < 500; i++) {
+          log.log("INFO", new JsonObject().put("producer", producer).put("i", i), null);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    List<JsonObject> events = ErrorLogTest.awaitLines(log, bytes, 2000);
+    assertEquals(0, log.getDropped());
+    assertTrue(events.stream().allMatch(event -> event.containsKey("ts")));
+  }
+
+  @Test
+  void testAccessLogRecordsRouteStatusAndUpstreams(Vertx vertx, VertxTestContext testContext) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    AsyncLog log = new AsyncLog(new PrintStream(bytes, true, StandardCharsets.UTF_8), 100);
+    Router router = Router.router(vertx);
+    router.route().handler(new AccessLogHandler(log)::handle);
+    router.get("/aggregate").handler(ctx -> {
+      AccessLogHandler.recordRoute(ctx, "/aggregate");
+      AccessLogHandler.recordUpstream(ctx, "user", 2_500_000, false, "OPEN");
+      ctx.response().setStatusCode(503).end();
+    });
+    WebClient client = WebClient.create(vertx);
+
+    vertx.createHttpServer().requestHandler(router).listen(8108)
+      .compose(s -> client.get(8108, "localhost", "/aggregate?id=1").send())
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        JsonObject event = ErrorLogTest.awaitLines(log, bytes, 1).get(0);
+        assertEquals("access", event.getString("type"));
+        assertEquals("GET", event.getString("method"));
+        assertEquals("/aggregate", event.getString("path"));
+        assertEquals("/aggregate", event.getString("route"));
+        assertEquals(503, event.getInteger("status"));
+        JsonObject user = event.getJsonObject("upstreams").getJsonObject("user");
+        assertEquals(2.5, user.getDouble("ms"));
+        assertFalse(user.getBoolean("ok"));
+        assertEquals("OPEN", user.getString("breaker"));
+        testContext.completeNow();
+      })));
+  }
+}
@@ -0,0 +1,181 @@
+package com.gateway;
+
+import com.gateway.aggregate.AggregationEngine;
+import com.gateway.aggregate.RouteDefinition;
+import com.gateway.config.AppConfig;
+import com.gateway.handler.BatchAggregateHandler;
+import com.gateway.handler.GlobalExceptionHandler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.handler.BodyHandler;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class BatchAggregateHandlerTest {
+
+  private static final int UPSTREAM_PORT = 8100;
+  private static final int GATEWAY_PORT = 8101;
+  private static final String BASE = "http://localhost:" + UPSTREAM_PORT;
+
+  private Vertx vertx;
+  private WebClient client;
+  private AtomicInteger postCalls;
+  private AtomicInteger userCalls;
+
+  @BeforeEach
+  void setup(VertxTestContext testContext) {
+    vertx = Vertx.vertx();
+    client = WebClient.create(vertx);
+    postCalls = new AtomicInteger();
+    userCalls = new AtomicInteger();
+
+    Router upstream = Router.router(vertx);
+    upstream.get("/posts/:id").handler(ctx -> {
+      postCalls.incrementAndGet();
+      int id = Integer.parseInt(ctx.pathParam("id"));
+      ctx.json(new JsonObject().put("id", id).put("userId", id % 5).put("title", "Post " + id));
+    });
+    upstream.get("/users/:id").handler(ctx -> {
+      userCalls.incrementAndGet();
+      ctx.json(new JsonObject().put("id", ctx.pathParam("id")).put("name", "User " + ctx.pathParam("id")));
+    });
+
+    AppConfig config = new AppConfig(vertx, new JsonObject()
+      .put("cache.enabled", false)
+      .put("coalesce.enabled", false)
+      .put("aggregate.batch.max.items", 150)
+      .put("aggregate.batch.parallelism", 4));
+    RouteDefinition route = RouteDefinition.fromJson(new JsonObject()
+      .put("path", "/test")
+      .put("upstreams", new JsonArray(List.of(
+        new JsonObject()
+          .put("name", "post")
+          .put("url", BASE + "/posts/{id}")
+          .put("fields", new JsonObject().put("post_title", "title")),
+        new JsonObject()
+          .put("name", "author")
+          .put("url", BASE + "/users/{post.userId}")
+          .put("fields", new JsonObject().put("author_name", "name"))))));
+    BatchAggregateHandler handler = new BatchAggregateHandler(new AggregationEngine(vertx, config), route);
+
+    Router gateway = Router.router(vertx);
+    gateway.post(BatchAggregateHandler.path(route)).handler(BodyHandler.create()).handler(handler::handle);
+    gateway.route().failureHandler(new GlobalExceptionHandler()::handle);
+
+    vertx.createHttpServer().requestHandler(upstream).listen(UPSTREAM_PORT)
+      .compose(s -> vertx.createHttpServer().requestHandler(gateway).listen(GATEWAY_PORT))
+      .onComplete(testContext.succeedingThenComplete());
+  }
+
+  @AfterEach
+  void cleanup(VertxTestContext testContext) {
+    vertx.close(testContext.succeedingThenComplete());
+  }
+
+  private static List<JsonObject> lines(Buffer body) {
+    return body.toString().lines().map(JsonObject::new).collect(Collectors.toList());
+  }
+
+  @Test
+  void testBatchDeduplicatesSharedUpstreamCalls(VertxTestContext testContext) {
+    JsonArray ids = new JsonArray();
+    for (int id = 1; id <= 100; id++) {
+      ids.add(id);
+    }
+
+    client.post(GATEWAY_PORT, "localhost", "/test/batch")
+      .sendBuffer(ids.toBuffer())
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(200, response.statusCode());
+        assertEquals("application/x-ndjson", response.getHeader("content-type"));
+
+        List<JsonObject> lines = lines(response.body());
+        assertEquals(100, lines.size());
+        Set<Integer> indexes = new HashSet<>();
+        for (JsonObject line : lines) {
+          int index = line.getInteger("index");
+          indexes.add(index);
+          JsonObject body = line.getJsonObject("body");
+          assertEquals("Post " + (index + 1), body.getString("post_title"));
+          assertEquals("User " + ((index + 1) % 5), body.getString("author_name"));
+        }
+        assertEquals(100, indexes.size());
+        assertEquals(100, postCalls.get());
+        assertEquals(5, userCalls.get());
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testItemsMayBeParameterObjectsAndRepeat(VertxTestContext testContext) {
+    JsonArray items = new JsonArray()
+      .add(new JsonObject().put("id", 7))
+      .add(new JsonObject().put("id", 7))
+      .add(12);
+
+    client.post(GATEWAY_PORT, "localhost", "/test/batch")
+      .sendBuffer(items.toBuffer())
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(3, lines(response.body()).size());
+        assertEquals(2, postCalls.get());
+        assertEquals(1, userCalls.get());
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testFailedItemIsReportedOnItsLine(VertxTestContext testContext) {
+    JsonArray items = new JsonArray().add(1).add(new JsonObject());
+
+    client.post(GATEWAY_PORT, "localhost", "/test/batch")
+      .sendBuffer(items.toBuffer())
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(200, response.statusCode());
+        JsonObject failed = lines(response.body()).stream()
+          .filter(line -> line.getInteger("index") == 1)
+          .findFirst().orElseThrow();
+        assertTrue(failed.getBoolean("error"));
+        assertEquals("MISSING_PARAMETER", failed.getString("errorCode"));
+        assertEquals(400, failed.getInteger("statusCode"));
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testRejectsInvalidAndOversizedBatches(VertxTestContext testContext) {
+    JsonArray tooMany = new JsonArray();
+    for (int i = 0; i < 151; i++) {
+      tooMany.add(i);
+    }
+
+    client.post(GATEWAY_PORT, "localhost", "/test/batch")
+      .sendBuffer(Buffer.buffer("{\"id\": 1}"))
+      .compose(invalid -> {
+        testContext.verify(() -> assertEquals(400, invalid.statusCode()));
+        return client.post(GATEWAY_PORT, "localhost", "/test/batch").sendBuffer(tooMany.toBuffer());
+      })
+      .onComplete(testContext.succeeding(oversized -> testContext.verify(() -> {
+        assertEquals(413, oversized.statusCode());
+        assertEquals("BATCH_TOO_LARGE", oversized.bodyAsJsonObject().getString("errorCode"));
+        assertEquals(0, postCalls.get());
+        testContext.completeNow();
+      })));
+  }
+}
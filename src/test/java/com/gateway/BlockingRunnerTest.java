@@ -0,0 +1,91 @@
+package com.gateway;
+
+import com.gateway.config.AppConfig;
+import com.gateway.service.BlockingRunner;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Context;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class BlockingRunnerTest {
+
+  @Test
+  void testEventLoopModeRunsOnWorkerAndCompletesOnCaller(Vertx vertx, VertxTestContext testContext) {
+    Context context = vertx.getOrCreateContext();
+    AtomicReference<String> taskThread = new AtomicReference<>();
+
+    context.runOnContext(v -> {
+      BlockingRunner runner = new BlockingRunner(vertx, false);
+      assertFalse(runner.usesVirtualThreads());
+      runner.run(() -> {
+        taskThread.set(Thread.currentThread().getName());
+        return "done";
+      }).onComplete(testContext.succeeding(result -> testContext.verify(() -> {
+        assertEquals("done", result);
+        assertTrue(taskThread.get().startsWith("vert.x-worker-thread"));
+        assertSame(context, Vertx.currentContext());
+        testContext.completeNow();
+      })));
+    });
+  }
+
+  @Test
+  void testTaskExceptionFailsFuture(Vertx vertx, VertxTestContext testContext) {
+    new BlockingRunner(vertx, true).run(() -> {
+      throw new IllegalStateException("lookup failed");
+    }).onComplete(testContext.failing(error -> testContext.verify(() -> {
+      assertInstanceOf(IllegalStateException.class, error);
+      assertEquals("lookup failed", error.getMessage());
+      testContext.completeNow();
+    })));
+  }
+
+  @Test
+  @EnabledForJreRange(max = JRE.JAVA_20)
+  void testVirtualThreadModeFallsBackBeforeJava21() {
+    assertFalse(BlockingRunner.isVirtualThreadAvailable());
+    assertEquals(ThreadingModel.EVENT_LOOP,
+      AppConfig.resolveThreadingModel(new JsonObject().put("verticle.threading.model", "virtual_thread")));
+  }
+
+  @Test
+  void testUnknownThreadingModelIsRejected() {
+    assertThrows(IllegalArgumentException.class,
+      () -> AppConfig.resolveThreadingModel(new JsonObject().put("verticle.threading.model", "fibers")));
+  }
+
+  @Test
+  @EnabledForJreRange(min = JRE.JAVA_21)
+  void testVirtualThreadVerticleAwaitsBlockingWork(Vertx vertx, VertxTestContext testContext) {
+    AtomicReference<String> awaited = new AtomicReference<>();
+    vertx.deployVerticle(new AbstractVerticle() {
+      @Override
+      public void start() {
+        BlockingRunner runner = new BlockingRunner(vertx, true);
+        assertTrue(runner.usesVirtualThreads());
+        awaited.set(Future.await(runner.run(() -> {
+          Thread.sleep(20);
+          return "slept";
+        })));
+      }
+    }, new DeploymentOptions().setThreadingModel(ThreadingModel.VIRTUAL_THREAD))
+      .onComplete(testContext.succeeding(id -> testContext.verify(() -> {
+        assertEquals("slept", awaited.get());
+        testContext.completeNow();
+      })));
+  }
+}
@@ -0,0 +1,183 @@
+package com.gateway;
+
+import com.gateway.aggregate.AggregationEngine;
+import com.gateway.config.AppConfig;
+import com.gateway.config.ConfigHolder;
+import com.gateway.config.ConfigWatcher;
+import com.gateway.service.SharedResources;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class ConfigWatcherTest {
+
+  private static final String BASE = "http://localhost:8099";
+
+  @TempDir
+  Path dir;
+
+  private Vertx vertx;
+  private Path file;
+  private ConfigWatcher watcher;
+
+  @BeforeEach
+  void setup(VertxTestContext testContext) throws IOException {
+    vertx = Vertx.vertx();
+    file = dir.resolve("config.json");
+    write(settings(1000, "/posts/{id}"));
+
+    Router router = Router.router(vertx);
+    router.get("/posts/:id").handler(ctx -> ctx.json(new JsonObject().put("title", "Post " + ctx.pathParam("id"))));
+    router.get("/v2/posts/:id").handler(ctx -> ctx.json(new JsonObject().put("title", "V2 " + ctx.pathParam("id"))));
+    vertx.createHttpServer()
+      .requestHandler(router)
+      .listen(8099)
+      .onComplete(testContext.succeedingThenComplete());
+  }
+
+  @AfterEach
+  void cleanup(VertxTestContext testContext) {
+    if (watcher != null) {
+      watcher.stop();
+    }
+    vertx.close(testContext.succeedingThenComplete());
+  }
+
+  private JsonObject settings(int httpTimeout, String postsPath) {
+    return new JsonObject()
+      .put("http.timeout", httpTimeout)
+      .put("aggregate.routes", new JsonArray().add(new JsonObject()
+        .put("path", "/posts/:id")
+        .put("upstreams", new JsonArray().add(new JsonObject()
+          .put("name", "post")
+          .put("url", BASE + postsPath)
+          .put("fields", new JsonObject().put("post_title", "title"))))));
+  }
+
+  private void write(JsonObject json) throws IOException {
+    Files.writeString(file, json.encodePrettily());
+  }
+
+  private Future<ConfigHolder> startWatcher() {
+    watcher = new ConfigWatcher(vertx, new JsonObject()
+      .put("config.path", file.toString())
+      .put("config.scan.period.ms", 50));
+    return watcher.start();
+  }
+
+  private Future<AppConfig> awaitChange(ConfigHolder holder, Predicate<AppConfig> condition) {
+    Promise<AppConfig> promise = Promise.promise();
+    vertx.setPeriodic(20, id -> {
+      if (condition.test(holder.current())) {
+        vertx.cancelTimer(id);
+        promise.tryComplete(holder.current());
+      }
+    });
+    return promise.future();
+  }
+
+  @Test
+  void testFileChangeSwapsSnapshot(VertxTestContext testContext) {
+    startWatcher().onComplete(testContext.succeeding(holder -> {
+      AppConfig initial = holder.current();
+      testContext.verify(() -> assertEquals(1000, initial.getHttpTimeout()));
+
+      vertx.executeBlocking(() -> {
+        write(settings(2500, "/posts/{id}"));
+        return null;
+      });
+      awaitChange(holder, config -> config.getHttpTimeout() == 2500)
+        .onComplete(testContext.succeeding(updated -> testContext.verify(() -> {
+          assertNotSame(initial, updated);
+          assertEquals(1000, initial.getHttpTimeout());
+          testContext.completeNow();
+        })));
+    }));
+  }
+
+  @Test
+  void testInvalidChangeKeepsCurrentSnapshot(VertxTestContext testContext) {
+    startWatcher().onComplete(testContext.succeeding(holder -> {
+      AppConfig initial = holder.current();
+
+      vertx.executeBlocking(() -> {
+        write(settings(1000, "/posts/{id}").put("aggregate.routes", new JsonArray()
+          .add(new JsonObject().put("path", "/broken").put("upstreams", new JsonArray()
+            .add(new JsonObject().put("name", "a").put("url", BASE + "/{b.id}").put("dependsOn", new JsonArray().add("b")))))));
+        return null;
+      });
+      vertx.setTimer(500, id -> testContext.verify(() -> {
+        assertSame(initial, holder.current());
+        testContext.completeNow();
+      }));
+    }));
+  }
+
+  @Test
+  void testInFlightRequestKeepsItsSnapshot(VertxTestContext testContext) {
+    startWatcher().onComplete(testContext.succeeding(holder -> {
+      AppConfig before = holder.current();
+      AggregationEngine engine = new AggregationEngine(vertx, holder);
+
+      vertx.executeBlocking(() -> {
+        write(settings(1000, "/v2/posts/{id}"));
+        return null;
+      });
+      awaitChange(holder, config -> config != before)
+        .compose(after -> engine.execute(before, before.getAggregateRoute("/posts/:id"), Map.of("id", "7")::get)
+          .compose(old -> engine.execute(after.getAggregateRoute("/posts/:id"), Map.of("id", "7")::get)
+            .map(current -> new JsonObject().put("old", old).put("current", current))))
+        .onComplete(testContext.succeeding(results -> testContext.verify(() -> {
+          assertEquals("Post 7", results.getJsonObject("old").getString("post_title"));
+          assertEquals("V2 7", results.getJsonObject("current").getString("post_title"));
+          testContext.completeNow();
+        })));
+    }));
+  }
+
+  @Test
+  void testInstancesShareOneWatcherPerDeploymentConfig(VertxTestContext testContext) {
+    SharedResources shared = SharedResources.get(vertx);
+    JsonObject deployment = new JsonObject().put("config.path", file.toString());
+    JsonObject other = deployment.copy().put("server.port", 8114);
+
+    Future.all(shared.configs(deployment), shared.configs(deployment.copy()), shared.configs(other))
+      .compose(all -> {
+        testContext.verify(() -> {
+          assertSame(all.resultAt(0), all.resultAt(1));
+          assertNotSame(all.resultAt(0), all.resultAt(2));
+        });
+        ConfigHolder first = all.resultAt(0);
+        shared.releaseConfigs(deployment);
+        return shared.configs(deployment).compose(same -> {
+          testContext.verify(() -> assertSame(first, same));
+          shared.releaseConfigs(deployment);
+          shared.releaseConfigs(deployment);
+          return shared.configs(deployment);
+        }).map(fresh -> {
+          testContext.verify(() -> assertNotSame(first, fresh));
+          return fresh;
+        });
+      })
+      .onComplete(testContext.succeedingThenComplete());
+  }
+}
@@ -0,0 +1,70 @@
+package com.gateway;
+
+import com.gateway.logging.AsyncLog;
+import com.gateway.logging.ErrorLog;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorLogTest {
+
+  static List<JsonObject> awaitLines(AsyncLog log, ByteArrayOutputStream bytes, long lines) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (log.getWritten() < lines && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(lines, log.getWritten());
+    List<JsonObject> events = new ArrayList<>();
+    for (String line : bytes.toString(StandardCharsets.UTF_8).split("\n")) {
+      events.add(new JsonObject(line));
+    }
+    return events;
+  }
+
+  @Test
+  void testLinesAreRateLimitedPerKey() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    AsyncLog sink = new AsyncLog(new PrintStream(bytes, true, StandardCharsets.UTF_8), 100);
+    ErrorLog log = new ErrorLog(sink, 2, TimeUnit.HOURS.toNanos(1));
+    RuntimeException error = new RuntimeException("down");
+
+    for (int i = 0; i < 10; i++) {
+      log.error("USER_API_ERROR", "Error fetching user data", error, true);
+    }
+    log.error("POST_API_ERROR", "Error fetching post data", error, false);
+
+    List<JsonObject> events = awaitLines(sink, bytes, 3);
+    assertEquals(8, log.getSuppressed());
+    assertEquals("USER_API_ERROR", events.get(0).getString("key"));
+    assertEquals("ERROR", events.get(0).getString("level"));
+    assertEquals("down", events.get(0).getString("error"));
+    assertTrue(events.get(0).getString("stack").contains("at com.gateway.ErrorLogTest"));
+    assertNull(events.get(1).getString("stack"), "one stack trace per interval");
+    assertEquals("Error fetching post data", events.get(2).getString("msg"));
+  }
+
+  @Test
+  void testSuppressedCountIsReportedWithNextLine() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    AsyncLog sink = new AsyncLog(new PrintStream(bytes, true, StandardCharsets.UTF_8), 100);
+    ErrorLog log = new ErrorLog(sink, 1, TimeUnit.MILLISECONDS.toNanos(50));
+
+    log.error("KEY", "first", null, false);
+    log.error("KEY", "second", null, false);
+    log.error("KEY", "third", null, false);
+    Thread.sleep(60);
+    log.error("KEY", "fourth", null, false);
+
+    List<JsonObject> events = awaitLines(sink, bytes, 2);
+    assertEquals("fourth", events.get(1).getString("msg"));
+    assertEquals(2, events.get(1).getLong("suppressed"));
+  }
+}
@@ -2,6 +2,11 @@ package com.gateway;
 
 import com.gateway.exception.ApiException;
 import com.gateway.handler.GlobalExceptionHandler;
+import com.gateway.handler.ResponseWriter;
+import com.gateway.service.ApiService;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
@@ -19,6 +24,9 @@ class GlobalExceptionHandlerTest {
   @Mock
   private RoutingContext context;
 
+  @Mock
+  private HttpServerRequest request;
+
   @Mock
   private HttpServerResponse response;
 
@@ -28,9 +36,11 @@ class GlobalExceptionHandlerTest {
   void setup() {
     MockitoAnnotations.openMocks(this);
     handler = new GlobalExceptionHandler();
+    when(context.request()).thenReturn(request);
     when(context.response()).thenReturn(response);
     when(response.setStatusCode(anyInt())).thenReturn(response);
     when(response.putHeader(anyString(), anyString())).thenReturn(response);
+    when(response.end(any(Buffer.class))).thenReturn(Promise.<Void>promise().future());
   }
 
   @Test
@@ -42,16 +52,27 @@ class GlobalExceptionHandlerTest {
     handler.handle(context);
 
     verify(response).setStatusCode(503);
-    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<Buffer> captor = ArgumentCaptor.forClass(Buffer.class);
     verify(response).end(captor.capture());
 
-    JsonObject result = new JsonObject(captor.getValue());
+    JsonObject result = captor.getValue().toJsonObject();
     assertTrue(result.getBoolean("error"));
     assertEquals("API failed", result.getString("message"));
     assertEquals("SERVICE_UNAVAILABLE", result.getString("errorCode"));
     assertEquals(503, result.getInteger("statusCode"));
   }
 
+  @Test
+  void testUpstreamOverloadedGetsRetryAfter() {
+    when(context.failure()).thenReturn(ApiService.UPSTREAM_OVERLOADED);
+    when(context.statusCode()).thenReturn(-1);
+
+    new GlobalExceptionHandler(new ResponseWriter(), null, 3).handle(context);
+
+    verify(response).setStatusCode(503);
+    verify(response).putHeader("retry-after", "3");
+  }
+
   @Test
   void testUnknownExceptionReturns500() {
     RuntimeException ex = new RuntimeException("Something went wrong");
@@ -61,10 +82,10 @@ class GlobalExceptionHandlerTest {
     handler.handle(context);
 
     verify(response).setStatusCode(500);
-    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<Buffer> captor = ArgumentCaptor.forClass(Buffer.class);
     verify(response).end(captor.capture());
 
-    JsonObject result = new JsonObject(captor.getValue());
+    JsonObject result = captor.getValue().toJsonObject();
     assertTrue(result.getBoolean("error"));
     assertTrue(result.getString("message").contains("Internal server error"));
     assertEquals("INTERNAL_ERROR", result.getString("errorCode"));
@@ -79,10 +100,10 @@ class GlobalExceptionHandlerTest {
     handler.handle(context);
 
     verify(response).setStatusCode(500);
-    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<Buffer> captor = ArgumentCaptor.forClass(Buffer.class);
     verify(response).end(captor.capture());
 
-    JsonObject result = new JsonObject(captor.getValue());
+    JsonObject result = captor.getValue().toJsonObject();
     assertTrue(result.getBoolean("error"));
     assertEquals("An unexpected error occurred", result.getString("message"));
     assertEquals("UNKNOWN_ERROR", result.getString("errorCode"));
@@ -96,11 +117,39 @@ class GlobalExceptionHandlerTest {
 
     handler.handle(context);
 
-    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<Buffer> captor = ArgumentCaptor.forClass(Buffer.class);
     verify(response).end(captor.capture());
 
-    JsonObject result = new JsonObject(captor.getValue());
+    JsonObject result = captor.getValue().toJsonObject();
     assertNotNull(result.getLong("timestamp"));
     assertTrue(result.getLong("timestamp") > 0);
   }
+
+  @Test
+  void testStacklessExceptionIsCachedAndEncodesLikeRegularOne() {
+    ApiException cached = ApiException.stackless("User API failed", 502, "USER_API_ERROR");
+    assertEquals(0, cached.getStackTrace().length);
+    assertSame(cached.encodedPrefix(), cached.encodedPrefix());
+    when(context.failure()).thenReturn(cached);
+    when(context.statusCode()).thenReturn(-1);
+
+    handler.handle(context);
+    handler.handle(context);
+
+    verify(response, times(2)).setStatusCode(502);
+    ArgumentCaptor<Buffer> captor = ArgumentCaptor.forClass(Buffer.class);
+    verify(response, times(2)).end(captor.capture());
+
+    JsonObject expected = new JsonObject()
+      .put("error", true)
+      .put("message", "User API failed")
+      .put("errorCode", "USER_API_ERROR")
+      .put("statusCode", 502);
+    for (Buffer body : captor.getAllValues()) {
+      JsonObject result = body.toJsonObject();
+      assertTrue(result.getLong("timestamp") > 0);
+      result.remove("timestamp");
+      assertEquals(expected, result);
+    }
+  }
 }
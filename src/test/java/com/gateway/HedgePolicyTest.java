@@ -0,0 +1,121 @@
+package com.gateway;
+
+import com.gateway.config.AppConfig;
+import com.gateway.service.ApiService;
+import com.gateway.service.HedgePolicy;
+import com.gateway.service.HedgeStats;
+import com.gateway.service.SharedResources;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class HedgePolicyTest {
+
+  private static final String BASE = "http://localhost:8096";
+
+  private Vertx vertx;
+  private final AtomicInteger slowCalls = new AtomicInteger();
+
+  @BeforeEach
+  void setup(VertxTestContext testContext) {
+    vertx = Vertx.vertx();
+
+    Router router = Router.router(vertx);
+    router.get("/fast").handler(ctx -> ctx.json(new JsonObject().put("ok", true)));
+    router.get("/slow").handler(ctx -> {
+      if (slowCalls.incrementAndGet() == 1) {
+        vertx.setTimer(2000, id -> ctx.json(new JsonObject().put("attempt", 1)));
+      } else {
+        ctx.json(new JsonObject().put("attempt", 2));
+      }
+    });
+
+    vertx.createHttpServer()
+      .requestHandler(router)
+      .listen(8096)
+      .onComplete(testContext.succeedingThenComplete());
+  }
+
+  @AfterEach
+  void cleanup(VertxTestContext testContext) {
+    vertx.close(testContext.succeedingThenComplete());
+  }
+
+  @Test
+  void testNoDelayUntilEnoughSamples() {
+    HedgePolicy policy = new HedgePolicy(95, 5, 3, 10);
+
+    policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(40));
+    policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(40));
+    assertEquals(-1, policy.hedgeDelayMs());
+
+    policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(40));
+    assertEquals(40, policy.hedgeDelayMs());
+  }
+
+  @Test
+  void testDelayTracksPercentileWithFloor() {
+    HedgePolicy policy = new HedgePolicy(90, 5, 10, 10);
+    for (int i = 1; i <= 10; i++) {
+      policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(i * 10));
+    }
+    assertEquals(90, policy.hedgeDelayMs());
+
+    HedgePolicy fast = new HedgePolicy(90, 5, 10, 10);
+    for (int i = 0; i < 10; i++) {
+      fast.recordLatency(TimeUnit.MICROSECONDS.toNanos(200));
+    }
+    assertEquals(5, fast.hedgeDelayMs());
+  }
+
+  @Test
+  void testBudgetCapsHedgesToFractionOfRequests() {
+    HedgePolicy policy = new HedgePolicy(95, 5, 1, 10);
+
+    int hedges = 0;
+    for (int i = 0; i < 100; i++) {
+      policy.onRequest();
+      if (policy.tryAcquireHedge()) {
+        hedges++;
+      }
+    }
+
+    assertEquals(10, hedges);
+  }
+
+  @Test
+  void testHedgeWinsWhenPrimaryIsSlow(VertxTestContext testContext) {
+    AppConfig config = new AppConfig(vertx, new JsonObject()
+      .put("cache.enabled", false)
+      .put("coalesce.enabled", false)
+      .put("hedge.enabled", true)
+      .put("hedge.min.samples", 1)
+      .put("hedge.min.delay.ms", 20)
+      .put("hedge.budget.percent", 100));
+    ApiService apiService = new ApiService(vertx, config);
+    HedgeStats stats = SharedResources.get(vertx).hedgeStats("test");
+
+    long start = System.nanoTime();
+    apiService.fetch("test", BASE + "/fast")
+      .compose(warmup -> apiService.fetch("test", BASE + "/slow"))
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(2, response.bodyAsJsonObject().getInteger("attempt"));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1500));
+        assertEquals(1, stats.getSent());
+        assertEquals(1, stats.getWon());
+        testContext.completeNow();
+      })));
+  }
+}
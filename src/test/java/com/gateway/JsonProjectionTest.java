@@ -0,0 +1,86 @@
+package com.gateway;
+
+import com.gateway.json.JsonProjection;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonProjectionTest {
+
+  private static final Buffer USER = new JsonObject()
+    .put("id", 1)
+    .put("name", "Leanne Graham")
+    .put("address", new JsonObject()
+      .put("street", "Kulas Light")
+      .put("geo", new JsonObject().put("lat", "-37.3159").put("lng", "81.1496")))
+    .put("tags", new JsonArray().add("a").add("b"))
+    .put("active", true)
+    .toBuffer();
+
+  @Test
+  void testExtractsTopLevelFields() {
+    JsonObject result = JsonProjection.of("name", "id").extract(USER);
+
+    assertEquals("Leanne Graham", result.getString("name"));
+    assertEquals(1, result.getInteger("id"));
+    assertEquals(2, result.size());
+  }
+
+  @Test
+  void testExtractsNestedPathsAndContainers() {
+    JsonObject result = JsonProjection.of("address.geo.lat", "tags", "active").extract(USER);
+
+    assertEquals("-37.3159", result.getString("address.geo.lat"));
+    assertEquals(new JsonArray().add("a").add("b"), result.getJsonArray("tags"));
+    assertTrue(result.getBoolean("active"));
+  }
+
+  @Test
+  void testPathInsideAnotherRequestedPath() {
+    JsonObject result = JsonProjection.of("address", "address.geo.lat", "address.zipcode", "id").extract(USER);
+
+    assertEquals("Kulas Light", result.getJsonObject("address").getString("street"));
+    assertEquals("-37.3159", result.getString("address.geo.lat"));
+    assertFalse(result.containsKey("address.zipcode"));
+    assertEquals(1, result.getInteger("id"));
+  }
+
+  @Test
+  void testNestedPathInsideRequestedObjectCountsTowardsEarlyExit() {
+    Buffer truncated = Buffer.buffer("{\"geo\":{\"lat\":\"1\"},\"body\":");
+
+    JsonObject result = JsonProjection.of("geo", "geo.lat").extract(truncated);
+
+    assertEquals("1", result.getString("geo.lat"));
+  }
+
+  @Test
+  void testMissingPathsAreAbsent() {
+    JsonObject result = JsonProjection.of("title", "address.zipcode").extract(USER);
+
+    assertTrue(result.isEmpty());
+  }
+
+  @Test
+  void testStopsOnceAllPathsFound() {
+    Buffer truncated = Buffer.buffer("{\"title\":\"first\",\"body\":");
+
+    assertEquals("first", JsonProjection.of("title").extract(truncated).getString("title"));
+  }
+
+  @Test
+  void testEmptyBodyYieldsEmptyObject() {
+    assertTrue(JsonProjection.of("title").extract(Buffer.buffer()).isEmpty());
+    assertTrue(JsonProjection.of("title").extract(null).isEmpty());
+  }
+
+  @Test
+  void testRejectsNonObjectBody() {
+    assertThrows(DecodeException.class, () -> JsonProjection.of("title").extract(Buffer.buffer("[1,2]")));
+    assertThrows(DecodeException.class, () -> JsonProjection.of("title").extract(Buffer.buffer("{\"id\": 1,")));
+  }
+}
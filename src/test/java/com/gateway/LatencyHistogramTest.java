@@ -0,0 +1,114 @@
+package com.gateway;
+
+import com.gateway.metrics.LatencyHistogram;
+import com.gateway.metrics.MetricsRegistry;
+import com.gateway.metrics.PrometheusExporter;
+import com.gateway.service.SharedResources;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+  @Test
+  void testQuantilesStayWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.recordMicros(i * 100L);
+    }
+
+    assertEquals(1000, histogram.getCount());
+    assertEquals(50_050_000L, histogram.getSumMicros());
+    assertWithin(50_000, histogram.quantileMicros(0.5));
+    assertWithin(99_000, histogram.quantileMicros(0.99));
+    assertWithin(100_000, histogram.quantileMicros(1.0));
+  }
+
+  @Test
+  void testSmallAndHugeValuesAreClamped() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.recordMicros(-5);
+    histogram.recordMicros(3);
+    histogram.recordNanos(TimeUnit.DAYS.toNanos(30));
+
+    assertEquals(0, histogram.quantileMicros(0.1));
+    assertEquals(3, histogram.quantileMicros(0.5));
+    assertTrue(histogram.quantileMicros(1.0) > TimeUnit.HOURS.toMicros(1));
+  }
+
+  @Test
+  void testEmptyHistogramReportsZero() {
+    assertEquals(0, new LatencyHistogram().quantileMicros(0.99));
+  }
+
+  @Test
+  void testCumulativeCountsPerBound() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.recordMicros(500);
+    histogram.recordMicros(4_000);
+    histogram.recordMicros(4_000);
+    histogram.recordMicros(2_000_000);
+
+    long[] cumulative = histogram.cumulativeCounts(new long[] {1_000, 5_000, 1_000_000});
+
+    assertEquals(1, cumulative[0]);
+    assertEquals(3, cumulative[1]);
+    assertEquals(3, cumulative[2]);
+    assertEquals(4, cumulative[3]);
+  }
+
+  @Test
+  void testExporterRendersRecordedMetrics() {
+    Vertx vertx = Vertx.vertx();
+    try {
+      SharedResources shared = SharedResources.get(vertx);
+      MetricsRegistry metrics = shared.metrics();
+      metrics.upstreamLatency("posts").recordMicros(2_000);
+      metrics.recordError("POST_API_ERROR");
+      metrics.recordError("POST_API_ERROR");
+      metrics.recordUpstreamError("posts", "POST_API_ERROR");
+      metrics.recordBreakerTransition("posts-breaker", "open");
+      shared.poolStats("posts", 10);
+      shared.poolStats("users", 10);
+      shared.concurrencyLimiter("posts", 10, 1, 100);
+      shared.concurrencyLimiter("users", 10, 1, 100);
+
+      String text = PrometheusExporter.render(shared);
+
+      assertTrue(text.contains("# TYPE gateway_upstream_latency_seconds histogram"));
+      assertTrue(text.contains("gateway_upstream_latency_seconds_bucket{upstream=\"posts\",le=\"0.001\"} 0"));
+      assertTrue(text.contains("gateway_upstream_latency_seconds_bucket{upstream=\"posts\",le=\"0.0025\"} 1"));
+      assertTrue(text.contains("gateway_upstream_latency_seconds_bucket{upstream=\"posts\",le=\"+Inf\"} 1"));
+      assertTrue(text.contains("gateway_upstream_latency_seconds_count{upstream=\"posts\"} 1"));
+      assertTrue(text.contains("gateway_errors_total{code=\"POST_API_ERROR\"} 2"));
+      assertTrue(text.contains("gateway_upstream_errors_total{upstream=\"posts\",code=\"POST_API_ERROR\"} 1"));
+      assertTrue(text.contains("gateway_circuit_breaker_transitions_total{breaker=\"posts-breaker\",state=\"open\"} 1"));
+      assertTrue(text.contains("gateway_event_loop_lag_seconds_count 0"));
+      assertFamiliesAreContiguous(text);
+    } finally {
+      vertx.close();
+    }
+  }
+
+  private static void assertFamiliesAreContiguous(String text) {
+    Set<String> finished = new HashSet<>();
+    String current = null;
+    for (String line : text.split("\n")) {
+      String family = line.startsWith("# ") ? line.split(" ")[2] : line.split("[{ ]")[0].replaceAll("_(bucket|sum|count)$", "");
+      if (!family.equals(current)) {
+        assertTrue(finished.add(family), "samples of " + family + " are not contiguous");
+        current = family;
+      }
+    }
+  }
+
+  private static void assertWithin(long expected, long actual) {
+    assertTrue(Math.abs(actual - expected) <= expected / 8,
+      "expected ~" + expected + " but was " + actual);
+  }
+}
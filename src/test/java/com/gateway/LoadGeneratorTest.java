@@ -0,0 +1,78 @@
+package com.gateway;
+
+import com.gateway.loadtest.LoadGenerator;
+import com.gateway.loadtest.StubUpstreamVerticle;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class LoadGeneratorTest {
+
+  private static final int PORT = 8098;
+
+  private Vertx vertx;
+  private HttpClient client;
+
+  @BeforeEach
+  void setup(VertxTestContext testContext) {
+    vertx = Vertx.vertx();
+    client = vertx.createHttpClient(new HttpClientOptions().setDefaultPort(PORT).setMaxPoolSize(16));
+    JsonObject profile = new JsonObject()
+      .put("latency.ms", 20)
+      .put("users", new JsonObject().put("error.rate", 1.0).put("latency.ms", 0))
+      .put("posts", new JsonObject().put("payload.bytes", 2048).put("drip.chunk.bytes", 1024));
+    vertx.deployVerticle(new StubUpstreamVerticle(PORT, profile))
+      .onComplete(testContext.succeedingThenComplete());
+  }
+
+  @AfterEach
+  void cleanup(VertxTestContext testContext) {
+    vertx.close(testContext.succeedingThenComplete());
+  }
+
+  @Test
+  void testSendsAtTargetRateAndMeasuresInjectedLatency(VertxTestContext testContext) {
+    new LoadGenerator(vertx, client, "/posts/1", 50, 1000, 5000).run()
+      .onComplete(testContext.succeeding(report -> testContext.verify(() -> {
+        assertEquals(50, report.getRequests());
+        assertEquals(50, report.toJson().getLong("ok"));
+        assertTrue(report.getCorrected().quantileMicros(0.5) >= 20_000);
+        assertTrue(report.getCorrected().quantileMicros(0.5) >= report.getService().quantileMicros(0.5));
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testInjectedErrorsAreReported(VertxTestContext testContext) {
+    new LoadGenerator(vertx, client, "/users/1", 20, 500, 5000).run()
+      .onComplete(testContext.succeeding(report -> testContext.verify(() -> {
+        assertEquals(10, report.getRequests());
+        assertEquals(10, report.toJson().getLong("serverErrors"));
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testSlowDripDeliversWholeBody(VertxTestContext testContext) {
+    client.request(HttpMethod.GET, "/posts/1")
+      .compose(request -> request.send())
+      .compose(response -> response.body())
+      .onComplete(testContext.succeeding(body -> testContext.verify(() -> {
+        JsonObject post = body.toJsonObject();
+        assertEquals("stub post title", post.getString("title"));
+        assertTrue(body.length() >= 2000);
+        testContext.completeNow();
+      })));
+  }
+}
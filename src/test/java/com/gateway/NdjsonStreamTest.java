@@ -0,0 +1,114 @@
+package com.gateway;
+
+import com.gateway.aggregate.AggregationEngine;
+import com.gateway.aggregate.RouteDefinition;
+import com.gateway.config.AppConfig;
+import com.gateway.handler.AggregateHandler;
+import com.gateway.handler.NdjsonStream;
+import com.gateway.handler.ResponseWriter;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(VertxExtension.class)
+class NdjsonStreamTest {
+
+  private static final int UPSTREAM_PORT = 8102;
+  private static final int GATEWAY_PORT = 8103;
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testLinesAreHeldWhileWriteQueueIsFull() {
+    HttpServerResponse response = mock(HttpServerResponse.class, RETURNS_SELF);
+    ArgumentCaptor<Handler<Void>> drain = ArgumentCaptor.forClass(Handler.class);
+    NdjsonStream stream = new NdjsonStream(response);
+    verify(response).drainHandler(drain.capture());
+    Runnable onDrain = mock(Runnable.class);
+    stream.onDrain(onDrain);
+
+    when(response.writeQueueFull()).thenReturn(true);
+    stream.write(new JsonObject().put("n", 1));
+    stream.write(new JsonObject().put("n", 2));
+    stream.end();
+    assertTrue(stream.isFull());
+    verify(response, never()).write(any(Buffer.class));
+    verify(response, never()).end();
+
+    when(response.writeQueueFull()).thenReturn(false);
+    drain.getValue().handle(null);
+
+    InOrder order = inOrder(response);
+    order.verify(response).write(Buffer.buffer("{\"n\":1}\n"));
+    order.verify(response).write(Buffer.buffer("{\"n\":2}\n"));
+    order.verify(response).end();
+    verify(onDrain, never()).run();
+  }
+
+  @Test
+  void testStreamedAggregateWritesFastUpstreamBeforeSlowOneResolves(Vertx vertx, VertxTestContext testContext) {
+    Promise<Void> firstLineReceived = Promise.promise();
+    Router upstream = Router.router(vertx);
+    upstream.get("/fast").handler(ctx -> ctx.json(new JsonObject().put("title", "Fast")));
+    upstream.get("/slow").handler(ctx ->
+      firstLineReceived.future().onComplete(v -> ctx.json(new JsonObject().put("name", "Slow"))));
+
+    String base = "http://localhost:" + UPSTREAM_PORT;
+    RouteDefinition route = RouteDefinition.fromJson(new JsonObject()
+      .put("path", "/stream")
+      .put("upstreams", new JsonArray()
+        .add(new JsonObject().put("name", "fast").put("url", base + "/fast")
+          .put("fields", new JsonObject().put("post_title", "title")))
+        .add(new JsonObject().put("name", "slow").put("url", base + "/slow")
+          .put("fields", new JsonObject().put("author_name", "name")))));
+    AggregationEngine engine = new AggregationEngine(vertx, new AppConfig(vertx, new JsonObject()));
+    AggregateHandler handler = new AggregateHandler(engine, route, new ResponseWriter());
+
+    Router gateway = Router.router(vertx);
+    gateway.get("/stream").handler(handler::handle);
+
+    List<JsonObject> lines = new ArrayList<>();
+    HttpClient client = vertx.createHttpClient();
+    vertx.createHttpServer().requestHandler(upstream).listen(UPSTREAM_PORT)
+      .compose(s -> vertx.createHttpServer().requestHandler(gateway).listen(GATEWAY_PORT))
+      .compose(s -> client.request(HttpMethod.GET, GATEWAY_PORT, "localhost", "/stream"))
+      .compose(request -> request.putHeader("accept", NdjsonStream.CONTENT_TYPE).send())
+      .onComplete(testContext.succeeding(response -> {
+        testContext.verify(() -> assertEquals(NdjsonStream.CONTENT_TYPE, response.getHeader("content-type")));
+        response.handler(chunk -> {
+          for (String line : chunk.toString().split("\n")) {
+            lines.add(new JsonObject(line));
+          }
+          firstLineReceived.tryComplete();
+        });
+        response.endHandler(v -> testContext.verify(() -> {
+          assertEquals(3, lines.size());
+          assertEquals("fast", lines.get(0).getString("upstream"));
+          assertEquals("Fast", lines.get(0).getJsonObject("data").getString("post_title"));
+          assertEquals("slow", lines.get(1).getString("upstream"));
+          assertEquals("Slow", lines.get(1).getJsonObject("data").getString("author_name"));
+          assertTrue(lines.get(2).getBoolean("done"));
+          assertFalse(lines.get(2).containsKey("error"));
+          testContext.completeNow();
+        }));
+      }));
+  }
+}
@@ -0,0 +1,198 @@
+package com.gateway;
+
+import com.gateway.config.AppConfig;
+import com.gateway.config.ConfigHolder;
+import com.gateway.config.ProxyRoute;
+import com.gateway.handler.GlobalExceptionHandler;
+import com.gateway.handler.ProxyHandler;
+import com.gateway.service.SharedResources;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.Checkpoint;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class ProxyHandlerTest {
+
+  private static final int UPSTREAM_PORT = 8109;
+  private static final int GATEWAY_PORT = 8110;
+
+  private final AtomicLong upstreamBytes = new AtomicLong();
+  private Checkpoint upstreamClosed;
+  private ConfigHolder configs;
+
+  @BeforeEach
+  void setup(Vertx vertx, VertxTestContext testContext) {
+    Router upstream = Router.router(vertx);
+    upstream.get("/v1/comments/7").handler(ctx -> ctx.response()
+      .putHeader("x-upstream-seen-host", String.valueOf(ctx.request().getHeader("x-forwarded-host")))
+      .putHeader("x-upstream-seen-for", String.valueOf(ctx.request().getHeader("x-forwarded-for")))
+      .putHeader("x-upstream-seen-auth", String.valueOf(ctx.request().getHeader("authorization")))
+      .putHeader("x-upstream-seen-query", String.valueOf(ctx.request().query()))
+      .putHeader("x-internal", "secret")
+      .end(new JsonObject().put("id", 7).encode()));
+    upstream.post("/v1/comments/echo").handler(ctx -> {
+      ctx.response().setChunked(true);
+      ctx.request().handler(chunk -> {
+        upstreamBytes.addAndGet(chunk.length());
+        ctx.response().write(chunk);
+      });
+      ctx.request().endHandler(v -> ctx.response().end());
+    });
+    upstream.get("/v1/comments/slow").handler(ctx -> {
+      ctx.response().setChunked(true).write("first");
+      ctx.response().closeHandler(v -> upstreamClosed.flag());
+    });
+    upstream.get("/v1/comments/trickle").handler(ctx -> {
+      ctx.response().setChunked(true).write("first");
+      vertx.setTimer(500, id -> ctx.response().end("second"));
+    });
+
+    AppConfig config = new AppConfig(vertx, new JsonObject().put("api.proxies", proxies()));
+    ProxyRoute route = config.getProxyRoutes().get("comments");
+    configs = new ConfigHolder(config);
+    ProxyHandler handler = new ProxyHandler(configs, route, SharedResources.get(vertx).metrics());
+
+    Router gateway = Router.router(vertx);
+    gateway.route(route.getPath() + "/*").handler(handler::handle);
+    gateway.route().failureHandler(new GlobalExceptionHandler()::handle);
+
+    vertx.createHttpServer().requestHandler(upstream).listen(UPSTREAM_PORT)
+      .compose(s -> vertx.createHttpServer().requestHandler(gateway).listen(GATEWAY_PORT))
+      .onComplete(testContext.succeedingThenComplete());
+  }
+
+  private static JsonObject proxies() {
+    return new JsonObject().put("comments", new JsonObject()
+      .put("path", "/comments")
+      .put("url", "http://localhost:" + UPSTREAM_PORT + "/v1/comments/")
+      .put("request.headers", new JsonObject().put("authorization", "Bearer upstream"))
+      .put("response.headers", new JsonObject().putNull("x-internal").put("x-proxied-by", "gateway")));
+  }
+
+  @Test
+  void testForwardsAndRewritesHeaders(Vertx vertx, VertxTestContext testContext) {
+    WebClient.create(vertx).get(GATEWAY_PORT, "localhost", "/comments/7?expand=true")
+      .putHeader("authorization", "Bearer client")
+      .putHeader("connection", "keep-alive")
+      .send()
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(200, response.statusCode());
+        assertEquals(7, response.bodyAsJsonObject().getInteger("id"));
+        assertEquals("localhost:" + GATEWAY_PORT, response.getHeader("x-upstream-seen-host"));
+        assertEquals("127.0.0.1", response.getHeader("x-upstream-seen-for"));
+        assertEquals("Bearer upstream", response.getHeader("x-upstream-seen-auth"));
+        assertEquals("expand=true", response.getHeader("x-upstream-seen-query"));
+        assertNull(response.getHeader("x-internal"));
+        assertEquals("gateway", response.getHeader("x-proxied-by"));
+        assertEquals(1, SharedResources.get(vertx).metrics().routeLatency("/comments").getCount());
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testStreamsRequestAndResponseBodies(Vertx vertx, VertxTestContext testContext) {
+    Buffer body = Buffer.buffer(new byte[4 * 1024 * 1024]);
+
+    WebClient.create(vertx).post(GATEWAY_PORT, "localhost", "/comments/echo")
+      .sendBuffer(body)
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(200, response.statusCode());
+        assertEquals(body.length(), response.body().length());
+        assertEquals(body.length(), upstreamBytes.get());
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testClientDisconnectResetsUpstream(Vertx vertx, VertxTestContext testContext) {
+    upstreamClosed = testContext.checkpoint();
+    HttpClient client = vertx.createHttpClient();
+
+    client.request(HttpMethod.GET, GATEWAY_PORT, "localhost", "/comments/slow")
+      .compose(request -> request.send()
+        .compose(response -> {
+          testContext.verify(() -> assertEquals(200, response.statusCode()));
+          return request.connection().close();
+        }))
+      .onFailure(testContext::failNow);
+  }
+
+  @Test
+  void testReloadDoesNotCutStreamInProgress(Vertx vertx, VertxTestContext testContext) {
+    Buffer received = Buffer.buffer();
+    HttpClient client = vertx.createHttpClient();
+
+    client.request(HttpMethod.GET, GATEWAY_PORT, "localhost", "/comments/trickle")
+      .compose(request -> request.send())
+      .onSuccess(response -> {
+        response.handler(chunk -> {
+          if (received.length() == 0) {
+            // What ConfigWatcher does on reload: new snapshot with its own pool, old one released.
+            AppConfig previous = configs.swap(new AppConfig(vertx, new JsonObject()
+              .put("http.timeout", 4000)
+              .put("api.proxies", proxies())));
+            previous.release();
+          }
+          received.appendBuffer(chunk);
+        });
+        response.exceptionHandler(testContext::failNow);
+        response.endHandler(v -> testContext.verify(() -> {
+          assertEquals("firstsecond", received.toString());
+          testContext.completeNow();
+        }));
+      })
+      .onFailure(testContext::failNow);
+  }
+
+  @Test
+  void testReloadedPathDoesNotChangeMountedPrefix(Vertx vertx, VertxTestContext testContext) {
+    JsonObject proxies = proxies();
+    proxies.getJsonObject("comments").put("path", "/a/path/longer/than/the/request");
+    configs.swap(new AppConfig(vertx, new JsonObject().put("api.proxies", proxies))).release();
+
+    WebClient.create(vertx).get(GATEWAY_PORT, "localhost", "/comments/7?expand=true")
+      .send()
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(200, response.statusCode());
+        assertEquals(7, response.bodyAsJsonObject().getInteger("id"));
+        assertEquals("expand=true", response.getHeader("x-upstream-seen-query"));
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testUnreachableUpstreamIs502(Vertx vertx, VertxTestContext testContext) {
+    JsonObject proxies = new JsonObject().put("down", new JsonObject()
+      .put("path", "/down")
+      .put("url", "http://localhost:8105"));
+    AppConfig config = new AppConfig(vertx, new JsonObject().put("api.proxies", proxies));
+    ProxyHandler handler = new ProxyHandler(new ConfigHolder(config), config.getProxyRoutes().get("down"),
+      SharedResources.get(vertx).metrics());
+    Router gateway = Router.router(vertx);
+    gateway.route("/down/*").handler(handler::handle);
+    gateway.route().failureHandler(new GlobalExceptionHandler()::handle);
+
+    vertx.createHttpServer().requestHandler(gateway).listen(8111)
+      .compose(s -> WebClient.create(vertx).get(8111, "localhost", "/down/x").send())
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(502, response.statusCode());
+        assertEquals("PROXY_UPSTREAM_ERROR", response.bodyAsJsonObject().getString("errorCode"));
+        testContext.completeNow();
+      })));
+  }
+}
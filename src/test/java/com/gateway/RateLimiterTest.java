@@ -0,0 +1,172 @@
+package com.gateway;
+
+import com.gateway.handler.RateLimitHandler;
+import com.gateway.limit.RateLimiter;
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class RateLimiterTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void testBurstThenSteadyRate() {
+    RateLimiter limiter = new RateLimiter("test", 10, 3, 100, SECOND);
+    long now = System.nanoTime();
+
+    assertEquals(2, limiter.tryAcquire("a", now));
+    assertEquals(1, limiter.tryAcquire("a", now));
+    assertEquals(0, limiter.tryAcquire("a", now));
+    long rejected = limiter.tryAcquire("a", now);
+    assertFalse(RateLimiter.isAdmitted(rejected));
+    assertEquals(SECOND / 10, -rejected);
+
+    assertTrue(RateLimiter.isAdmitted(limiter.tryAcquire("a", now + SECOND / 10)));
+    assertFalse(RateLimiter.isAdmitted(limiter.tryAcquire("a", now + SECOND / 10)));
+    assertEquals(2, limiter.tryAcquire("b", now));
+    assertEquals(2, limiter.getRejected());
+  }
+
+  @Test
+  void testReleaseReturnsRequest() {
+    RateLimiter limiter = new RateLimiter("test", 1, 1, 100, SECOND);
+    long now = System.nanoTime();
+
+    assertTrue(RateLimiter.isAdmitted(limiter.tryAcquire("a", now)));
+    limiter.release("a");
+    assertTrue(RateLimiter.isAdmitted(limiter.tryAcquire("a", now)));
+  }
+
+  @Test
+  void testIdleKeysAreSweptAndKeyCountIsBounded() {
+    RateLimiter limiter = new RateLimiter("test", 100, 1, 2, SECOND);
+    long now = System.nanoTime();
+
+    limiter.tryAcquire("a", now);
+    limiter.tryAcquire("b", now);
+    assertTrue(RateLimiter.isAdmitted(limiter.tryAcquire("c", now)));
+    assertFalse(RateLimiter.isAdmitted(limiter.tryAcquire("c", now)), "overflow keys are still limited");
+    assertEquals(2, limiter.getTrackedKeys());
+
+    long later = now + 2 * SECOND;
+    assertEquals(0, limiter.tryAcquire("e", later));
+    assertEquals(1, limiter.getTrackedKeys());
+  }
+
+  @Test
+  void testRotatingOverflowKeysDoNotShareOneQuota() {
+    RateLimiter limiter = new RateLimiter("test", 0.001, 1, 1, SECOND);
+    long now = System.nanoTime();
+    limiter.tryAcquire("tracked", now);
+
+    int admitted = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (RateLimiter.isAdmitted(limiter.tryAcquire("rotating-" + i, now))) {
+        admitted++;
+      }
+    }
+
+    assertTrue(admitted > 32, "overflow keys should spread over many cells, admitted " + admitted);
+    assertTrue(admitted <= 64, "overflow cells are bounded, admitted " + admitted);
+    assertEquals(1, limiter.getTrackedKeys());
+  }
+
+  @Test
+  void testConcurrentAcquiresNeverExceedBurst() throws Exception {
+    RateLimiter limiter = new RateLimiter("test", 0.001, 500, 100, SECOND);
+    long now = System.nanoTime();
+    AtomicInteger admitted = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = 0; i < 1000; i++) {
+          if (RateLimiter.isAdmitted(limiter.tryAcquire("shared", now))) {
+            admitted.incrementAndGet();
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(500, admitted.get());
+    assertEquals(3500, limiter.getRejected());
+  }
+
+  @Test
+  void testHandlerRejectsWith429AndKeysByApiKey(Vertx vertx, VertxTestContext testContext) {
+    RateLimiter perKey = new RateLimiter("client", 0.01, 1, 100, SECOND);
+    RateLimitHandler handler = new RateLimitHandler(perKey, null, "X-API-Key");
+    Router router = Router.router(vertx);
+    router.route().handler(handler::handle);
+    router.get("/ok").handler(ctx -> ctx.response().end("ok"));
+    WebClient client = WebClient.create(vertx);
+
+    vertx.createHttpServer().requestHandler(router).listen(8106)
+      .compose(s -> client.get(8106, "localhost", "/ok").putHeader("X-API-Key", "alice").send())
+      .compose(first -> {
+        testContext.verify(() -> {
+          assertEquals(200, first.statusCode());
+          assertEquals("1", first.getHeader("ratelimit-limit"));
+          assertEquals("0", first.getHeader("ratelimit-remaining"));
+        });
+        return client.get(8106, "localhost", "/ok").putHeader("X-API-Key", "alice").send();
+      })
+      .compose(second -> {
+        testContext.verify(() -> {
+          assertEquals(429, second.statusCode());
+          assertEquals("RATE_LIMITED", second.bodyAsJsonObject().getString("errorCode"));
+          assertTrue(Long.parseLong(second.getHeader("retry-after")) >= 1);
+        });
+        return client.get(8106, "localhost", "/ok").putHeader("X-API-Key", "bob").send();
+      })
+      .onComplete(testContext.succeeding(other -> testContext.verify(() -> {
+        assertEquals(200, other.statusCode());
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testGlobalRejectionDoesNotChargeClient(Vertx vertx, VertxTestContext testContext) {
+    RateLimiter perKey = new RateLimiter("client", 0.01, 2, 100, SECOND);
+    RateLimiter global = new RateLimiter("global", 0.01, 1, 1, SECOND);
+    global.tryAcquire("", System.nanoTime());
+    RateLimitHandler handler = new RateLimitHandler(perKey, global, "X-API-Key");
+    Router router = Router.router(vertx);
+    router.route().handler(handler::handle);
+    router.get("/ok").handler(ctx -> ctx.response().end("ok"));
+    WebClient client = WebClient.create(vertx);
+
+    vertx.createHttpServer().requestHandler(router).listen(8107)
+      .compose(s -> client.get(8107, "localhost", "/ok").putHeader("X-API-Key", "alice").send())
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(429, response.statusCode());
+        assertEquals(1, perKey.tryAcquire("key:alice", System.nanoTime()));
+        testContext.completeNow();
+      })));
+  }
+}
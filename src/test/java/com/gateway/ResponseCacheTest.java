@@ -0,0 +1,167 @@
+package com.gateway;
+
+import com.gateway.cache.CacheStats;
+import com.gateway.cache.ResponseCache;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ResponseCacheTest {
+
+  private AtomicLong now;
+  private CacheStats stats;
+  private ResponseCache cache;
+
+  @BeforeEach
+  void setup() {
+    now = new AtomicLong(1_000_000L);
+    stats = new CacheStats();
+    cache = new ResponseCache(2, 0, 5_000, stats, now::get);
+  }
+
+  @SuppressWarnings("unchecked")
+  private HttpResponse<Buffer> response(int status, String cacheControl) {
+    HttpResponse<Buffer> response = mock(HttpResponse.class);
+    when(response.statusCode()).thenReturn(status);
+    when(response.getHeader("cache-control")).thenReturn(cacheControl);
+    return response;
+  }
+
+  @Test
+  void testServesFreshEntryFromCache() {
+    HttpResponse<Buffer> response = response(200, "public, max-age=60");
+    AtomicInteger loads = new AtomicInteger();
+
+    cache.get("a", () -> {
+      loads.incrementAndGet();
+      return Future.succeededFuture(response);
+    });
+    Future<HttpResponse<Buffer>> cached = cache.get("a", () -> {
+      loads.incrementAndGet();
+      return Future.succeededFuture(response);
+    });
+
+    assertSame(response, cached.result());
+    assertEquals(1, loads.get());
+    assertEquals(1, stats.getHits());
+    assertEquals(1, stats.getMisses());
+  }
+
+  @Test
+  void testDoesNotCacheWithoutFreshnessOrOnNoStore() {
+    cache.get("a", () -> Future.succeededFuture(response(200, null)));
+    cache.get("b", () -> Future.succeededFuture(response(200, "no-store, max-age=60")));
+    cache.get("c", () -> Future.succeededFuture(response(500, "max-age=60")));
+
+    assertEquals(0, cache.size());
+    assertEquals(3, stats.getMisses());
+  }
+
+  @Test
+  void testHonorsExpiresHeader() {
+    HttpResponse<Buffer> response = response(200, null);
+    when(response.getHeader("date")).thenReturn("Thu, 01 Jan 2026 00:00:00 GMT");
+    when(response.getHeader("expires")).thenReturn("Thu, 01 Jan 2026 00:00:30 GMT");
+    cache.get("a", () -> Future.succeededFuture(response));
+
+    now.addAndGet(29_000);
+    cache.get("a", () -> Future.failedFuture("should not load"));
+    assertEquals(1, stats.getHits());
+
+    now.addAndGet(10_000);
+    cache.get("a", () -> Future.succeededFuture(response));
+    assertEquals(2, stats.getMisses());
+  }
+
+  @Test
+  void testServesStaleWhileRevalidating() {
+    HttpResponse<Buffer> stale = response(200, "max-age=1");
+    HttpResponse<Buffer> fresh = response(200, "max-age=60");
+    cache.get("a", () -> Future.succeededFuture(stale));
+
+    now.addAndGet(2_000);
+    Promise<HttpResponse<Buffer>> refresh = Promise.promise();
+    AtomicInteger refreshes = new AtomicInteger();
+    Future<HttpResponse<Buffer>> first = cache.get("a", () -> {
+      refreshes.incrementAndGet();
+      return refresh.future();
+    });
+    Future<HttpResponse<Buffer>> second = cache.get("a", () -> {
+      refreshes.incrementAndGet();
+      return refresh.future();
+    });
+
+    assertSame(stale, first.result());
+    assertSame(stale, second.result());
+    assertEquals(1, refreshes.get());
+    assertEquals(2, stats.getStaleHits());
+
+    refresh.complete(fresh);
+    assertSame(fresh, cache.get("a", () -> Future.failedFuture("should not load")).result());
+  }
+
+  @Test
+  void testRevalidatesExpiredEntryWithEtag() {
+    HttpResponse<Buffer> response = response(200, "max-age=60");
+    when(response.getHeader("etag")).thenReturn("\"v1\"");
+    cache.get("a", conditional -> {
+      assertNull(conditional);
+      return Future.succeededFuture(response);
+    });
+
+    now.addAndGet(70_000);
+    HttpResponse<Buffer> notModified = response(304, null);
+    Future<HttpResponse<Buffer>> revalidated = cache.get("a", conditional -> {
+      assertEquals("\"v1\"", conditional.get("if-none-match"));
+      return Future.succeededFuture(notModified);
+    });
+
+    assertSame(response, revalidated.result());
+    assertEquals(1, stats.getRevalidated());
+    assertEquals(2, stats.getMisses());
+
+    now.addAndGet(30_000);
+    assertSame(response, cache.get("a", () -> Future.failedFuture("should not load")).result());
+    assertEquals(1, stats.getHits());
+  }
+
+  @Test
+  void testNoCacheEntryWithValidatorIsRevalidatedOnEveryUse() {
+    HttpResponse<Buffer> response = response(200, "no-cache");
+    when(response.getHeader("last-modified")).thenReturn("Thu, 01 Jan 2026 00:00:00 GMT");
+    cache.get("a", () -> Future.succeededFuture(response));
+    assertEquals(1, cache.size());
+
+    HttpResponse<Buffer> changed = response(200, "no-cache");
+    Future<HttpResponse<Buffer>> result = cache.get("a", conditional -> {
+      assertEquals("Thu, 01 Jan 2026 00:00:00 GMT", conditional.get("if-modified-since"));
+      return Future.succeededFuture(changed);
+    });
+
+    assertSame(changed, result.result());
+    assertEquals(0, stats.getRevalidated());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void testEvictsLeastRecentlyUsedEntry() {
+    cache.get("a", () -> Future.succeededFuture(response(200, "max-age=60")));
+    cache.get("b", () -> Future.succeededFuture(response(200, "max-age=60")));
+    cache.get("a", () -> Future.failedFuture("should not load"));
+    cache.get("c", () -> Future.succeededFuture(response(200, "max-age=60")));
+
+    assertEquals(2, cache.size());
+    assertEquals(1, stats.getEvictions());
+    assertTrue(cache.get("a", () -> Future.failedFuture("evicted")).succeeded());
+    assertTrue(cache.get("b", () -> Future.failedFuture("evicted")).failed());
+  }
+}
@@ -0,0 +1,129 @@
+package com.gateway;
+
+import com.gateway.handler.ResponseWriter;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ResponseWriterTest {
+
+  @Mock
+  private RoutingContext context;
+
+  @Mock
+  private HttpServerRequest request;
+
+  @Mock
+  private HttpServerResponse response;
+
+  private final JsonObject body = new JsonObject()
+    .put("post_title", "title")
+    .put("author_name", "name");
+
+  @BeforeEach
+  void setup() {
+    MockitoAnnotations.openMocks(this);
+    when(context.request()).thenReturn(request);
+    when(context.response()).thenReturn(response);
+    when(response.setStatusCode(anyInt())).thenReturn(response);
+    when(response.putHeader(anyString(), anyString())).thenReturn(response);
+    when(response.putHeader(any(CharSequence.class), any(CharSequence.class))).thenReturn(response);
+    when(response.end(any(Buffer.class))).thenReturn(Promise.<Void>promise().future());
+  }
+
+  private String written() {
+    ArgumentCaptor<Buffer> captor = ArgumentCaptor.forClass(Buffer.class);
+    verify(response).end(captor.capture());
+    return captor.getValue().toString();
+  }
+
+  @Test
+  void testWritesCompactJsonByDefault() {
+    new ResponseWriter("pretty", 0).writeJson(context, 200, body);
+
+    verify(response).setStatusCode(200);
+    assertEquals("{\"post_title\":\"title\",\"author_name\":\"name\"}", written());
+  }
+
+  @Test
+  void testEncodesLikeVertxCodec() {
+    JsonObject values = new JsonObject()
+      .put("instant", Instant.parse("2024-01-02T03:04:05.678Z"))
+      .put("bytes", new byte[] {1, 2, 3})
+      .put("buffer", Buffer.buffer("gateway"))
+      .put("unit", TimeUnit.SECONDS)
+      .put("nested", new JsonObject().put("decimal", 1.5f).putNull("none"));
+
+    new ResponseWriter("pretty", 0).writeJson(context, 200, values);
+
+    assertEquals(values.encode(), written());
+  }
+
+  @Test
+  void testPrettyQueryFlagProducesIndentedJson() {
+    when(request.getParam("pretty")).thenReturn("true");
+
+    new ResponseWriter("pretty", 0).writeJson(context, 200, body);
+
+    assertEquals(body.encodePrettily(), written());
+  }
+
+  @Test
+  void testGetCarriesWeakEtagAndMatchingRequestGets304() {
+    when(request.method()).thenReturn(HttpMethod.GET);
+    when(response.end()).thenReturn(Promise.<Void>promise().future());
+    ResponseWriter writer = new ResponseWriter("pretty", 0, true);
+
+    writer.writeJson(context, 200, body);
+    ArgumentCaptor<CharSequence> etag = ArgumentCaptor.forClass(CharSequence.class);
+    verify(response).putHeader(eq(HttpHeaders.ETAG), etag.capture());
+    assertTrue(etag.getValue().toString().startsWith("W/\""));
+
+    when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"other\", " + etag.getValue());
+    writer.writeJson(context, 200, body);
+
+    verify(response).setStatusCode(304);
+    verify(response).end();
+    verify(response, times(1)).end(any(Buffer.class));
+  }
+
+  @Test
+  void testEtagIsSkippedForErrorsAndPost() {
+    when(request.method()).thenReturn(HttpMethod.POST);
+    new ResponseWriter("pretty", 0, true).writeJson(context, 200, body);
+    when(request.method()).thenReturn(HttpMethod.GET);
+    new ResponseWriter("pretty", 0, true).writeJson(context, 502, body);
+
+    verify(response, never()).putHeader(eq(HttpHeaders.ETAG), any(CharSequence.class));
+  }
+
+  @Test
+  void testSmallBodiesSkipCompression() {
+    new ResponseWriter("pretty", 1024).writeJson(context, 200, body);
+
+    verify(response).putHeader(HttpHeaders.CONTENT_ENCODING, HttpHeaders.IDENTITY);
+  }
+
+  @Test
+  void testLargeBodiesAreLeftToCompressor() {
+    new ResponseWriter("pretty", 16).writeJson(context, 200, body);
+
+    verify(response, never()).putHeader(HttpHeaders.CONTENT_ENCODING, HttpHeaders.IDENTITY);
+  }
+}
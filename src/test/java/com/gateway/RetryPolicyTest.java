@@ -0,0 +1,163 @@
+package com.gateway;
+
+import com.gateway.config.AppConfig;
+import com.gateway.service.ApiService;
+import com.gateway.service.RetryPolicy;
+import com.gateway.service.RetryStats;
+import com.gateway.service.SharedResources;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClosedException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.net.ConnectException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class RetryPolicyTest {
+
+  private static final String BASE = "http://localhost:8104";
+
+  private Vertx vertx;
+  private final AtomicInteger flakyCalls = new AtomicInteger();
+  private final AtomicInteger brokenCalls = new AtomicInteger();
+
+  @BeforeEach
+  void setup(VertxTestContext testContext) {
+    vertx = Vertx.vertx();
+
+    Router router = Router.router(vertx);
+    router.get("/flaky").handler(ctx -> {
+      if (flakyCalls.incrementAndGet() <= 2) {
+        ctx.response().setStatusCode(503).end();
+      } else {
+        ctx.json(new JsonObject().put("ok", true));
+      }
+    });
+    router.get("/broken").handler(ctx -> {
+      brokenCalls.incrementAndGet();
+      ctx.response().setStatusCode(500).end();
+    });
+
+    vertx.createHttpServer()
+      .requestHandler(router)
+      .listen(8104)
+      .onComplete(testContext.succeedingThenComplete());
+  }
+
+  @AfterEach
+  void cleanup(VertxTestContext testContext) {
+    vertx.close(testContext.succeedingThenComplete());
+  }
+
+  private ApiService apiService(JsonObject retries) {
+    return new ApiService(vertx, new AppConfig(vertx, new JsonObject()
+      .put("cache.enabled", false)
+      .put("coalesce.enabled", false)
+      .put("upstream.retries", retries)));
+  }
+
+  @Test
+  void testBackoffIsJitteredAndCapped() {
+    RetryPolicy policy = new RetryPolicy(5, 10, 50, 10);
+    for (int i = 0; i < 1000; i++) {
+      long first = policy.backoffMs(1);
+      long third = policy.backoffMs(3);
+      long tenth = policy.backoffMs(10);
+      assertTrue(first >= 1 && first <= 10, "first " + first);
+      assertTrue(third >= 1 && third <= 40, "third " + third);
+      assertTrue(tenth >= 1 && tenth <= 50, "tenth " + tenth);
+    }
+  }
+
+  @Test
+  void testBudgetCapsRetriesToFractionOfRequests() {
+    RetryPolicy policy = new RetryPolicy(3, 10, 100, 10);
+    int burst = 0;
+    while (policy.tryAcquireRetry()) {
+      burst++;
+    }
+    assertEquals(10, burst);
+
+    int retries = 0;
+    for (int i = 0; i < 100; i++) {
+      policy.onRequest();
+      if (policy.tryAcquireRetry()) {
+        retries++;
+      }
+    }
+    assertEquals(10, retries);
+  }
+
+  @Test
+  void testOnlyIdempotentFailuresAreRetryable() {
+    assertTrue(RetryPolicy.isRetryable(502));
+    assertTrue(RetryPolicy.isRetryable(503));
+    assertTrue(RetryPolicy.isRetryable(504));
+    assertFalse(RetryPolicy.isRetryable(500));
+    assertFalse(RetryPolicy.isRetryable(404));
+    assertTrue(RetryPolicy.isRetryable(new ConnectException("Connection refused")));
+    assertTrue(RetryPolicy.isRetryable(new HttpClosedException("closed")));
+    assertFalse(RetryPolicy.isRetryable(new TimeoutException("timed out")));
+  }
+
+  @Test
+  void testTransient503IsRetriedUntilSuccess(VertxTestContext testContext) {
+    RetryStats stats = SharedResources.get(vertx).retryStats("flaky");
+
+    apiService(new JsonObject()).fetch("flaky", BASE + "/flaky")
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(200, response.statusCode());
+        assertEquals(3, flakyCalls.get());
+        assertEquals(2, stats.getRetries());
+        assertEquals(1, stats.getRecovered());
+        assertEquals(0, stats.getExhausted());
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testNonRetryableStatusIsReturnedAtOnce(VertxTestContext testContext) {
+    apiService(new JsonObject()).fetch("broken", BASE + "/broken")
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(500, response.statusCode());
+        assertEquals(1, brokenCalls.get());
+        assertEquals(0, SharedResources.get(vertx).retryStats("broken").getRetries());
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testConnectFailureExhaustsRetries(VertxTestContext testContext) {
+    RetryStats stats = SharedResources.get(vertx).retryStats("down");
+
+    apiService(new JsonObject()).fetch("down", "http://localhost:8105/nothing")
+      .onComplete(testContext.failing(error -> testContext.verify(() -> {
+        assertEquals(2, stats.getRetries());
+        assertEquals(1, stats.getExhausted());
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testPerUpstreamProfileOverridesDefault(VertxTestContext testContext) {
+    ApiService apiService = apiService(new JsonObject()
+      .put("flaky", new JsonObject().put("max.retries", 0)));
+
+    apiService.fetch("flaky", BASE + "/flaky")
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(503, response.statusCode());
+        assertEquals(1, flakyCalls.get());
+        testContext.completeNow();
+      })));
+  }
+}
@@ -0,0 +1,147 @@
+package com.gateway;
+
+import com.gateway.cache.SharedCache;
+import com.gateway.cache.SharedEntry;
+import com.gateway.config.AppConfig;
+import com.gateway.service.ApiService;
+import com.gateway.service.SharedResources;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two {@link ApiService}s stand in for two gateway nodes sharing one cache tier.
+ */
+@ExtendWith(VertxExtension.class)
+class SharedCacheTest {
+
+  private static final int UPSTREAM_PORT = 8112;
+  private static final String POST = "http://localhost:" + UPSTREAM_PORT + "/posts/1";
+  private static final String MISSING = "http://localhost:" + UPSTREAM_PORT + "/posts/404";
+
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+  private AppConfig config;
+
+  @BeforeEach
+  void setup(Vertx vertx, VertxTestContext testContext) {
+    Router upstream = Router.router(vertx);
+    upstream.get("/posts/1").handler(ctx -> {
+      upstreamCalls.incrementAndGet();
+      ctx.response()
+        .putHeader("cache-control", "max-age=60")
+        .putHeader("content-type", "application/json")
+        .end(new JsonObject().put("id", 1).encode());
+    });
+    upstream.get("/posts/404").handler(ctx -> {
+      upstreamCalls.incrementAndGet();
+      ctx.response().setStatusCode(404).end();
+    });
+    // The shared tier is on by default.
+    config = new AppConfig(vertx);
+
+    vertx.createHttpServer().requestHandler(upstream).listen(UPSTREAM_PORT)
+      .onComplete(testContext.succeedingThenComplete());
+  }
+
+  @Test
+  void testSecondNodeIsServedFromSharedTier(Vertx vertx, VertxTestContext testContext) {
+    ApiService first = new ApiService(vertx, config);
+    ApiService second = new ApiService(vertx, config);
+
+    first.fetch(POST)
+      .compose(response -> second.fetch(POST))
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(200, response.statusCode());
+        assertEquals(1, response.bodyAsJsonObject().getInteger("id"));
+        assertEquals("max-age=60", response.getHeader("cache-control"));
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1, SharedResources.get(vertx).cacheStats().getSharedHits());
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testUpstream404IsCachedNegatively(Vertx vertx, VertxTestContext testContext) {
+    ApiService first = new ApiService(vertx, config);
+    ApiService second = new ApiService(vertx, config);
+
+    first.fetch(MISSING)
+      .compose(response -> first.fetch(MISSING))
+      .compose(response -> second.fetch(MISSING))
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(404, response.statusCode());
+        assertEquals(1, upstreamCalls.get());
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testInvalidationReachesEveryNode(Vertx vertx, VertxTestContext testContext) {
+    ApiService first = new ApiService(vertx, config);
+    ApiService second = new ApiService(vertx, config);
+
+    first.fetch(POST)
+      .compose(response -> second.fetch(POST))
+      .compose(response -> first.invalidate(POST))
+      .compose(v -> delay(vertx, 100))
+      .compose(v -> second.fetch(POST))
+      .compose(response -> first.fetch(POST))
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(200, response.statusCode());
+        assertEquals(2, upstreamCalls.get());
+        assertTrue(SharedResources.get(vertx).cacheStats().getInvalidations() >= 2);
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testPluggedInSharedCacheIsUsed(Vertx vertx, VertxTestContext testContext) {
+    Map<String, JsonObject> store = new ConcurrentHashMap<>();
+    SharedResources.get(vertx).useSharedCache(new SharedCache() {
+      @Override
+      public Future<SharedEntry> get(String key) {
+        JsonObject json = store.get(key);
+        return Future.succeededFuture(json == null ? null : SharedEntry.fromJson(json));
+      }
+
+      @Override
+      public Future<Void> put(String key, SharedEntry entry, long ttlMs) {
+        store.put(key, entry.toJson());
+        return Future.succeededFuture();
+      }
+
+      @Override
+      public Future<Void> remove(String key) {
+        store.remove(key);
+        return Future.succeededFuture();
+      }
+    });
+
+    new ApiService(vertx, config).fetch(POST)
+      .compose(response -> new ApiService(vertx, config).fetch(POST))
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        assertEquals(1, upstreamCalls.get());
+        assertTrue(store.containsKey(POST));
+        testContext.completeNow();
+      })));
+  }
+
+  private static Future<Void> delay(Vertx vertx, long ms) {
+    Promise<Void> promise = Promise.promise();
+    vertx.setTimer(ms, id -> promise.complete());
+    return promise.future();
+  }
+}
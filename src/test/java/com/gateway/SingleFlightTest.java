@@ -0,0 +1,85 @@
+package com.gateway;
+
+import com.gateway.service.CoalescingStats;
+import com.gateway.service.SingleFlight;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+  private AtomicLong now;
+  private CoalescingStats stats;
+  private SingleFlight<String> singleFlight;
+  private AtomicInteger calls;
+
+  @BeforeEach
+  void setup() {
+    now = new AtomicLong();
+    stats = new CoalescingStats();
+    singleFlight = new SingleFlight<>(100, 2, stats, now::get);
+    calls = new AtomicInteger();
+  }
+
+  private Future<String> call(Promise<String> promise) {
+    return singleFlight.execute("key", () -> {
+      calls.incrementAndGet();
+      return promise.future();
+    });
+  }
+
+  @Test
+  void testConcurrentCallsShareOneFuture() {
+    Promise<String> promise = Promise.promise();
+
+    Future<String> first = call(promise);
+    Future<String> second = call(Promise.promise());
+
+    promise.complete("value");
+    assertEquals(1, calls.get());
+    assertEquals("value", first.result());
+    assertEquals("value", second.result());
+    assertEquals(1, stats.getLeaders());
+    assertEquals(1, stats.getCoalesced());
+  }
+
+  @Test
+  void testCompletedCallIsNotReused() {
+    Promise<String> promise = Promise.promise();
+    call(promise);
+    promise.complete("first");
+    call(Promise.promise());
+
+    assertEquals(2, calls.get());
+    assertEquals(1, singleFlight.inFlightCount());
+  }
+
+  @Test
+  void testWaiterLimitStartsNewCall() {
+    call(Promise.promise());
+    call(Promise.promise());
+    call(Promise.promise());
+    call(Promise.promise());
+
+    assertEquals(2, calls.get());
+    assertEquals(2, stats.getCoalesced());
+    assertEquals(1, stats.getJoinsRejected());
+  }
+
+  @Test
+  void testJoinWindowStartsNewCall() {
+    call(Promise.promise());
+    now.addAndGet(150);
+    call(Promise.promise());
+
+    assertEquals(2, calls.get());
+    assertEquals(0, stats.getCoalesced());
+    assertEquals(1, stats.getJoinsRejected());
+  }
+}
@@ -0,0 +1,103 @@
+package com.gateway;
+
+import com.gateway.config.AppConfig;
+import com.gateway.config.UpstreamClientProfile;
+import com.gateway.service.ApiService;
+import com.gateway.service.PoolStats;
+import com.gateway.service.SharedResources;
+import com.gateway.service.UpstreamClients;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class UpstreamClientsTest {
+
+  private static final String BASE = "http://localhost:8097";
+
+  private Vertx vertx;
+
+  @BeforeEach
+  void setup(VertxTestContext testContext) {
+    vertx = Vertx.vertx();
+    vertx.createHttpServer()
+      .requestHandler(request -> request.response().putHeader("content-type", "application/json").end("{}"))
+      .listen(8097)
+      .onComplete(testContext.succeedingThenComplete());
+  }
+
+  @AfterEach
+  void cleanup(VertxTestContext testContext) {
+    vertx.close(testContext.succeedingThenComplete());
+  }
+
+  private AppConfig config(JsonObject clients) {
+    return new AppConfig(vertx, new JsonObject()
+      .put("cache.enabled", false)
+      .put("coalesce.enabled", false)
+      .put("upstream.clients", clients));
+  }
+
+  @Test
+  void testNamedProfileOverridesDefault() {
+    AppConfig config = config(new JsonObject()
+      .put("default", new JsonObject().put("pool.size", 8).put("keepalive.timeout.seconds", 30))
+      .put("posts", new JsonObject().put("http2", true).put("http2.pool.size", 2).put("http2.multiplexing.limit", 50)));
+
+    UpstreamClientProfile posts = config.getUpstreamClientProfiles().get("posts");
+    assertEquals(8, posts.getPoolSize());
+    assertEquals(30, posts.getKeepAliveTimeoutSeconds());
+    assertTrue(posts.isHttp2());
+    assertEquals(100, posts.capacity());
+
+    UpstreamClients clients = config.getUpstreamClients();
+    assertSame(clients.get("posts"), clients.get("posts"));
+    assertSame(clients.get("default"), clients.get("users"));
+    assertEquals(8, clients.get("users").getProfile().capacity());
+  }
+
+  @Test
+  void testUnknownSslEngineRejected() {
+    assertThrows(IllegalArgumentException.class, () ->
+      config(new JsonObject().put("default", new JsonObject().put("ssl.engine", "boringssl"))));
+  }
+
+  @Test
+  void testPrewarmOpensConnectionsOnce(VertxTestContext testContext) {
+    AppConfig config = config(new JsonObject()
+      .put("default", new JsonObject().put("pool.size", 4).put("prewarm.connections", 3)));
+    UpstreamClients clients = config.getUpstreamClients();
+    PoolStats stats = clients.get("posts").getPoolStats();
+
+    clients.prewarm("posts", BASE + "/posts/{id}")
+      .compose(v -> clients.prewarm("posts", BASE + "/posts/{id}"))
+      .onComplete(testContext.succeeding(v -> testContext.verify(() -> {
+        assertEquals(3, stats.getConnectionsOpened());
+        assertEquals(3, stats.getOpenConnections());
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testFetchTracksPoolUsage(VertxTestContext testContext) {
+    AppConfig config = config(new JsonObject().put("default", new JsonObject().put("pool.size", 4)));
+    ApiService apiService = new ApiService(vertx, config);
+
+    apiService.fetch("posts", BASE + "/posts/1")
+      .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+        PoolStats stats = SharedResources.get(vertx).poolStats().get("default");
+        assertEquals(1, stats.getRequests());
+        assertEquals(0, stats.getInFlight());
+        assertEquals(1, stats.getPeakInFlight());
+        assertEquals(4, stats.getCapacity());
+        testContext.completeNow();
+      })));
+  }
+}
@@ -0,0 +1,89 @@
+package com.gateway;
+
+import com.gateway.aggregate.AggregationEngine;
+import com.gateway.aggregate.FetchReply;
+import com.gateway.aggregate.FetchRequest;
+import com.gateway.aggregate.UpstreamFetcherVerticle;
+import com.gateway.config.AppConfig;
+import com.gateway.config.ConfigHolder;
+import com.gateway.exception.ApiException;
+import com.gateway.loadtest.StubUpstreamVerticle;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class UpstreamFetcherTest {
+
+  private static final int UPSTREAM_PORT = 8113;
+
+  private static JsonObject settings() {
+    String upstream = "http://localhost:" + UPSTREAM_PORT;
+    return new JsonObject()
+      .put("api.posts.url", upstream + "/posts/1")
+      .put("api.users.url", upstream + "/users/1")
+      .put("fetchers.enabled", true)
+      .put("fetchers.instances", new JsonObject().put("default", 1).put("users", 2));
+  }
+
+  @Test
+  void testCodecsRoundTripOnTheWire() {
+    Buffer buffer = Buffer.buffer();
+    new FetchRequest.Codec().encodeToWire(buffer, new FetchRequest("/aggregate", "users", "http://host/users/1"));
+    FetchRequest request = new FetchRequest.Codec().decodeFromWire(0, buffer);
+    assertEquals("/aggregate", request.getRoute());
+    assertEquals("users", request.getUpstream());
+    assertEquals("http://host/users/1", request.getUrl());
+
+    FetchReply.Codec codec = new FetchReply.Codec();
+    Buffer success = Buffer.buffer();
+    codec.encodeToWire(success, FetchReply.success(new JsonObject().put("name", "Stub Author")));
+    assertEquals("Stub Author", codec.decodeFromWire(0, success).toFuture().result().getString("name"));
+
+    Buffer failure = Buffer.buffer();
+    codec.encodeToWire(failure, FetchReply.failure(new ApiException("Failed", 404, "USER_API_ERROR")));
+    ApiException error = (ApiException) codec.decodeFromWire(0, failure).toFuture().cause();
+    assertEquals(404, error.getStatusCode());
+    assertEquals("USER_API_ERROR", error.getErrorCode());
+    assertEquals("Failed", error.getMessage());
+  }
+
+  @Test
+  void testEngineFetchesThroughFetcherVerticles(Vertx vertx, VertxTestContext testContext) {
+    AppConfig config = new AppConfig(vertx, settings());
+    Map<String, Integer> instances = UpstreamFetcherVerticle.instances(config);
+    assertEquals(Map.of("posts", 1, "users", 2), instances);
+    AggregationEngine engine = AggregationEngine.viaEventBus(vertx, new ConfigHolder(config));
+
+    vertx.deployVerticle(new StubUpstreamVerticle(UPSTREAM_PORT))
+      .compose(id -> UpstreamFetcherVerticle.deploy(vertx, instances, settings()))
+      .compose(v -> engine.execute(config.getAggregateRoutes().get(0), name -> null))
+      .onComplete(testContext.succeeding(result -> testContext.verify(() -> {
+        assertEquals("stub post title", result.getString("post_title"));
+        assertEquals("Stub Author", result.getString("author_name"));
+        assertNull(result.getString("warning"));
+        testContext.completeNow();
+      })));
+  }
+
+  @Test
+  void testMissingFetcherFallsBack(Vertx vertx, VertxTestContext testContext) {
+    AppConfig config = new AppConfig(vertx, settings());
+    AggregationEngine engine = AggregationEngine.viaEventBus(vertx, new ConfigHolder(config));
+
+    engine.execute(config.getAggregateRoutes().get(0), name -> null)
+      .onComplete(testContext.failing(error -> testContext.verify(() -> {
+        assertEquals("UPSTREAM_FETCHER_UNAVAILABLE", ((ApiException) error).getErrorCode());
+        assertEquals(503, ((ApiException) error).getStatusCode());
+        testContext.completeNow();
+      })));
+  }
+}
@@ -0,0 +1,97 @@
+package com.gateway.benchmark;
+
+import com.gateway.ApiGatewayVerticle;
+import com.gateway.loadtest.StubUpstreamVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives GET /aggregate over real HTTP against an in-process stub upstream, with
+ * the response cache on or off. {@link #aggregate} measures one request at a time;
+ * {@link #aggregateConcurrent} keeps 16 requests in flight.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregateEndToEndBenchmark {
+
+  private static final int UPSTREAM_PORT = 18090;
+  private static final int GATEWAY_PORT = 18091;
+
+  @Param({"false", "true"})
+  public boolean cache;
+
+  private Vertx vertx;
+  private WebClient client;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    vertx = Vertx.vertx();
+    String upstream = "http://localhost:" + UPSTREAM_PORT;
+    JsonObject config = new JsonObject()
+      .put("server.port", GATEWAY_PORT)
+      .put("api.posts.url", upstream + "/posts/1")
+      .put("api.users.url", upstream + "/users/1")
+      .put("cache.enabled", cache)
+      .put("limit.server.enabled", false)
+      .put("limit.upstream.enabled", false);
+
+    vertx.deployVerticle(new StubUpstreamVerticle(UPSTREAM_PORT))
+      .compose(id -> vertx.deployVerticle(ApiGatewayVerticle::new, new DeploymentOptions().setConfig(config)))
+      .toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+
+    client = WebClient.create(vertx, new WebClientOptions()
+      .setDefaultPort(GATEWAY_PORT)
+      .setMaxPoolSize(32)
+      .setKeepAlive(true));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    vertx.close().toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public int aggregate() throws Exception {
+    return send();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public int aggregateConcurrent() throws Exception {
+    return send();
+  }
+
+  private int send() throws Exception {
+    HttpResponse<Buffer> response = client.get("/aggregate").send()
+      .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException("Unexpected status " + response.statusCode());
+    }
+    return response.body().length();
+  }
+}
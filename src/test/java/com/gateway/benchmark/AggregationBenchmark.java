@@ -0,0 +1,101 @@
+package com.gateway.benchmark;
+
+import com.gateway.aggregate.AggregationEngine;
+import com.gateway.aggregate.RouteDefinition;
+import com.gateway.exception.ApiException;
+import com.gateway.json.JsonEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of building the /aggregate body from upstream results: the all-success
+ * merge, partial and full fallback construction, and encoding the result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregationBenchmark {
+
+  private RouteDefinition route;
+  private List<Future<JsonObject>> allSucceeded;
+  private List<Future<JsonObject>> usersFailed;
+  private List<Future<JsonObject>> allFailed;
+  private JsonObject response;
+
+  @Setup
+  public void setup() {
+    route = RouteDefinition.fromJson(new JsonObject()
+      .put("path", "/aggregate")
+      .put("upstreams", new JsonArray()
+        .add(new JsonObject()
+          .put("name", "posts")
+          .put("url", "http://localhost/posts/1")
+          .put("fields", new JsonObject().put("post_title", "title"))
+          .put("warning", "Post data unavailable"))
+        .add(new JsonObject()
+          .put("name", "users")
+          .put("url", "http://localhost/users/1")
+          .put("fields", new JsonObject().put("author_name", "name"))
+          .put("warning", "User data unavailable"))));
+
+    Future<JsonObject> post = Future.succeededFuture(new JsonObject().put("title", "stub post title"));
+    Future<JsonObject> user = Future.succeededFuture(new JsonObject().put("name", "Stub Author"));
+    Future<JsonObject> postFailed = Future.failedFuture(new ApiException("Failed to fetch post data", 503, "POST_API_ERROR"));
+    Future<JsonObject> userFailed = Future.failedFuture(new ApiException("Failed to fetch user data", 503, "USER_API_ERROR"));
+
+    allSucceeded = List.of(post, user);
+    usersFailed = List.of(post, userFailed);
+    allFailed = List.of(postFailed, userFailed);
+    response = AggregationEngine.aggregateResponse(route, allSucceeded);
+  }
+
+  @Benchmark
+  public JsonObject aggregateSuccess() {
+    return AggregationEngine.aggregateResponse(route, allSucceeded);
+  }
+
+  @Benchmark
+  public JsonObject aggregatePartialFallback() {
+    return AggregationEngine.aggregateResponse(route, usersFailed);
+  }
+
+  @Benchmark
+  public JsonObject aggregateFullFallback() {
+    return AggregationEngine.aggregateResponse(route, allFailed);
+  }
+
+  @Benchmark
+  public Buffer encodeToBuffer() {
+    return response.toBuffer();
+  }
+
+  @Benchmark
+  public int encodePooled() {
+    ByteBuf encoded = JsonEncoder.encode(response, PooledByteBufAllocator.DEFAULT);
+    try {
+      return encoded.readableBytes();
+    } finally {
+      encoded.release();
+    }
+  }
+}
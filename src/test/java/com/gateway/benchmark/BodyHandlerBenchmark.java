@@ -0,0 +1,138 @@
+package com.gateway.benchmark;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.ext.web.handler.BodyHandler;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a GET /aggregate-shaped request with the body handler installed on every
+ * route ({@code global}, the old router) versus only on the batch POST route
+ * ({@code perRoute}). The GET handler answers with a fixed body so the difference
+ * is the body handler alone. Without a request body the global handler has
+ * little to do; with one it buffers the body that the GET never reads.
+ *
+ * {@code -prof gc} only sees the benchmark thread, which just waits for the
+ * response, so {@link AllocationCounter#serverBytesPerRequest} reports what the
+ * event loops allocate per request instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BodyHandlerBenchmark {
+
+  private static final int PORT = 18092;
+  private static final Buffer RESPONSE = new JsonObject()
+    .put("post_title", "Stub title")
+    .put("author_name", "Stub Author")
+    .toBuffer();
+
+  @Param({"global", "perRoute"})
+  public String bodyHandler;
+
+  /**
+   * Size of a body sent with the GET, which the global body handler buffers.
+   */
+  @Param({"0", "4096"})
+  public int requestBodyBytes;
+
+  private Vertx vertx;
+  private WebClient client;
+  private Buffer requestBody;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    vertx = Vertx.vertx();
+    Router router = Router.router(vertx);
+    if ("global".equals(bodyHandler)) {
+      router.route().handler(BodyHandler.create());
+    }
+    router.get("/aggregate").handler(ctx -> ctx.response()
+      .putHeader("content-type", "application/json")
+      .end(RESPONSE));
+    router.post("/aggregate/batch")
+      .handler(BodyHandler.create(false).setBodyLimit(1048576))
+      .handler(ctx -> ctx.response().end());
+
+    vertx.createHttpServer().requestHandler(router).listen(PORT)
+      .toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+    client = WebClient.create(vertx, new WebClientOptions().setDefaultPort(PORT).setKeepAlive(true));
+    requestBody = Buffer.buffer(new byte[requestBodyBytes]);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    vertx.close().toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public int aggregate(AllocationCounter counter) throws Exception {
+    HttpResponse<Buffer> response = (requestBodyBytes == 0
+        ? client.get("/aggregate").send()
+        : client.get("/aggregate").sendBuffer(requestBody))
+      .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    counter.requests++;
+    return response.body().length();
+  }
+
+  /**
+   * Bytes allocated by the Vert.x event loop threads over an iteration, divided by
+   * the requests sent. Includes the client side, which is the same in both modes.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class AllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public double serverBytesPerRequest;
+    private long requests;
+    private long startBytes;
+
+    @Setup(Level.Iteration)
+    public void start() {
+      requests = 0;
+      startBytes = eventLoopBytes();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+      serverBytesPerRequest = requests == 0 ? 0 : (double) (eventLoopBytes() - startBytes) / requests;
+    }
+
+    private static long eventLoopBytes() {
+      long total = 0;
+      for (Thread thread : Thread.getAllStackTraces().keySet()) {
+        if (thread.getName().startsWith("vert.x-eventloop-thread")) {
+          total += Math.max(0, THREADS.getThreadAllocatedBytes(thread.getId()));
+        }
+      }
+      return total;
+    }
+  }
+}
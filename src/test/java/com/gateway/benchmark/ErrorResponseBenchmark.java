@@ -0,0 +1,113 @@
+package com.gateway.benchmark;
+
+import com.gateway.exception.ApiException;
+import com.gateway.handler.GlobalExceptionHandler;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Cost of turning a failure into an error response in GlobalExceptionHandler:
+ * building and serializing the error body. The routing context is a stub-only
+ * Mockito mock; {@link #mockOverhead} measures what the mock itself costs.
+ * The handler's logging is included; the log writer thread prints to a null stream.
+ * {@link #newApiException} and {@link #stacklessApiException} add the cost of
+ * creating the failure, as a fresh exception per upstream error would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+  private GlobalExceptionHandler handler;
+  private RoutingContext apiFailure;
+  private RoutingContext unexpectedFailure;
+  private RoutingContext stacklessFailure;
+  private PrintStream originalOut;
+
+  @Setup
+  public void setup() {
+    originalOut = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    handler = new GlobalExceptionHandler();
+    apiFailure = context(new ApiException("Both APIs failed", 503, "SERVICE_UNAVAILABLE"));
+    unexpectedFailure = context(new IllegalStateException("boom"));
+    stacklessFailure = context(ApiException.stackless("Both APIs failed", 503, "SERVICE_UNAVAILABLE"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    System.setOut(originalOut);
+  }
+
+  private static RoutingContext context(Throwable failure) {
+    RoutingContext context = mock(RoutingContext.class, withSettings().stubOnly());
+    HttpServerRequest request = mock(HttpServerRequest.class, withSettings().stubOnly());
+    HttpServerResponse response = mock(HttpServerResponse.class, withSettings().stubOnly());
+    when(context.failure()).thenReturn(failure);
+    when(context.statusCode()).thenReturn(-1);
+    when(context.request()).thenReturn(request);
+    when(context.response()).thenReturn(response);
+    when(response.setStatusCode(anyInt())).thenReturn(response);
+    when(response.putHeader(anyString(), anyString())).thenReturn(response);
+    when(response.end(any(Buffer.class))).thenReturn(Future.succeededFuture());
+    return context;
+  }
+
+  @Benchmark
+  public void apiException() {
+    handler.handle(apiFailure);
+  }
+
+  @Benchmark
+  public void unexpectedException() {
+    handler.handle(unexpectedFailure);
+  }
+
+  @Benchmark
+  public void cachedApiException() {
+    handler.handle(stacklessFailure);
+  }
+
+  @Benchmark
+  public Object newApiException() {
+    return new ApiException("Both APIs failed", 503, "SERVICE_UNAVAILABLE");
+  }
+
+  @Benchmark
+  public Object stacklessApiException() {
+    return ApiException.stackless("Both APIs failed", 503, "SERVICE_UNAVAILABLE");
+  }
+
+  @Benchmark
+  public Object mockOverhead() {
+    return apiFailure.response().setStatusCode(503).putHeader("content-type", "application/json");
+  }
+}
@@ -0,0 +1,114 @@
+package com.gateway.benchmark;
+
+import com.gateway.aggregate.AggregationEngine;
+import com.gateway.aggregate.RouteDefinition;
+import com.gateway.aggregate.UpstreamFetcherVerticle;
+import com.gateway.config.AppConfig;
+import com.gateway.config.ConfigHolder;
+import com.gateway.loadtest.StubUpstreamVerticle;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One execution of the default /aggregate route with upstreams fetched inline by
+ * the engine or by {@link UpstreamFetcherVerticle}s over the event bus. With the
+ * cache on, every fetch is a cache hit, so the difference is the event bus round
+ * trips alone; with it off, each fetch also goes to an in-process stub upstream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventBusFetchBenchmark {
+
+  private static final int UPSTREAM_PORT = 18093;
+
+  @Param({"inline", "eventBus"})
+  public String fetch;
+
+  @Param({"true", "false"})
+  public boolean cache;
+
+  private Vertx vertx;
+  private Context context;
+  private AggregationEngine engine;
+  private RouteDefinition route;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    vertx = Vertx.vertx();
+    String upstream = "http://localhost:" + UPSTREAM_PORT;
+    JsonObject settings = new JsonObject()
+      .put("api.posts.url", upstream + "/posts/1")
+      .put("api.users.url", upstream + "/users/1")
+      .put("cache.enabled", cache)
+      .put("cache.default.ttl.ms", 3_600_000)
+      .put("limit.upstream.enabled", false);
+    AppConfig config = new AppConfig(vertx, settings);
+    boolean eventBus = "eventBus".equals(fetch);
+
+    vertx.deployVerticle(new StubUpstreamVerticle(UPSTREAM_PORT))
+      .compose(id -> eventBus
+        ? UpstreamFetcherVerticle.deploy(vertx, UpstreamFetcherVerticle.instances(config), settings)
+        : Future.succeededFuture())
+      .toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+
+    context = vertx.getOrCreateContext();
+    ConfigHolder configs = new ConfigHolder(config);
+    engine = eventBus ? AggregationEngine.viaEventBus(vertx, configs) : new AggregationEngine(vertx, configs);
+    route = config.getAggregateRoutes().get(0);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    vertx.close().toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public JsonObject aggregate() throws Exception {
+    return execute();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public JsonObject aggregateConcurrent() throws Exception {
+    return execute();
+  }
+
+  private JsonObject execute() throws Exception {
+    CompletableFuture<JsonObject> result = new CompletableFuture<>();
+    context.runOnContext(v -> engine.execute(route, name -> null).onComplete(done -> {
+      if (done.succeeded()) {
+        result.complete(done.result());
+      } else {
+        result.completeExceptionally(done.cause());
+      }
+    }));
+    JsonObject response = result.get(10, TimeUnit.SECONDS);
+    if (response.containsKey("warning")) {
+      throw new IllegalStateException("Upstream failed: " + response.getString("warning"));
+    }
+    return response;
+  }
+}
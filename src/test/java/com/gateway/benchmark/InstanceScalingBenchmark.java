@@ -0,0 +1,114 @@
+package com.gateway.benchmark;
+
+import com.gateway.ApiGatewayVerticle;
+import com.gateway.loadtest.StubUpstreamVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load benchmark for /aggregate that redeploys the gateway with
+ * 1, 2, 4 ... N verticle instances against an in-process stub upstream and
+ * prints the throughput reached with each instance count.
+ *
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.gateway.benchmark.InstanceScalingBenchmark
+ *   -Dexec.args="[maxInstances] [connections] [seconds]"
+ */
+public class InstanceScalingBenchmark {
+
+  private static final int GATEWAY_PORT = 18080;
+  private static final int UPSTREAM_PORT = 18081;
+
+  public static void main(String[] args) throws Exception {
+    int cores = Runtime.getRuntime().availableProcessors();
+    int maxInstances = args.length > 0 ? Integer.parseInt(args[0]) : cores;
+    int connections = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+    Vertx gateway = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(maxInstances));
+    Vertx driver = Vertx.vertx();
+
+    await(driver.deployVerticle(new StubUpstreamVerticle(UPSTREAM_PORT),
+      new DeploymentOptions().setInstances(1)));
+
+    HttpClient client = driver.createHttpClient(new HttpClientOptions()
+      .setDefaultPort(GATEWAY_PORT)
+      .setMaxPoolSize(connections)
+      .setKeepAlive(true));
+
+    System.out.printf("%-10s %-12s %-12s%n", "instances", "requests", "req/s");
+    for (int instances : instanceCounts(maxInstances)) {
+      JsonObject config = new JsonObject()
+        .put("server.port", GATEWAY_PORT)
+        .put("verticle.instances", instances)
+        .put("api.posts.url", "http://localhost:" + UPSTREAM_PORT + "/posts/1")
+        .put("api.users.url", "http://localhost:" + UPSTREAM_PORT + "/users/1");
+
+      String deploymentId = await(gateway.deployVerticle(ApiGatewayVerticle::new,
+        new DeploymentOptions().setInstances(instances).setConfig(config)));
+
+      run(client, connections, 2);
+      long completed = run(client, connections, seconds);
+      System.out.printf("%-10d %-12d %-12.0f%n", instances, completed, (double) completed / seconds);
+
+      await(gateway.undeploy(deploymentId));
+    }
+
+    client.close();
+    await(gateway.close());
+    await(driver.close());
+  }
+
+  private static List<Integer> instanceCounts(int maxInstances) {
+    List<Integer> counts = new ArrayList<>();
+    for (int instances = 1; instances < maxInstances; instances *= 2) {
+      counts.add(instances);
+    }
+    counts.add(maxInstances);
+    return counts;
+  }
+
+  private static long run(HttpClient client, int connections, int seconds) throws Exception {
+    LongAdder completed = new LongAdder();
+    AtomicBoolean running = new AtomicBoolean(true);
+    List<Future<Void>> loops = new ArrayList<>();
+    for (int i = 0; i < connections; i++) {
+      loops.add(loop(client, running, completed));
+    }
+    Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+    running.set(false);
+    long total = completed.sum();
+    await(Future.all(loops));
+    return total;
+  }
+
+  private static Future<Void> loop(HttpClient client, AtomicBoolean running, LongAdder completed) {
+    if (!running.get()) {
+      return Future.succeededFuture();
+    }
+    return client.request(HttpMethod.GET, "/aggregate")
+      .compose(request -> request.send())
+      .compose(response -> response.body())
+      .compose(body -> {
+        completed.increment();
+        return loop(client, running, completed);
+      }, error -> loop(client, running, completed));
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(60, TimeUnit.SECONDS);
+  }
+}
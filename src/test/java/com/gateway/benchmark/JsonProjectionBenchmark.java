@@ -0,0 +1,71 @@
+package com.gateway.benchmark;
+
+import com.gateway.json.JsonProjection;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares full-tree decoding (bodyAsJsonObject) with the streaming projection used
+ * by AggregateHandler across upstream payload sizes. Run with -prof gc to see the
+ * allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonProjectionBenchmark {
+
+  private static final JsonProjection TITLE = JsonProjection.of("title");
+
+  @Param({"1", "64", "1024"})
+  public int payloadKb;
+
+  private Buffer body;
+
+  @Setup
+  public void setup() {
+    body = payload(payloadKb * 1024);
+  }
+
+  @Benchmark
+  public String fullTree() {
+    return body.toJsonObject().getString("title", "N/A");
+  }
+
+  @Benchmark
+  public String projection() {
+    return TITLE.extract(body).getString("title", "N/A");
+  }
+
+  static Buffer payload(int targetBytes) {
+    JsonObject post = new JsonObject()
+      .put("userId", 1)
+      .put("id", 1)
+      .put("title", "sunt aut facere repellat provident occaecati excepturi optio reprehenderit");
+    JsonObject comment = new JsonObject()
+      .put("email", "Eliseo@gardner.biz")
+      .put("body", "laudantium enim quasi est quidem magnam voluptate ipsam eos tempora quo necessitatibus");
+    int count = Math.max(0, (targetBytes - post.toBuffer().length()) / (comment.toBuffer().length() + 1));
+    JsonArray comments = new JsonArray();
+    for (int i = 0; i < count; i++) {
+      comments.add(comment.copy().put("id", i));
+    }
+    return post.put("comments", comments).toBuffer();
+  }
+}
@@ -0,0 +1,121 @@
+package com.gateway.benchmark;
+
+import com.gateway.ApiGatewayVerticle;
+import com.gateway.aggregate.RouteEnricher;
+import com.gateway.loadtest.StubUpstreamVerticle;
+import com.gateway.service.BlockingRunner;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load benchmark for /aggregate with a blocking enrichment step
+ * (a sleep standing in for a JDBC lookup). Runs the gateway once as event-loop
+ * verticles, where the step goes to the worker pool and the handler composes
+ * futures, and once as virtual-thread verticles, where the handler awaits and the
+ * step runs on its own virtual thread. Prints throughput for each.
+ *
+ * The virtual-thread run needs Java 21+ and is skipped on older runtimes.
+ *
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.gateway.benchmark.VirtualThreadBenchmark
+ *   -Dexec.args="[blockingMs] [connections] [seconds]"
+ */
+public class VirtualThreadBenchmark {
+
+  private static final int GATEWAY_PORT = 18082;
+  private static final int UPSTREAM_PORT = 18083;
+
+  public static void main(String[] args) throws Exception {
+    long blockingMs = args.length > 0 ? Long.parseLong(args[0]) : 10;
+    int connections = args.length > 1 ? Integer.parseInt(args[1]) : 512;
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+    Vertx gateway = Vertx.vertx(new VertxOptions().setWorkerPoolSize(20));
+    Vertx driver = Vertx.vertx();
+
+    await(driver.deployVerticle(new StubUpstreamVerticle(UPSTREAM_PORT)));
+
+    HttpClient client = driver.createHttpClient(new HttpClientOptions()
+      .setDefaultPort(GATEWAY_PORT)
+      .setMaxPoolSize(connections)
+      .setKeepAlive(true));
+
+    RouteEnricher enricher = (response, params) -> {
+      Thread.sleep(blockingMs);
+      return response.put("enriched", true);
+    };
+    JsonObject config = new JsonObject()
+      .put("server.port", GATEWAY_PORT)
+      .put("api.posts.url", "http://localhost:" + UPSTREAM_PORT + "/posts/1")
+      .put("api.users.url", "http://localhost:" + UPSTREAM_PORT + "/users/1")
+      .put("limit.server.enabled", false);
+
+    System.out.printf("blocking step %d ms, %d connections%n", blockingMs, connections);
+    System.out.printf("%-16s %-12s %-12s%n", "mode", "requests", "req/s");
+    for (ThreadingModel model : List.of(ThreadingModel.EVENT_LOOP, ThreadingModel.VIRTUAL_THREAD)) {
+      if (model == ThreadingModel.VIRTUAL_THREAD && !BlockingRunner.isVirtualThreadAvailable()) {
+        System.out.printf("%-16s skipped, needs Java 21+ (running %d)%n", model, Runtime.version().feature());
+        continue;
+      }
+      String deploymentId = await(gateway.deployVerticle(
+        () -> new ApiGatewayVerticle(Map.of("/aggregate", enricher)),
+        new DeploymentOptions().setThreadingModel(model).setConfig(config)));
+
+      run(client, connections, 2);
+      long completed = run(client, connections, seconds);
+      System.out.printf("%-16s %-12d %-12.0f%n", model, completed, (double) completed / seconds);
+
+      await(gateway.undeploy(deploymentId));
+    }
+
+    client.close();
+    await(gateway.close());
+    await(driver.close());
+  }
+
+  private static long run(HttpClient client, int connections, int seconds) throws Exception {
+    LongAdder completed = new LongAdder();
+    AtomicBoolean running = new AtomicBoolean(true);
+    List<Future<Void>> loops = new ArrayList<>();
+    for (int i = 0; i < connections; i++) {
+      loops.add(loop(client, running, completed));
+    }
+    Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+    running.set(false);
+    long total = completed.sum();
+    await(Future.all(loops));
+    return total;
+  }
+
+  private static Future<Void> loop(HttpClient client, AtomicBoolean running, LongAdder completed) {
+    if (!running.get()) {
+      return Future.succeededFuture();
+    }
+    return client.request(HttpMethod.GET, "/aggregate")
+      .compose(request -> request.send())
+      .compose(response -> response.body())
+      .compose(body -> {
+        completed.increment();
+        return loop(client, running, completed);
+      }, error -> loop(client, running, completed));
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(60, TimeUnit.SECONDS);
+  }
+}